@@ -1,9 +1,5 @@
 package network;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 import sim.engine.Schedule;
 
 /**
@@ -14,44 +10,44 @@ import sim.engine.Schedule;
  */
 public abstract class BasicInspectable implements Inspectable {
 	
+	private static final TimeSeries NO_TIMES = new TimeSeries().unmodifiableView();
+	
 	protected boolean needsInspection;
-	protected List<Long> inspectionTimes = new ArrayList<Long>();
-	private List<Long> inspectionNeededTimes = new ArrayList<Long>();
+	protected InspectionHistory inspectionTimes = new InspectionHistory();
+	private TimeSeries inspectionNeededTimes = new TimeSeries();
 	private double inspectionMultiplier = 1;
 	
 	public BasicInspectable(double inspectionMultiplier) {
 		if(inspectionMultiplier < 0)
 			throw new IllegalArgumentException("The inspection multiplier must be positive");
 		this.inspectionMultiplier = inspectionMultiplier;
-		inspectionTimes = new ArrayList<Long>();
-		inspectionNeededTimes = new ArrayList<Long>();
+		inspectionTimes = new InspectionHistory();
+		inspectionNeededTimes = new TimeSeries();
 	}
 	
 	public BasicInspectable() {
-		inspectionTimes = new ArrayList<Long>();
-		inspectionNeededTimes = new ArrayList<Long>();
+		inspectionTimes = new InspectionHistory();
+		inspectionNeededTimes = new TimeSeries();
 	}
 	
 	@Override
 	public long getLastInspectionTime() {
-		if(inspectionTimes.size() == 0)
-			return 0;
-		return inspectionTimes.get(inspectionTimes.size()-1);
+		return inspectionTimes.getLast();
 	}
 
 	@Override
 	public long getLastInspectionTimeAt(long step) {
-		if(inspectionTimes.size() == 0)
-			return 0;
-		int i = 0;
-		while(i < inspectionTimes.size() && inspectionTimes.get(i) < step)
-			i++;
-		return i == 0? 0 : inspectionTimes.get(i-1);
+		return inspectionTimes.getLastBefore(step);
+	}
+	
+	@Override
+	public InspectionHistory getInspectionHistory() {
+		return inspectionTimes;
 	}
 
 	@Override
 	public void addInspection(Schedule schedule) {
-		inspectionTimes.add(schedule.getSteps());
+		inspectionTimes.add((long) schedule.getTime());
 		needsInspection = false;
 	}
 
@@ -63,23 +59,18 @@ public abstract class BasicInspectable implements Inspectable {
 	@Override
 	public void inspectionNeeded(Schedule schedule) {
 		if(!needsInspection && inspectionNeededTimes != null)
-			inspectionNeededTimes.add(schedule.getSteps());
+			inspectionNeededTimes.add((long) schedule.getTime());
 		this.needsInspection = true;
 	}
 
 	@Override
-	public List<Long> getInspectionNeededTimes() {
-		return inspectionNeededTimes == null ? Collections.emptyList() : Collections.unmodifiableList(inspectionNeededTimes);
+	public TimeSeries getInspectionNeededTimes() {
+		return inspectionNeededTimes == null ? NO_TIMES : inspectionNeededTimes.unmodifiableView();
 	}
 
 	@Override
 	public long getNextInspectionTimeAt(long step) {
-		if(inspectionTimes.isEmpty())
-			return 0;
-		int i = 0;
-		while(i < inspectionTimes.size() && inspectionTimes.get(i) < step)
-			i++;
-		return inspectionTimes.get(i);
+		return inspectionTimes.getFirstFrom(step);
 	}
 	
 	@Override
@@ -1,7 +1,5 @@
 package network;
 
-import java.util.List;
-
 import sim.engine.Schedule;
 
 /**
@@ -20,6 +18,11 @@ public interface Inspectable {
 	public long getLastInspectionTimeAt(long step);
 
 	public long getNextInspectionTimeAt(long t);
+	
+	/**
+	 * @return The sorted times at which this element was inspected
+	 */
+	public InspectionHistory getInspectionHistory();
 
 	public void addInspection(Schedule schedule);
 	
@@ -27,7 +30,10 @@ public interface Inspectable {
 
 	public void inspectionNeeded(Schedule schedule);
 
-	public List<Long> getInspectionNeededTimes();
+	/**
+	 * @return A read-only view of the sorted times at which the inspection of this element was requested
+	 */
+	public TimeSeries getInspectionNeededTimes();
 	
 	public double getRiskMultiplier();
 	
@@ -1,9 +1,6 @@
 package network;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import sim.engine.Schedule;
@@ -26,8 +23,8 @@ public class InspectableEdge extends Edge implements Inspectable, Steppable {
 	private long lastInspectionStartTime = 0;
 
 	private Map<Object, Long> inspectionStartTimes = new HashMap<>();
-	private List<Long> inspectionTimes = new ArrayList<Long>(),
-			inspectionNeededTimes = new ArrayList<Long>();
+	private InspectionHistory inspectionTimes = new InspectionHistory();
+	private TimeSeries inspectionNeededTimes = new TimeSeries();
 	
 	public InspectableEdge(Object from, Object to, double riskLevelMultiplier) {
 		super(from, to, 0);
@@ -69,7 +66,7 @@ public class InspectableEdge extends Edge implements Inspectable, Steppable {
 		schedule.scheduleOnce(schedule.getSteps()+420480, this);
 		schedule.scheduleOnce(schedule.getSteps()+473040, this);
 		schedule.scheduleOnce(schedule.getSteps()+525600, this);*/
-		schedule.scheduleOnce(schedule.getSteps()+525600, this);
+		schedule.scheduleOnce(schedule.getTime()+525600, this);
 		pheromoneLevel++;
 		//pheromoneLevel += 10;
 		this.info = (int)getRiskLevelMultiplier() + " " + pheromoneLevel;
@@ -125,35 +122,28 @@ public class InspectableEdge extends Edge implements Inspectable, Steppable {
 
 	@Override
 	public long getLastInspectionTime() {
-		if(inspectionTimes.size() == 0)
-			return 0;
-		return inspectionTimes.get(inspectionTimes.size()-1);
+		return inspectionTimes.getLast();
 	}
 
 	@Override
 	public long getLastInspectionTimeAt(long step) {
-		if(inspectionTimes.size() == 0)
-			return 0;
-		int i = 0;
-		while(i < inspectionTimes.size() && inspectionTimes.get(i) < step)
-			i++;
-		return i == 0? 0 : inspectionTimes.get(i-1);
+		return inspectionTimes.getLastBefore(step);
 	}
 
 	@Override
 	public long getNextInspectionTimeAt(long step) {
-		if(inspectionTimes.isEmpty())
-			return 0;
-		int i = 0;
-		while(i < inspectionTimes.size()-1 && inspectionTimes.get(i) < step)
-			i++;
-		return inspectionTimes.get(i) < step ? 0 : inspectionTimes.get(i);
+		return inspectionTimes.getFirstFrom(step);
+	}
+	
+	@Override
+	public InspectionHistory getInspectionHistory() {
+		return inspectionTimes;
 	}
 
 	@Override
 	public void addInspection(Schedule schedule) {
 		needsInspection = false;
-		inspectionTimes.add(schedule.getSteps());
+		inspectionTimes.add((long) schedule.getTime());
 		increasePheromone(schedule);
 	}
 
@@ -165,13 +155,13 @@ public class InspectableEdge extends Edge implements Inspectable, Steppable {
 	@Override
 	public void inspectionNeeded(Schedule schedule) {
 		if(!needsInspection)
-			inspectionNeededTimes.add(schedule.getSteps());
+			inspectionNeededTimes.add((long) schedule.getTime());
 		this.needsInspection = true;
 	}
 
 	@Override
-	public List<Long> getInspectionNeededTimes() {
-		return Collections.unmodifiableList(inspectionNeededTimes);
+	public TimeSeries getInspectionNeededTimes() {
+		return inspectionNeededTimes.unmodifiableView();
 	}
 	
 	@Override
@@ -0,0 +1,117 @@
+package network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The times at which an element of the network was inspected.
+ * Listeners can be added to be notified of every new inspection.
+ *
+ * For very long runs, a retention can be set: inspections older than the retention are then folded into an {@link InspectionSummary}
+ * and their times are dropped, so the size of the history depends on the retention instead of the length of the run.
+ * Folding happens when the oldest time is twice the retention old, so it is rare and drops many times at once.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class InspectionHistory extends TimeSeries {
+
+	private List<Listener> listeners;
+	private long retention = -1;
+	private long window = 0;
+	private InspectionSummary summary;
+
+	/**
+	 * Adds an inspection at the given time and notifies the listeners.
+	 * @param time The time of the inspection
+	 */
+	@Override
+	public void add(long time) {
+		if(getNbDropped() > 0 && time <= getLastDropped())
+			throw new IllegalStateException("Cannot add an inspection at step " + time + ", inspections up to step " + getLastDropped() + " have been folded");
+		if(retention >= 0 && !isEmpty() && get(0) < time - 2*retention)
+			fold(time - retention);
+		super.add(time);
+		if(listeners != null)
+			for(Listener listener : listeners)
+				listener.inspectionAdded(this, time);
+	}
+
+	/**
+	 * Keeps only the inspections of the last steps: older inspections are folded into the summary of this history.
+	 * Every step after the window plus the reporting horizon before the last inspection can still be looked up,
+	 * so an SLA with the given window can be checked during the reporting horizon.
+	 * @param window The maximum number of steps between inspections of the SLA of the inspected element, for which the summary keeps the fulfilled steps
+	 * @param reportingHorizon The number of steps before the last inspection that can be reported on
+	 */
+	public void setRetention(long window, long reportingHorizon) {
+		if(window < 0 || reportingHorizon < 0)
+			throw new IllegalArgumentException("The window and reporting horizon must be positive");
+		if(summary != null && summary.getWindow() != window)
+			throw new IllegalStateException("Inspections have already been folded with a window of " + summary.getWindow() + " steps");
+		this.window = window;
+		this.retention = window + reportingHorizon;
+	}
+
+	/**
+	 * @return The number of steps of inspections that are kept, or -1 if all inspections are kept
+	 */
+	public long getRetention() {
+		return retention;
+	}
+
+	/**
+	 * @return The summary of the inspections that have been folded, or null if no inspections have been folded
+	 */
+	public InspectionSummary getSummary() {
+		return summary;
+	}
+
+	/**
+	 * Folds all inspections strictly before the given step into the summary and notifies the listeners before their times are dropped.
+	 */
+	private void fold(long step) {
+		int count = countBefore(step);
+		if(summary == null)
+			summary = new InspectionSummary(window);
+		for(int i = 0; i < count; i++)
+			summary.add(get(i));
+		if(listeners != null)
+			for(Listener listener : listeners)
+				listener.inspectionsFolded(this, count);
+		dropBefore(step);
+	}
+
+	public void addListener(Listener listener) {
+		if(listeners == null)
+			listeners = new ArrayList<Listener>();
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		if(listeners != null)
+			listeners.remove(listener);
+	}
+
+	/**
+	 * Is notified when an inspection is added to a history.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after an inspection has been added to the given history.
+		 * @param history The history the inspection was added to
+		 * @param time The time of the inspection
+		 */
+		public void inspectionAdded(InspectionHistory history, long time);
+
+		/**
+		 * Called when the oldest inspections of the given history have been folded into its summary, just before their times are dropped.
+		 * @param history The history of which inspections are folded, which still contains their times
+		 * @param count The number of inspections that are folded, which are the first ones of the history
+		 */
+		public void inspectionsFolded(InspectionHistory history, int count);
+
+	}
+
+}
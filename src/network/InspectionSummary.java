@@ -0,0 +1,92 @@
+package network;
+
+/**
+ * A compact summary of inspections of which the times are no longer kept:
+ * their number, the first and last time, the number of steps during which an inspection SLA with a given window was fulfilled,
+ * and a histogram of the number of steps between two consecutive inspections.
+ * The size of a summary does not depend on the number of inspections it contains.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class InspectionSummary {
+
+	private final long window;
+	private long count = 0, first = 0, last = 0, fulfilledSteps = 0;
+	//Bucket 0 holds the gaps of 0 steps, bucket b the gaps of at least 2^(b-1) and less than 2^b steps
+	private final long[] gaps = new long[64];
+
+	/**
+	 * Constructs an empty summary.
+	 * @param window The maximum number of steps between inspections for which the fulfilled steps are kept
+	 */
+	public InspectionSummary(long window) {
+		if(window < 0)
+			throw new IllegalArgumentException("The window must be positive");
+		this.window = window;
+	}
+
+	/**
+	 * Adds an inspection to this summary. Inspections must be added in the order of their times.
+	 * @param time The time of the inspection
+	 */
+	public void add(long time) {
+		if(count > 0 && time < last)
+			throw new IllegalArgumentException("Inspections must be added to a summary in the order of their times");
+		if(count == 0) {
+			first = time;
+			//The start of the simulation counts as an inspection
+			fulfilledSteps = Math.min(time, window) + 1;
+		} else {
+			long gap = time - last;
+			fulfilledSteps += Math.min(gap, window);
+			gaps[64 - Long.numberOfLeadingZeros(gap)]++;
+		}
+		last = time;
+		count++;
+	}
+
+	public long getWindow() {
+		return window;
+	}
+
+	/**
+	 * @return The number of inspections in this summary
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The time of the first inspection, or 0 if the summary is empty
+	 */
+	public long getFirst() {
+		return first;
+	}
+
+	/**
+	 * @return The time of the last inspection, or 0 if the summary is empty
+	 */
+	public long getLast() {
+		return last;
+	}
+
+	/**
+	 * Returns the number of steps from the start of the simulation up to and including the last inspection
+	 * during which the last inspection strictly before the step was at most the window ago.
+	 * @return The number of fulfilled steps in [0, getLast()], or 0 if the summary is empty
+	 */
+	public long getFulfilledSteps() {
+		return fulfilledSteps;
+	}
+
+	/**
+	 * Returns the number of gaps between consecutive inspections by their length.
+	 * Element 0 is the number of gaps of 0 steps, element b the number of gaps of at least 2^(b-1) and less than 2^b steps.
+	 * @return A new array with the histogram of the gaps between inspections
+	 */
+	public long[] getGapHistogram() {
+		return gaps.clone();
+	}
+
+}
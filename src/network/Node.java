@@ -1,7 +1,5 @@
 package network;
 
-import java.util.ArrayList;
-
 import sim.util.Double2D;
 
 /**
@@ -13,7 +11,7 @@ public class Node extends BasicInspectable {
 	
 	private Double2D location;
 	private boolean isRechargeStation;
-	public static int DEFAULT_INSPECTION_TIME = 0;
+	public static final int DEFAULT_INSPECTION_TIME = 0;
 	private long minStepsBetweenInspections;
 	private int inspectionTime;
 	
@@ -52,7 +50,7 @@ public class Node extends BasicInspectable {
 	}
 	
 	public void initialize() {
-		inspectionTimes = new ArrayList<Long>();
+		inspectionTimes = new InspectionHistory();
 	}
 
 	public long getMinStepsBetweenInspections() {
@@ -0,0 +1,330 @@
+package network;
+
+import java.util.Arrays;
+
+/**
+ * A sorted series of times, such as the times at which an element was inspected or at which its inspection was requested.
+ * The times are kept in a primitive array instead of a list of boxed longs. As long as all times fit in an int,
+ * which is the case for any simulation shorter than 4000 years, they take 4 bytes each, after that 8 bytes.
+ * Lookups of the time before or after a certain step use binary search.
+ * For lookups at steps that only increase, such as when the SLAs are evaluated over a period of time,
+ * a cursor can be used that only moves forward, so a sweep over the whole period is linear in the number of steps and times.
+ *
+ * The oldest times can be dropped to bound the size of the series. Only the last dropped time is remembered,
+ * so lookups are possible at every step after it, and lookups at earlier steps fail.
+ *
+ * A series can be handed out as a read-only view with {@link #unmodifiableView()}, as the times of an element should only be added by the element itself.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class TimeSeries {
+
+	//The times while they all fit in an int, null once a time did not
+	private int[] ints;
+	private long[] longs;
+	private int size = 0;
+	//The number of times that have been dropped and the last of them
+	private long nbDropped = 0, lastDropped = 0;
+
+	public TimeSeries() {
+		this(4);
+	}
+
+	private TimeSeries(int capacity) {
+		ints = new int[capacity];
+	}
+
+	/**
+	 * Adds the given time.
+	 * Times are normally added in the order in which they happen, but an earlier time is inserted at its sorted position.
+	 * @param time The time to add
+	 */
+	public void add(long time) {
+		if(ints != null && (int) time != time) {
+			longs = new long[Math.max(4, ints.length)];
+			for(int i = 0; i < size; i++)
+				longs[i] = ints[i];
+			ints = null;
+		}
+		if(ints != null) {
+			if(size == ints.length)
+				ints = Arrays.copyOf(ints, size * 2);
+			int i = size;
+			while(i > 0 && ints[i-1] > time) {
+				ints[i] = ints[i-1];
+				i--;
+			}
+			ints[i] = (int) time;
+		} else {
+			if(size == longs.length)
+				longs = Arrays.copyOf(longs, size * 2);
+			int i = size;
+			while(i > 0 && longs[i-1] > time) {
+				longs[i] = longs[i-1];
+				i--;
+			}
+			longs[i] = time;
+		}
+		size++;
+	}
+
+	/**
+	 * @return The number of times in this series, not counting the ones that have been dropped
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public long get(int i) {
+		if(i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("Time " + i + " does not exist, there are " + size + " times");
+		return time(i);
+	}
+
+	private long time(int i) {
+		return ints != null ? ints[i] : longs[i];
+	}
+
+	/**
+	 * @return The last time, or 0 if there are no times
+	 */
+	public long getLast() {
+		return size == 0 ? lastDropped : time(size-1);
+	}
+
+	/**
+	 * Removes all times strictly before the given step.
+	 * @param step The step
+	 * @return The number of times that were removed
+	 */
+	public int dropBefore(long step) {
+		if(nbDropped > 0 && step <= lastDropped)
+			return 0;
+		int count = countBefore(step);
+		if(count == 0)
+			return 0;
+		lastDropped = time(count-1);
+		nbDropped += count;
+		if(ints != null)
+			System.arraycopy(ints, count, ints, 0, size - count);
+		else
+			System.arraycopy(longs, count, longs, 0, size - count);
+		size -= count;
+		return count;
+	}
+
+	/**
+	 * @return The number of times that have been dropped
+	 */
+	public long getNbDropped() {
+		return nbDropped;
+	}
+
+	/**
+	 * @return The last time that has been dropped, or 0 if no times have been dropped
+	 */
+	public long getLastDropped() {
+		return lastDropped;
+	}
+
+	/**
+	 * Returns the number of times strictly before the given step, not counting the ones that have been dropped.
+	 * @param step The step, which must be after the last dropped time
+	 * @return The number of times before the step, which is also the index of the first time at or after the step
+	 * @throws IllegalStateException If times at or after the given step have been dropped
+	 */
+	public int countBefore(long step) {
+		checkRetained(step);
+		int low = 0, high = size;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(time(mid) < step)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * @param step The step
+	 * @return The last time strictly before the given step, which may be the last dropped time, or 0 if there is none
+	 */
+	public long getLastBefore(long step) {
+		int i = countBefore(step);
+		return i == 0 ? lastDropped : time(i-1);
+	}
+
+	/**
+	 * @param step The step
+	 * @return The first time at or after the given step, or 0 if there is none
+	 */
+	public long getFirstFrom(long step) {
+		int i = countBefore(step);
+		return i == size ? 0 : time(i);
+	}
+
+	private void checkRetained(long step) {
+		if(nbDropped > 0 && step <= lastDropped)
+			throw new IllegalStateException("The times before step " + step + " have been dropped up to step " + lastDropped);
+	}
+
+	/**
+	 * @return A new array with all times in this series that have not been dropped
+	 */
+	public long[] toArray() {
+		long[] times = new long[size];
+		for(int i = 0; i < size; i++)
+			times[i] = time(i);
+		return times;
+	}
+
+	/**
+	 * @return A new cursor at the start of this series
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Returns a view of this series that cannot be changed. The view shows the times that are added to or dropped from this series later on.
+	 * @return A read-only view of this series, of which {@link #add(long)} and {@link #dropBefore(long)} throw an UnsupportedOperationException
+	 */
+	public TimeSeries unmodifiableView() {
+		return new UnmodifiableView(this);
+	}
+
+	/**
+	 * A read-only view of a series, which passes all lookups on to the series.
+	 */
+	private static class UnmodifiableView extends TimeSeries {
+
+		private final TimeSeries series;
+
+		private UnmodifiableView(TimeSeries series) {
+			super(0);
+			this.series = series;
+		}
+
+		@Override
+		public void add(long time) {
+			throw new UnsupportedOperationException("The times of this series cannot be changed");
+		}
+
+		@Override
+		public int dropBefore(long step) {
+			throw new UnsupportedOperationException("The times of this series cannot be changed");
+		}
+
+		@Override
+		public int size() {
+			return series.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return series.isEmpty();
+		}
+
+		@Override
+		public long get(int i) {
+			return series.get(i);
+		}
+
+		@Override
+		public long getLast() {
+			return series.getLast();
+		}
+
+		@Override
+		public long getNbDropped() {
+			return series.getNbDropped();
+		}
+
+		@Override
+		public long getLastDropped() {
+			return series.getLastDropped();
+		}
+
+		@Override
+		public int countBefore(long step) {
+			return series.countBefore(step);
+		}
+
+		@Override
+		public long getLastBefore(long step) {
+			return series.getLastBefore(step);
+		}
+
+		@Override
+		public long getFirstFrom(long step) {
+			return series.getFirstFrom(step);
+		}
+
+		@Override
+		public long[] toArray() {
+			return series.toArray();
+		}
+
+		@Override
+		public Cursor cursor() {
+			return series.cursor();
+		}
+
+		@Override
+		public TimeSeries unmodifiableView() {
+			return this;
+		}
+
+	}
+
+	/**
+	 * Looks up times at steps that do not decrease, by moving forward through the series from the previous lookup.
+	 * A lookup at an earlier step than the previous one is still answered correctly, with a binary search.
+	 */
+	public class Cursor {
+
+		//The number of times before the step of the previous lookup
+		private int position = 0;
+		private long step = Long.MIN_VALUE;
+		private long dropped = nbDropped;
+
+		private int moveTo(long step) {
+			checkRetained(step);
+			//Times may have been dropped since the previous lookup
+			if(step < this.step || dropped != nbDropped)
+				position = countBefore(step);
+			else
+				while(position < size && time(position) < step)
+					position++;
+			dropped = nbDropped;
+			this.step = step;
+			return position;
+		}
+
+		/**
+		 * @param step The step, usually at least the step of the previous lookup
+		 * @return The last time strictly before the given step, which may be the last dropped time, or 0 if there is none
+		 */
+		public long getLastBefore(long step) {
+			int i = moveTo(step);
+			return i == 0 ? lastDropped : time(i-1);
+		}
+
+		/**
+		 * @param step The step, usually at least the step of the previous lookup
+		 * @return The first time at or after the given step, or 0 if there is none
+		 */
+		public long getFirstFrom(long step) {
+			int i = moveTo(step);
+			return i == size ? 0 : time(i);
+		}
+
+	}
+
+}
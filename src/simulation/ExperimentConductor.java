@@ -3,6 +3,10 @@ package simulation;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -13,9 +17,12 @@ import org.apache.commons.cli.ParseException;
 
 import sim.display.Console;
 import simulation.experiment.Experiment;
+import util.parsers.configuration.Configuration;
+import util.parsers.configuration.ConfigurationFileParser;
 import util.parsers.configuration.ExperimentParser;
 import util.parsers.configuration.UAVNavigationClassDeserialiser;
 
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 
 /**
@@ -40,6 +47,39 @@ public class ExperimentConductor {
 			e.execute();
 	}
 	
+	/**
+	 * Runs the experiments in parallel on the given number of threads.
+	 * The experiments must not share a simulation, e.g. by parsing them with an ExperimentParser that creates a simulation for each experiment.
+	 * Returns when all experiments have finished. 
+	 * @param threads The maximum number of experiments that run at the same time
+	 */
+	public void runExperiments(int threads) {
+		if(threads <= 0)
+			throw new IllegalArgumentException("The number of threads must be strictly positive");
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, experiments.size())));
+		List<Future<?>> results = new ArrayList<>();
+		for(final Experiment e : experiments)
+			results.add(executor.submit(new Runnable() {
+				
+				@Override
+				public void run() {
+					e.execute();
+				}
+			}));
+		executor.shutdown();
+		for(int i = 0; i < results.size(); i++) {
+			try {
+				results.get(i).get();
+			} catch (ExecutionException ex) {
+				System.out.println("Error in experiment " + (i+1) + ": " + ex.getCause().getMessage());
+			} catch (InterruptedException ex) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
 	public static void main(String[] args) {
         CommandLine commandLine = null;
         //Option option_A = Option.builder("gui").argName("gui").desc("Start the simulator with the GUI");
@@ -48,10 +88,12 @@ public class ExperimentConductor {
         Option option_gui = new Option("g", "gui", false, "Start the GUI of the simulator.");
         Option option_nav = Option.builder("n").longOpt("nav").argName("Navigation strategy").desc("Sets the navigation strategy to use").hasArg().build();
         Option option_uavs = Option.builder("u").longOpt("uavs").argName("NbOfUAVs").desc("Sets the number of UAVs to use").hasArg().build();
+        Option option_parallel = Option.builder("p").longOpt("parallel").argName("Threads")
+        		.desc("Runs the experiments in parallel, each with its own simulation. Uses as many threads as there are cores if the number is omitted.").optionalArg(true).numberOfArgs(1).build();
         Options options = new Options();
         CommandLineParser parser = new DefaultParser();
         
-        options.addOption(option_gui).addOption(option_nav).addOption(option_uavs);
+        options.addOption(option_gui).addOption(option_nav).addOption(option_uavs).addOption(option_parallel);
         
         try {
 			commandLine = parser.parse(options, args);
@@ -61,7 +103,19 @@ public class ExperimentConductor {
             System.exit(-1);
 		}
 			    
-		if(!commandLine.hasOption("gui")) {
+		if(commandLine.hasOption("parallel")) {
+			try {
+				int threads = commandLine.getOptionValue('p') == null ? 
+						Runtime.getRuntime().availableProcessors() : Integer.parseInt(commandLine.getOptionValue('p'));
+				Configuration configuration = new ConfigurationFileParser("configuration.json").parse();
+				ExperimentParser experimentParser = new ExperimentParser(configuration, System.currentTimeMillis(), "experiments.json");
+				ExperimentConductor conductor = new ExperimentConductor(experimentParser.parse());
+				conductor.runExperiments(threads);
+			} catch (IOException | IllegalArgumentException | JsonParseException e) {
+				System.out.println("Error: " + e.getMessage());
+				System.exit(-1);
+			}
+		} else if(!commandLine.hasOption("gui")) {
 			UAVNetworkSimulation sim = null;
 			try {
 				sim = new UAVNetworkSimulation(System.currentTimeMillis());
@@ -0,0 +1,86 @@
+package simulation;
+
+import sim.engine.Schedule;
+import sim.engine.SimState;
+import sim.engine.Steppable;
+import sim.engine.Stoppable;
+
+/**
+ * A schedule that knows the ordering of the steppable it is stepping.
+ * Code that is called by a steppable can then find out whether the steppables with a lower ordering at the same time have already been stepped,
+ * which MASON's schedule does not tell. Every steppable is wrapped in one that records its ordering while it is stepped.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class OrderedSchedule extends Schedule {
+
+	private static final long serialVersionUID = 1L;
+	/**
+	 * The ordering returned when the schedule is not stepping anything.
+	 */
+	public static final int NO_ORDERING = Integer.MIN_VALUE;
+
+	private int ordering = NO_ORDERING;
+
+	/**
+	 * @return The ordering of the steppable that is being stepped, or {@link #NO_ORDERING} if the schedule is not stepping anything
+	 */
+	public int getOrdering() {
+		return ordering;
+	}
+
+	@Override
+	public boolean scheduleOnce(Steppable event) {
+		return super.scheduleOnce(wrap(event, 0));
+	}
+
+	@Override
+	public boolean scheduleOnceIn(double delta, Steppable event) {
+		return super.scheduleOnceIn(delta, wrap(event, 0));
+	}
+
+	@Override
+	public boolean scheduleOnce(Steppable event, int ordering) {
+		return super.scheduleOnce(wrap(event, ordering), ordering);
+	}
+
+	@Override
+	public boolean scheduleOnceIn(double delta, Steppable event, int ordering) {
+		return super.scheduleOnceIn(delta, wrap(event, ordering), ordering);
+	}
+
+	@Override
+	public boolean scheduleOnce(double time, Steppable event) {
+		return super.scheduleOnce(time, wrap(event, 0));
+	}
+
+	@Override
+	public boolean scheduleOnce(double time, int ordering, Steppable event) {
+		return super.scheduleOnce(time, ordering, wrap(event, ordering));
+	}
+
+	@Override
+	public Stoppable scheduleRepeating(double time, int ordering, Steppable event, double interval) {
+		return super.scheduleRepeating(time, ordering, wrap(event, ordering), interval);
+	}
+
+	private Steppable wrap(final Steppable event, final int ordering) {
+		if(event == null)
+			return null;
+		return new Steppable() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public void step(SimState state) {
+				int previous = OrderedSchedule.this.ordering;
+				OrderedSchedule.this.ordering = ordering;
+				try {
+					event.step(state);
+				} finally {
+					OrderedSchedule.this.ordering = previous;
+				}
+			}
+		};
+	}
+
+}
@@ -1,17 +1,26 @@
 package simulation;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import network.InspectableEdge;
 import network.Node;
 import network.UAVNetwork;
 import sim.engine.SimState;
+import sim.engine.Steppable;
 import sim.field.continuous.Continuous2D;
 import sim.util.Bag;
 import simulation.event.EventManager;
+import simulation.log.InspectionEventLog;
 import sla.SingleInspectionSLA;
 import sla.report.SLAManager;
 import sla.report.SLAReporter;
@@ -23,7 +32,9 @@ import uav.navigation.CycleNavigation;
 import uav.navigation.NavigationInitializationClass;
 import uav.navigation.UAVNavigationStrategy;
 import util.algorithms.UndirectedGraphCycleFinder;
+import util.algorithms.dijkstra.CompactGraph;
 import util.algorithms.dijkstra.Vertex;
+import util.cache.ArtefactCache;
 import util.parsers.configuration.Configuration;
 import util.parsers.configuration.ConfigurationFileParser;
 import util.parsers.network.NetworkParser;
@@ -47,23 +58,31 @@ public class UAVNetworkSimulation extends SimState {
 	private CycleNavigation cycleNavigation;
 	private List<Integer> cycle;
 	private EventManager eventManager = new EventManager();
+	private InspectionEventLog eventLog;
 	private double safetyMultiplierRechargeNodes = 0.75;
+	//The kind of artefact the navigation cycle is stored as, to be changed whenever the way the cycle is found changes
+	private static final String CYCLE_ARTEFACT_KIND = "cycle-v1";
 	
 	public UAVNetworkSimulation(long seed) throws IOException {
 		this(seed, "configuration.json");
 	}
 
 	public UAVNetworkSimulation(long seed, String configurationFile) throws IOException {
-		super(seed);
-		
-		ConfigurationFileParser configurationParser = new ConfigurationFileParser(configurationFile);
-		this.configuration = configurationParser.parse();
-		
-		ACONavigation.ALPHA = configuration.alpha;
-		ACONavigation.BETA = configuration.beta;
+		this(seed, new ConfigurationFileParser(configurationFile).parse());
+	}
+
+	/**
+	 * Creates a simulation with the given configuration. 
+	 * The configuration is used as is, so simulations that run in parallel should each get their own copy.
+	 * @param seed The seed of the random number generator of the simulation
+	 * @param configuration The configuration of the simulation
+	 * @throws IOException If the network file could not be read
+	 */
+	public UAVNetworkSimulation(long seed, Configuration configuration) throws IOException {
+		super(seed, new OrderedSchedule());
+		this.configuration = configuration;
 		
-		parser = new NetworkParser(configuration.network, 
-				configuration.uavConfiguration.getMaxFlyingDistance() * safetyMultiplierRechargeNodes, getConfiguration().addRechargeNodes);
+		parser = createParser(configuration.uavConfiguration, getConfiguration().addRechargeNodes);
 		
 		long cycle = 0;
 		if(configuration.edgeInspectionSLAs == 0)
@@ -85,25 +104,116 @@ public class UAVNetworkSimulation extends SimState {
 		eventManager.addAll(getConfiguration().getEventGenerators(this));
 	}
 	
+	/**
+	 * Creates a new simulation with a copy of the configuration of this simulation, 
+	 * with the same navigation strategy, number of UAVs and navigation cycle.
+	 * The copy shares the event generators of this simulation, so it gets the same events as this simulation would.
+	 * The copy does not share any other state with this simulation, so both can run at the same time.
+	 * @param seed The seed for the random number generator of the copy
+	 * @return A copy of this simulation
+	 * @throws IOException If the network of the copy could not be read
+	 */
+	public UAVNetworkSimulation copy(long seed) throws IOException {
+		UAVNetworkSimulation copy = new UAVNetworkSimulation(seed, configuration.copy());
+		copy.eventManager = eventManager;
+		copy.navigationInitClass = navigationInitClass;
+		copy.numUAVs = numUAVs;
+		copy.cycle = cycle;
+		copy.cycleNavigation = cycleNavigation;
+		copy.useCycleNavigation = useCycleNavigation;
+		return copy;
+	}
+	
+	/**
+	 * Creates a parser for the network of this simulation, which uses the artefact cache of the configuration.
+	 * @param conf The configuration of the UAVs, which determines the distance between recharge nodes
+	 * @param allRNs Whether or not all nodes should be recharge nodes
+	 * @return The parser for the network
+	 */
+	private NetworkParser createParser(UAVConfiguration conf, boolean allRNs) {
+		NetworkParser parser = new NetworkParser(configuration.network, 
+				conf.getMaxFlyingDistance() * safetyMultiplierRechargeNodes, allRNs);
+		parser.setArtefactCache(ArtefactCache.get(configuration));
+		return parser;
+	}
+	
 	public void initializeCycleNavigation() {
 		if(cycle == null) {
-			UndirectedGraphCycleFinder cpp = new UndirectedGraphCycleFinder(network.allNodes.size());
-			
-			for(int i = 0; i < network.allNodes.size()-1; i++) {
-				for(int j = i+1; j < network.allNodes.size(); j++) {
-					if(network.getAdjacencyMatrix()[i][j] != null) {
-						cpp.addArc("a", i, j, (float)network.getAdjacencyMatrix()[i][j].getWeight());
-					}
-				}
+			String key = null;
+			try {
+				key = parser.getArtefactKey(CYCLE_ARTEFACT_KIND);
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
-			cpp.solve();
-	
-			cycle = cpp.getCycle();
-			cycleNavigation = new CycleNavigation(cpp.getCycle());
+			if(key != null)
+				cycle = readCycle(parser.getArtefactCache().read(key));
+			if(cycle == null) {
+				cycle = findCycle();
+				if(key != null)
+					parser.getArtefactCache().write(key, writeCycle(cycle));
+			}
+			cycleNavigation = new CycleNavigation(cycle);
 		}
 		this.useCycleNavigation = true;
 	}
 	
+	/**
+	 * Solves the Chinese Postman problem for the network of this simulation.
+	 * @return The numbers of the nodes in the order in which they are visited in the cycle
+	 */
+	private List<Integer> findCycle() {
+		UndirectedGraphCycleFinder cpp = new UndirectedGraphCycleFinder(network.allNodes.size());
+		
+		Map<Object, Integer> indices = new IdentityHashMap<Object, Integer>();
+		for(int i = 0; i < network.allNodes.size(); i++)
+			indices.put(network.allNodes.get(i), i);
+		for(int i = 0; i < network.allNodes.size(); i++) {
+			for(Object o : network.getEdges(network.allNodes.get(i), null)) {
+				InspectableEdge e = (InspectableEdge) o;
+				int j = indices.get(e.getOtherNode(network.allNodes.get(i)));
+				if(i < j)
+					cpp.addArc("a", i, j, (float) e.length());
+			}
+		}
+		cpp.solve();
+		return cpp.getCycle();
+	}
+	
+	/**
+	 * Reads a cycle that was stored in the artefact cache.
+	 * @param data The stored cycle
+	 * @return The cycle, or null if there was no stored cycle or it does not fit the network
+	 */
+	private List<Integer> readCycle(byte[] data) {
+		if(data == null)
+			return null;
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			int length = in.readInt();
+			List<Integer> cycle = new ArrayList<Integer>(length);
+			for(int i = 0; i < length; i++) {
+				int node = in.readInt();
+				if(node < 0 || node >= network.allNodes.size())
+					return null;
+				cycle.add(node);
+			}
+			return cycle;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+	
+	private byte[] writeCycle(List<Integer> cycle) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(cycle.size());
+			for(int node : cycle)
+				out.writeInt(node);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write the cycle to memory", e);
+		}
+		return bytes.toByteArray();
+	}
+	
 	public void setCycleNavigation(boolean cycle) {
 		if(this.cycle == null)
 			throw new IllegalArgumentException("The cycle is not yet set. Initialize the cycle navigation before using this method.");
@@ -133,11 +243,21 @@ public class UAVNetworkSimulation extends SimState {
 	public UAVNavigationStrategy getNavigationBehaviour() {
 		if(usingCycleNavigation())
 			return cycleNavigation;
-		return navigationInitClass.newInstance();
+		return newNavigationInstance();
 	}
 	
 	public String getCurrentNavigationName() {
-		return navigationInitClass.newInstance().toString();
+		return newNavigationInstance().toString();
+	}
+	
+	/**
+	 * Creates a new instance of the current navigation strategy.
+	 * ACO navigations without explicit parameters use the alpha and beta of the configuration of this simulation.
+	 */
+	private UAVNavigationStrategy newNavigationInstance() {
+		if(navigationInitClass.getNavigationBehaviour() == ACONavigation.class && !navigationInitClass.hasParameters())
+			return new ACONavigation(configuration.alpha, configuration.beta);
+		return navigationInitClass.newInstance();
 	}
 
 	public UAVController getUAVController() {
@@ -166,8 +286,7 @@ public class UAVNetworkSimulation extends SimState {
 		super.start();
 		controller.clear();
 		slaChecker.clear();
-		parser = new NetworkParser(configuration.network, 
-				configuration.uavConfiguration.getMaxFlyingDistance() * safetyMultiplierRechargeNodes, 
+		parser = createParser(configuration.uavConfiguration, 
 				!navigationInitClass.getNavigationBehaviour().getName().startsWith("uav.navigation.path"));
 		try {
 			parser.parse();
@@ -182,11 +301,22 @@ public class UAVNetworkSimulation extends SimState {
 			map.setObjectLocation(node1, 
 					((Node)node1).getLocation());
 		}
+		if(eventLog != null)
+			eventLog.close();
+		eventLog = configuration.eventLog ? new InspectionEventLog(network, schedule, configuration.eventLogChunksInMemory) : null;
 		addUAVs();
 
 		initializeSLAs();
 	}
 	
+	/**
+	 * Returns the log of all inspection events of the current run.
+	 * @return The event log, or null if the configuration does not keep one
+	 */
+	public InspectionEventLog getEventLog() {
+		return eventLog;
+	}
+	
 	public Vertex nodeToVertex(Node n) {
 		return parser.getVertex(n);
 	}
@@ -200,7 +330,7 @@ public class UAVNetworkSimulation extends SimState {
 			int mul = network.allNodes.size() / numUAVs;
 			for(int i = 0; i < numUAVs; i++) {
 				try {
-					controller.addUAV((Node)network.allNodes.get((mul*i)%network.allNodes.size()), navigationInitClass.newInstance());
+					controller.addUAV((Node)network.allNodes.get((mul*i)%network.allNodes.size()), newNavigationInstance());
 				} catch (IllegalArgumentException ex) {
 					System.out.println("Invalid navigation behaviour\nDetails: " + ex.getMessage());
 				}
@@ -214,7 +344,8 @@ public class UAVNetworkSimulation extends SimState {
 			for(Object o : network.allNodes)
 				slaChecker.addInspectionSLA(new SingleInspectionSLA((Node)o,  configuration.nodeInspectionSLAs));
 		
-		Set<InspectableEdge> edges = new HashSet<>();
+		//In the order of the network, so the SLAs (and the sums over them) are the same in every simulation of the network
+		Set<InspectableEdge> edges = new LinkedHashSet<>();
 		for(Object o : network.allNodes) {
 			edges.addAll(network.getEdgesIn((Node) o));
 		}
@@ -224,7 +355,14 @@ public class UAVNetworkSimulation extends SimState {
 				//e.setRiskLevelMultiplier(multipliers.get(i));
 				slaChecker.addInspectionSLA(new SingleInspectionSLA(e, /*multipliers.get(i) **/ configuration.edgeInspectionSLAs));
 				}
-		
+
+		if(configuration.inspectionRetention > 0) {
+			for(Object o : network.allNodes)
+				((Node) o).getInspectionHistory().setRetention(configuration.nodeInspectionSLAs, configuration.inspectionRetention);
+			for(InspectableEdge e : network.getEdges())
+				e.getInspectionHistory().setRetention(configuration.edgeInspectionSLAs, configuration.inspectionRetention);
+		}
+
 		slaChecker.setResponseTimeSLA(getConfiguration().responseTimeSLA);
 	}
 	
@@ -267,8 +405,7 @@ public class UAVNetworkSimulation extends SimState {
 	}
 
 	public boolean allSLAsFulfilled(long firstStep, long lastStep) {
-		return slaChecker.percentageFulfilledBetween(firstStep, lastStep) >= configuration.averageCoverageGoal 
-				&& slaChecker.allSLAsAbove(configuration.coveragePerSLAGoal, firstStep, lastStep);
+		return slaChecker.getReport(firstStep, lastStep).SLAsFulfilled(configuration.averageCoverageGoal, configuration.coveragePerSLAGoal);
 	}
 	
 	public CycleNavigation getCycleNavigation() {
@@ -279,8 +416,7 @@ public class UAVNetworkSimulation extends SimState {
 		//If battery life changed and cyclenavigation is used, the cycle needs to be reinitialized
 		if(this.configuration.uavConfiguration.batteryLife != conf.batteryLife && getNavigationBehaviourClass().getSimpleName().equals("CycleNavigation")) {
 			cycle = null;
-			parser = new NetworkParser(configuration.network, 
-					conf.getMaxFlyingDistance() * safetyMultiplierRechargeNodes, 
+			parser = createParser(conf, 
 					!navigationInitClass.getNavigationBehaviour().getName().startsWith("uav.navigation.path"));
 			try {
 				parser.parse();
@@ -299,11 +435,53 @@ public class UAVNetworkSimulation extends SimState {
 	}
 	
 	public boolean isUAVFlyTime() {
-		return slaChecker.isUAVFlyTime(schedule.getSteps());
+		return slaChecker.isUAVFlyTime(getCurrentStep());
+	}
+	
+	/**
+	 * Returns the minute the simulation is currently at.
+	 * The time of the schedule is used instead of its number of steps, 
+	 * as the event-driven engine does not step the schedule every minute.
+	 * @return The minute the simulation is currently at
+	 */
+	public long getCurrentStep() {
+		return (long) schedule.getTime();
+	}
+	
+	/**
+	 * Returns the ordering of the steppable that is being stepped in the current minute.
+	 * UAVs act at ordering 0, so a steppable with a higher ordering sees them after they acted in the current minute.
+	 * @return The ordering of the steppable that is being stepped, or {@link OrderedSchedule#NO_ORDERING} if the schedule is not being stepped
+	 */
+	public int getCurrentOrdering() {
+		return ((OrderedSchedule) schedule).getOrdering();
+	}
+	
+	/**
+	 * Steps the schedule until all minutes before the given step have been simulated, or until nothing is scheduled anymore.
+	 * @param lastStep The step (exclusive) until which the simulation should run
+	 */
+	public void simulateUntil(long lastStep) {
+		if((configuration.eventDriven || configuration.skipNonFlyTime) && schedule.getTime() < lastStep - 1)
+			//Make sure the schedule stops exactly at the last step instead of jumping over it
+			schedule.scheduleOnce(lastStep - 1, new Steppable() {
+				private static final long serialVersionUID = 1L;
+				@Override
+				public void step(SimState state) { }
+			});
+		do {
+			if (!schedule.step(this)) break;
+		} while(getCurrentStep() < lastStep - 1);
+		//Event-driven UAVs that did not wake up in the last minute still have to act in it
+		if(configuration.eventDriven || configuration.skipNonFlyTime)
+			controller.finishCurrentStep();
 	}
 
-	public void resetDijkstra() {
-		parser.resetDijkstra();
+	/**
+	 * Returns the compact graph of the network, on which shortest paths can be searched.
+	 */
+	public CompactGraph getGraph() {
+		return parser.getGraph();
 	}
 
 }
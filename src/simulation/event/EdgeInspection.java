@@ -4,6 +4,7 @@ import network.InspectableEdge;
 import sim.engine.SimState;
 import sim.engine.Steppable;
 import simulation.UAVNetworkSimulation;
+import simulation.log.InspectionEventLog.Kind;
 
 /**
  * A steppable class that will request inspection on a random edge of the network.
@@ -47,6 +48,8 @@ public class EdgeInspection implements Steppable {
 		}
 		if(e != null && !e.needsInspection()) {
 			e.inspectionNeeded(sim.schedule);
+			if(sim.getEventLog() != null)
+				sim.getEventLog().add(Kind.REQUEST, e, null);
 			sim.getUAVController().inspectionRequested(e);
 		}
 	}
@@ -19,7 +19,12 @@ public class EventManager {
 	
 	public void scheduleEvents(UAVNetworkSimulation sim, long firstStep, long lastStep) {
 		for(EventGenerator eg : generators) {
-			for(Event e : eg.getEvents(sim, firstStep, lastStep)) {
+			List<Event> events;
+			//Copies of a simulation share their generators, which create their events lazily
+			synchronized (eg) {
+				events = eg.getEvents(sim, firstStep, lastStep);
+			}
+			for(Event e : events) {
 				e.scheduleIn(sim.schedule);
 			}
 		}
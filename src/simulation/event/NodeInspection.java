@@ -4,6 +4,7 @@ import network.Node;
 import sim.engine.SimState;
 import sim.engine.Steppable;
 import simulation.UAVNetworkSimulation;
+import simulation.log.InspectionEventLog.Kind;
 
 /**
  * A steppable class that will request inspection on a random node of the network.
@@ -47,6 +48,8 @@ public class NodeInspection implements Steppable {
 		}
 		if(n != null && !n.needsInspection()) {
 			n.inspectionNeeded(sim.schedule);
+			if(sim.getEventLog() != null)
+				sim.getEventLog().add(Kind.REQUEST, n, null);
 			sim.getUAVController().inspectionRequested(n);
 		}
 	}
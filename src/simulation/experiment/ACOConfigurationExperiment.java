@@ -116,10 +116,9 @@ public class ACOConfigurationExperiment extends Experiment {
 	private void doSingleExperiment() {
 		sim.setNumUAVs(nbOfUAVs);
 		sim.start();
+		sim.getSlaChecker().keepReport(firstStep, lastStep);
 		sim.addEvents(firstStep, lastStep);
-		do {
-			if (!sim.schedule.step(sim)) break;
-		} while(sim.schedule.getSteps() < lastStep);
+		sim.simulateUntil(lastStep);
 		sim.finish();		
 	}
 	
@@ -65,47 +65,47 @@ public class EventImpactExperiment extends NbOfUAVsExperiment {
 	
 	@Override
 	protected void doSingleExperiment() {
-		int nb = minNbOfUAVs;
 		XYSeriesCollection totalCoverageDS = new XYSeriesCollection(),
 				totalCoverageDSFailures = new XYSeriesCollection();
 		boolean slasOk = false;
-		do {
-			runSimulation(nb, false);
-			
+		List<Integer> nbs = getNbsOfUAVs();
+		List<SimulationResult> results = runSimulations(nbs, false, true),
+				failResults = runSimulations(nbs, true, true);
+		for(int j = 0; j < nbs.size(); j++) {
+			int nb = nbs.get(j);
+			SimulationResult result = results.get(j),
+					failResult = failResults.get(j);
 			{
 				XYSeries xySeries = new XYSeries("UAVs: " + nb);
-				double[] pfd = sim.getSlaChecker().getTimeComplianceData(firstStep, lastStep);
+				double[] pfd = result.timeCompliance;
 				for(int i = 0; i < pfd.length; i++) {
 					xySeries.add(i, pfd[i]);
 				}
 				totalCoverageDS.addSeries(xySeries);
-				lowestSLAxys.get(lowestSLAxys.size()-2).add(nb, sim.slaChecker.lowestPercentage(firstStep, lastStep));
+				lowestSLAxys.get(lowestSLAxys.size()-2).add(nb, result.lowestCoverage);
 			}
 			
-			double coverage = sim.getSlaChecker().percentageFulfilledBetween(firstStep, lastStep);
-			runSimulation(nb, true);
-			
-			double failCoverage = sim.getSlaChecker().percentageFulfilledBetween(firstStep, lastStep);
+			double coverage = result.coverage;
+			double failCoverage = failResult.coverage;
 			double drop = coverage-failCoverage;
-			System.out.printf("The SLA coverage dropped from %.2f to %.2f (%.2f%%)", coverage, failCoverage, drop);
+			System.out.printf("The SLA coverage with %d UAVs dropped from %.2f to %.2f (%.2f%%)\n", nb, coverage, failCoverage, drop);
 			
 			totalCoverageXYs.get(totalCoverageXYs.size()-2).add(nb, coverage);
 			totalCoverageXYs.get(totalCoverageXYs.size()-1).add(nb, failCoverage);
 			coverageDropDS.addValue(drop, sim.getNavigationBehaviourClass().getSimpleName(), nb+"");
 			XYSeries xySeries = new XYSeries("UAVs: " + nb);
-			double[] pfd = sim.getSlaChecker().getTimeComplianceData(firstStep, lastStep);
+			double[] pfd = failResult.timeCompliance;
 			for(int i = 0; i < pfd.length; i++) {
 				xySeries.add(i, pfd[i]);
 			}
 			totalCoverageDSFailures.addSeries(xySeries);
-			lowestSLAxys.get(lowestSLAxys.size()-1).add(nb, sim.slaChecker.lowestPercentage(firstStep, lastStep));
+			lowestSLAxys.get(lowestSLAxys.size()-1).add(nb, failResult.lowestCoverage);
 			
-			if(minUAVsGraph && !slasOk && sim.allSLAsFulfilled(firstStep, lastStep)) {
+			if(minUAVsGraph && !slasOk && failResult.slasFulfilled) {
 				minUAVsDS.addValue(nb, sim.getNavigationBehaviourClass().getSimpleName(), sim.getNavigationBehaviourClass().getSimpleName());
 				slasOk = true;
 			}
-			nb += uavStep;
-		} while (nb <= maxNbOfUAVs);
+		}
 		totalCoverages.add(totalCoverageDS);
 		totalCoverages.add(totalCoverageDSFailures);
 		navNames.add(sim.getNavigationBehaviourClass().getSimpleName());
@@ -8,6 +8,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import simulation.UAVNetworkSimulation;
+import sla.report.SLAReport;
 
 /**
  * An experiment contains some actions that will be done with the specified simulation class and will output some findings or results to the terminal and/or files.
@@ -18,15 +19,32 @@ import simulation.UAVNetworkSimulation;
 public abstract class Experiment {
 	
 	protected UAVNetworkSimulation sim;
+	private String directoryName;
 	
 	public Experiment(UAVNetworkSimulation sim) {
 		this.sim = sim;
 	}
 	
-	protected String getDirectoryName() { 
-		DateFormat dateFormat = new SimpleDateFormat("yyyyMMddHHmmss");
-		Date date = new Date();
-		return this.getClass().getSimpleName() + dateFormat.format(date);
+	/**
+	 * Returns the name of the directory the results of this experiment are written to.
+	 * The name is determined (and the directory created) on the first call, 
+	 * so all results of the experiment end up in the same directory, even when they are written over multiple seconds.
+	 * Experiments of the same type started in the same second get a numbered suffix.
+	 * @return The name of the output directory of this experiment
+	 */
+	protected synchronized String getDirectoryName() { 
+		if(directoryName == null) {
+			DateFormat dateFormat = new SimpleDateFormat("yyyyMMddHHmmss");
+			String name = this.getClass().getSimpleName() + dateFormat.format(new Date());
+			String candidate = name;
+			for(int i = 2; !new File(candidate).mkdirs(); i++) {
+				if(!new File(candidate).exists())
+					throw new IllegalStateException("The output directory '" + candidate + "' could not be created");
+				candidate = name + "_" + i;
+			}
+			directoryName = candidate;
+		}
+		return directoryName;
 	}
 	
 	
@@ -49,10 +67,9 @@ public abstract class Experiment {
 	protected void executeUntil(long firstStep, long lastStep) {
 		sim.setJob(sim.job()+1);
 		sim.start();
+		sim.slaChecker.keepReport(firstStep, lastStep);
 		sim.addEvents(firstStep, lastStep);
-		do {
-			if (!sim.schedule.step(sim)) break;
-		} while(sim.schedule.getSteps() < lastStep);
+		sim.simulateUntil(lastStep);
 		sim.finish();
 		System.out.println("Gathering simulation results");
 				
@@ -65,16 +82,18 @@ public abstract class Experiment {
 
 		double percentageFulfilled = 0;
 		boolean finished = false;
+		SLAReport report = null;
 		sim.nameThread();
 		
 		do {
 			System.out.println("Simulating with " + sim.getNumUAVs() + " UAV(s)...");
 			executeUntil(firstStep, lastStep);
 			
-			percentageFulfilled = sim.slaChecker.percentageFulfilledBetween(firstStep, lastStep);
+			report = sim.slaChecker.getReport(firstStep, lastStep);
+			percentageFulfilled = report.getAverageCoverage();
 			System.out.printf("%.2f%% of SLAs fulfilled\n", percentageFulfilled);
 			
-			finished = sim.SLAsFulfilled(firstStep, lastStep);
+			finished = report.SLAsFulfilled(sim.getConfiguration().averageCoverageGoal, sim.getConfiguration().coveragePerSLAGoal);
 			//check for next number of UAVs to test
 			int multiplier = (int) (100/percentageFulfilled);
 			if(!finished)
@@ -86,7 +105,7 @@ public abstract class Experiment {
 		} while(!finished);
 		System.out.println("Generating graphs...");
 		System.out.println("Lowest SLA coverage: " +
-				sim.slaChecker.lowestPercentage(firstStep, lastStep) + "%");
+				report.getLowestCoverage() + "%");
 		//sim.slaChecker.clearDatasets();
 	}
 	
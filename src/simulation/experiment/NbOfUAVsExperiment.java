@@ -1,8 +1,14 @@
 package simulation.experiment;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jfree.data.category.DefaultCategoryDataset;
 
@@ -111,16 +117,90 @@ public abstract class NbOfUAVsExperiment extends Experiment {
 	
 	protected void runSimulation(int nb, boolean events, boolean boxDatasets) {
 		System.out.print("\nSimulating with " + nb + " UAVs...");
+		simulate(sim, nb, events);
+		System.out.println(" " + sim.getSlaChecker().percentageFulfilledBetween(firstStep, lastStep) + "%");
+		sim.addToDatasets(nb, sim.getNavigationBehaviourClass().getSimpleName(), firstStep, lastStep, boxDatasets);
+	}
+	
+	/**
+	 * Runs a simulation for each of the given numbers of UAVs with the current navigation strategy and returns their results in the same order.
+	 * If the configuration allows more than one sweep thread, every simulation runs concurrently in its own copy of the simulation of this experiment.
+	 * The copies share the event generators, so they get the same events as when the simulations run one after the other.
+	 * Every simulation starts with the seed of the simulation of this experiment plus its number of UAVs, 
+	 * so the results do not depend on the number of sweep threads.
+	 * The response times are added to the datasets of the reporter in the order of the given numbers of UAVs.
+	 * @param nbs The numbers of UAVs to simulate with
+	 * @param events Whether or not events should be added to the simulations
+	 * @param timeCompliance Whether or not the coverage over time should be kept in the results
+	 * @return The results of the simulations, in the order of the given numbers of UAVs
+	 */
+	protected List<SimulationResult> runSimulations(List<Integer> nbs, final boolean events, final boolean timeCompliance) {
+		List<SimulationResult> results = new ArrayList<SimulationResult>();
+		int threads = Math.min(sim.getConfiguration().sweepThreads, nbs.size());
+		if(threads <= 1) {
+			for(int nb : nbs) {
+				sim.random.setSeed(sim.seed() + nb);
+				runSimulation(nb, events);
+				results.add(new SimulationResult(sim, firstStep, lastStep, timeCompliance));
+			}
+			return results;
+		}
+		
+		System.out.println("\nSimulating with " + nbs + " UAVs on " + threads + " threads...");
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<SimulationResult>> futures = new ArrayList<Future<SimulationResult>>();
+		for(final int nb : nbs)
+			futures.add(executor.submit(new Callable<SimulationResult>() {
+
+				@Override
+				public SimulationResult call() throws IOException {
+					UAVNetworkSimulation copy = sim.copy(sim.seed() + nb);
+					simulate(copy, nb, events);
+					return new SimulationResult(copy, firstStep, lastStep, timeCompliance);
+				}
+			}));
+		executor.shutdown();
+		try {
+			for(Future<SimulationResult> future : futures)
+				results.add(future.get());
+		} catch (ExecutionException ex) {
+			executor.shutdownNow();
+			throw new IllegalStateException("A simulation of the sweep failed: " + ex.getCause().getMessage(), ex.getCause());
+		} catch (InterruptedException ex) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The sweep was interrupted");
+		}
+		
+		for(SimulationResult result : results) {
+			System.out.println("Simulated with " + result.nbOfUAVs + " UAVs... " + result.coverage + "%");
+			sim.reporter.addToDatasets(result.nbOfUAVs, result.strategy, result.averageResponseTime);
+		}
+		return results;
+	}
+	
+	/**
+	 * Returns the numbers of UAVs this experiment sweeps over.
+	 * @return The numbers of UAVs from the minimum to the maximum with the configured step
+	 */
+	protected List<Integer> getNbsOfUAVs() {
+		List<Integer> nbs = new ArrayList<Integer>();
+		int nb = minNbOfUAVs;
+		do {
+			nbs.add(nb);
+			nb += uavStep;
+		} while (nb <= maxNbOfUAVs);
+		return nbs;
+	}
+	
+	private void simulate(UAVNetworkSimulation sim, int nb, boolean events) {
 		sim.setNumUAVs(nb);
 		sim.start();
+		sim.getSlaChecker().keepReport(firstStep, lastStep);
 		if(events)
 			sim.addEvents(firstStep, lastStep);
-		do {
-			if (!sim.schedule.step(sim)) break;
-		} while(sim.schedule.getSteps() < lastStep);
+		sim.simulateUntil(lastStep);
 		sim.finish();
-		System.out.println(" " + sim.getSlaChecker().percentageFulfilledBetween(firstStep, lastStep) + "%");
-		sim.addToDatasets(nb, sim.getNavigationBehaviourClass().getSimpleName(), firstStep, lastStep, boxDatasets);
 	}
 
 	protected abstract void prepareCycleDatasets();
@@ -24,6 +24,7 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import simulation.UAVNetworkSimulation;
+import sla.report.SLAReport;
 
 public class SLACoverageExperiment extends NbOfUAVsExperiment {
 
@@ -81,20 +82,20 @@ public class SLACoverageExperiment extends NbOfUAVsExperiment {
 		 * histogramBinWidth, true, false)); }
 		 */
 		
-		double[] pfd = sim.getSlaChecker().getTimeComplianceData(
-				firstStep, lastStep);
+		SLAReport report = sim.getSlaChecker().getReport(firstStep, lastStep);
+		double[] pfd = report.getTimeComplianceData();
 		globalSpreadDS.addSeries(name, pfd, histogramBins);
-		slaSpreadDS.addSeries(name, sim.getSlaChecker().getSLAComplianceData(firstStep, lastStep), histogramBins);
+		slaSpreadDS.addSeries(name, report.getSLAComplianceData(), histogramBins);
 		long stepSize = (lastStep - firstStep)
 				/ sim.getSlaChecker().getNbOfDataPoints();
 		for (int i = 0; i < pfd.length; i++) {
 			xySeries.add(i * stepSize, pfd[i]);
 		}
 		
-		double mean = sim.getSlaChecker().percentageFulfilledBetween(firstStep, lastStep);
-		double lowest = sim.getSlaChecker().lowestPercentage(firstStep, lastStep);
-		double globalSD = sim.getSlaChecker().getTimeStandardDeviation(firstStep, lastStep);
-		double slaSD = sim.getSlaChecker().getSLAStandardDeviation(firstStep, lastStep);
+		double mean = report.getAverageCoverage();
+		double lowest = report.getLowestCoverage();
+		double globalSD = report.getTimeStandardDeviation();
+		double slaSD = report.getSLAStandardDeviation();
 		statistics += "\n" + name + "\t" + mean + "\t" + lowest + "\t" + slaSD + "\t" + globalSD;
 		BigDecimal bMean = new BigDecimal(mean);
 		bMean = bMean.round(new MathContext(5));
@@ -0,0 +1,35 @@
+package simulation.experiment;
+
+import simulation.UAVNetworkSimulation;
+import sla.report.SLAReport;
+
+/**
+ * The results of a single simulation run that are needed to draw the graphs of an experiment.
+ * The results are taken from the simulation right after it finished, so the simulation can be reused or discarded afterwards.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class SimulationResult {
+
+	public final int nbOfUAVs;
+	public final String strategy;
+	public final double coverage, lowestCoverage, averageResponseTime;
+	public final boolean slasFulfilled;
+	/**
+	 * The percentage of SLAs fulfilled over time, or null if it was not requested.
+	 */
+	public final double[] timeCompliance;
+
+	public SimulationResult(UAVNetworkSimulation sim, long firstStep, long lastStep, boolean timeCompliance) {
+		this.nbOfUAVs = sim.getNumUAVs();
+		this.strategy = sim.getNavigationBehaviourClass().getSimpleName();
+		SLAReport report = sim.getSlaChecker().getReport(firstStep, lastStep);
+		this.coverage = report.getAverageCoverage();
+		this.lowestCoverage = report.getLowestCoverage();
+		this.averageResponseTime = sim.getSlaChecker().getAverageResponseTime();
+		this.slasFulfilled = report.SLAsFulfilled(sim.getConfiguration().averageCoverageGoal, sim.getConfiguration().coveragePerSLAGoal);
+		this.timeCompliance = timeCompliance ? report.getTimeComplianceData() : null;
+	}
+
+}
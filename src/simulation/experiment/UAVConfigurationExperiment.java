@@ -95,30 +95,27 @@ public class UAVConfigurationExperiment extends NbOfUAVsExperiment {
 	}
 	
 	private void experiment(int configurationId) {
-		int nb = minNbOfUAVs;
 		XYSeriesCollection totalCoverageDS = new XYSeriesCollection();
 		boolean slasOk = false;
-		do {
-			runSimulation(nb);
-			
+		for(SimulationResult result : runSimulations(getNbsOfUAVs(), true, SLACoverage_time)) {
+			int nb = result.nbOfUAVs;
 			if(SLACoverage_time) {
 				XYSeries xySeries = new XYSeries("UAVs: " + nb);
-				double[] pfd = sim.getSlaChecker().getTimeComplianceData(firstStep, lastStep);
+				double[] pfd = result.timeCompliance;
 				long stepSize = (lastStep-firstStep) / sim.getSlaChecker().getNbOfDataPoints();
 				for(int i = 0; i < pfd.length; i++) {
 					xySeries.add(i * stepSize, pfd[i]);
 				}
 				totalCoverageDS.addSeries(xySeries);
 			}
-			lowestSLAxys.get(lowestSLAxys.size()-1).add(nb, sim.slaChecker.lowestPercentage(firstStep, lastStep));
-			totalCoverageXYs.get(totalCoverageXYs.size()-1).add(nb, sim.getSlaChecker().percentageFulfilledBetween(firstStep, lastStep));
+			lowestSLAxys.get(lowestSLAxys.size()-1).add(nb, result.lowestCoverage);
+			totalCoverageXYs.get(totalCoverageXYs.size()-1).add(nb, result.coverage);
 			
-			if(minUAVsGraph && !slasOk && sim.allSLAsFulfilled(firstStep, lastStep)) {
+			if(minUAVsGraph && !slasOk && result.slasFulfilled) {
 				minUAVsDS.addValue(nb, "conf" + configurationId, sim.getNavigationBehaviourClass().getSimpleName());
 				slasOk = true;
 			}
-			nb += uavStep;
-		} while (nb <= maxNbOfUAVs);
+		}
 		if(SLACoverage_time)
 			totalCoverages.add(totalCoverageDS);
 		navNames.add(sim.getNavigationBehaviourClass().getSimpleName());
@@ -0,0 +1,464 @@
+package simulation.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import network.Inspectable;
+import network.Node;
+import network.UAVNetwork;
+import sim.engine.Schedule;
+
+/**
+ * A log of all inspection events of a simulation in one place: inspections, inspection requests
+ * and the start and end of the inspection of an edge by a UAV.
+ * The events are stored in parallel primitive columns (step, kind, inspectable and UAV)
+ * that are filled one chunk at a time, so appending an event never copies the log and analyses over the whole log
+ * read contiguous arrays instead of walking the elements of the network.
+ *
+ * Inspectables are identified by their index: first the nodes of the network in order, then its edges.
+ * UAVs are identified in the order in which they appear in the log.
+ *
+ * When more chunks are full than may be kept in memory, the oldest full chunks are written to a temporary file,
+ * so the memory used by a long run is bounded. Scanning the log reads them back in order.
+ * After the run, an {@link Index} groups the events per inspectable.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class InspectionEventLog {
+
+	public enum Kind {
+		INSPECTION, REQUEST, START, STOP
+	}
+	private static final Kind[] KINDS = Kind.values();
+
+	public static final int CHUNK_SIZE = 1 << 16;
+
+	private final Schedule schedule;
+	private final Inspectable[] inspectables;
+	private final Map<Inspectable, Integer> inspectableIds = new IdentityHashMap<Inspectable, Integer>();
+	private final List<Object> uavs = new ArrayList<Object>();
+	private final Map<Object, Integer> uavIds = new IdentityHashMap<Object, Integer>();
+
+	private final int maxChunksInMemory;
+	private final List<Chunk> chunks = new ArrayList<Chunk>();
+	private File spillFile;
+	private DataOutputStream spill;
+	private int nbSpilledChunks = 0;
+	private long size = 0;
+
+	/**
+	 * Constructs an empty log of the events in the given network that keeps all events in memory.
+	 * @param network The network of which the elements are inspected
+	 * @param schedule The schedule of the simulation, of which the time is the step of an event
+	 */
+	public InspectionEventLog(UAVNetwork network, Schedule schedule) {
+		this(network, schedule, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Constructs an empty log of the events in the given network.
+	 * @param network The network of which the elements are inspected
+	 * @param schedule The schedule of the simulation, of which the time is the step of an event
+	 * @param maxChunksInMemory The number of chunks of {@link #CHUNK_SIZE} events that are kept in memory before they are written to disk
+	 */
+	public InspectionEventLog(UAVNetwork network, Schedule schedule, int maxChunksInMemory) {
+		if(maxChunksInMemory <= 0)
+			throw new IllegalArgumentException("At least one chunk must be kept in memory");
+		this.schedule = schedule;
+		this.maxChunksInMemory = maxChunksInMemory;
+		inspectables = new Inspectable[network.getNbNodes() + network.getNbEdges()];
+		for(int i = 0; i < network.getNbNodes(); i++)
+			inspectables[i] = network.getNode(i);
+		for(int i = 0; i < network.getNbEdges(); i++)
+			inspectables[network.getNbNodes() + i] = network.getEdge(i);
+		for(int i = 0; i < inspectables.length; i++)
+			inspectableIds.put(inspectables[i], i);
+	}
+
+	/**
+	 * Adds an event at the current time of the schedule.
+	 * @param kind The kind of event
+	 * @param inspectable The element of the network the event is about
+	 * @param uav The UAV that caused the event, or null if the event was not caused by a UAV (such as a request)
+	 */
+	public void add(Kind kind, Inspectable inspectable, Object uav) {
+		add((long) schedule.getTime(), kind, getInspectableId(inspectable), uav == null ? -1 : getUAVId(uav));
+	}
+
+	/**
+	 * Adds an event. Events should be added in the order in which they happen.
+	 * @param step The step of the event
+	 * @param kind The kind of event
+	 * @param inspectable The id of the element of the network the event is about
+	 * @param uav The id of the UAV that caused the event, or -1 if the event was not caused by a UAV
+	 */
+	public void add(long step, Kind kind, int inspectable, int uav) {
+		if(inspectable < 0 || inspectable >= inspectables.length)
+			throw new IllegalArgumentException("There is no inspectable with id " + inspectable);
+		Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size()-1);
+		if(chunk == null || chunk.size == CHUNK_SIZE) {
+			if(chunks.size() == maxChunksInMemory)
+				spill(chunks.remove(0));
+			chunk = new Chunk(CHUNK_SIZE);
+			chunks.add(chunk);
+		}
+		chunk.add(step, kind, inspectable, uav);
+		size++;
+	}
+
+	/**
+	 * @return The number of events in this log
+	 */
+	public long size() {
+		return size;
+	}
+
+	public int getNbInspectables() {
+		return inspectables.length;
+	}
+
+	public Inspectable getInspectable(int id) {
+		return inspectables[id];
+	}
+
+	public int getInspectableId(Inspectable inspectable) {
+		Integer id = inspectableIds.get(inspectable);
+		if(id == null)
+			throw new IllegalArgumentException("The inspectable " + inspectable + " is not part of the network of this log");
+		return id;
+	}
+
+	/**
+	 * @return The number of UAVs that appear in this log
+	 */
+	public int getNbUAVs() {
+		return uavs.size();
+	}
+
+	public Object getUAV(int id) {
+		return uavs.get(id);
+	}
+
+	/**
+	 * Returns the id of the given UAV, which is assigned the first time the UAV appears in the log.
+	 * @param uav The UAV
+	 * @return The id of the UAV
+	 */
+	public int getUAVId(Object uav) {
+		Integer id = uavIds.get(uav);
+		if(id == null) {
+			id = uavs.size();
+			uavs.add(uav);
+			uavIds.put(uav, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Passes all events to the given visitor in the order in which they were added, reading back the events that were written to disk.
+	 * @param visitor The visitor to pass the events to
+	 * @throws IOException If the events on disk could not be read
+	 */
+	public void scan(Visitor visitor) throws IOException {
+		if(nbSpilledChunks > 0) {
+			spill.flush();
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile), 1 << 16))) {
+				Chunk chunk = new Chunk(CHUNK_SIZE);
+				for(int i = 0; i < nbSpilledChunks; i++) {
+					chunk.read(in);
+					chunk.visit(visitor);
+				}
+			}
+		}
+		for(Chunk chunk : chunks)
+			chunk.visit(visitor);
+	}
+
+	/**
+	 * Counts the events of each kind.
+	 * @return The number of events of each kind, indexed by the ordinal of the kind
+	 * @throws IOException If the events on disk could not be read
+	 */
+	public long[] countKinds() throws IOException {
+		final long[] counts = new long[KINDS.length];
+		scan(new Visitor() {
+			@Override
+			public void event(long step, Kind kind, int inspectable, int uav) {
+				counts[kind.ordinal()]++;
+			}
+		});
+		return counts;
+	}
+
+	/**
+	 * Counts the inspections done by each UAV.
+	 * @return The number of inspections of each UAV, indexed by the id of the UAV
+	 * @throws IOException If the events on disk could not be read
+	 */
+	public long[] getInspectionsPerUAV() throws IOException {
+		final long[] counts = new long[uavs.size()];
+		scan(new Visitor() {
+			@Override
+			public void event(long step, Kind kind, int inspectable, int uav) {
+				if(kind == Kind.INSPECTION && uav >= 0)
+					counts[uav]++;
+			}
+		});
+		return counts;
+	}
+
+	/**
+	 * Groups the events per inspectable, keeping the order in which they were added.
+	 * The index is a copy of the log: events added afterwards are not part of it.
+	 * @return The index of this log
+	 * @throws IOException If the events on disk could not be read
+	 */
+	public Index index() throws IOException {
+		if(size > Integer.MAX_VALUE)
+			throw new IllegalStateException("The log contains too many events to be indexed");
+		final int[] start = new int[inspectables.length + 1];
+		scan(new Visitor() {
+			@Override
+			public void event(long step, Kind kind, int inspectable, int uav) {
+				start[inspectable+1]++;
+			}
+		});
+		for(int i = 0; i < inspectables.length; i++)
+			start[i+1] += start[i];
+		final Index index = new Index(start, (int) size);
+		final int[] next = Arrays.copyOf(start, inspectables.length);
+		scan(new Visitor() {
+			@Override
+			public void event(long step, Kind kind, int inspectable, int uav) {
+				int i = next[inspectable]++;
+				index.steps[i] = step;
+				index.kinds[i] = (byte) kind.ordinal();
+				index.uavs[i] = uav;
+			}
+		});
+		return index;
+	}
+
+	/**
+	 * Removes the events that were written to disk. The log cannot be used anymore afterwards.
+	 */
+	public void close() {
+		chunks.clear();
+		if(spill != null) {
+			try {
+				spill.close();
+			} catch (IOException e) {}
+			spillFile.delete();
+			spill = null;
+		}
+		nbSpilledChunks = 0;
+		size = 0;
+	}
+
+	private void spill(Chunk chunk) {
+		try {
+			if(spill == null) {
+				spillFile = File.createTempFile("inspection-events", ".log");
+				spillFile.deleteOnExit();
+				spill = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), 1 << 16));
+			}
+			chunk.write(spill);
+			nbSpilledChunks++;
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write the inspection events to disk", e);
+		}
+	}
+
+	/**
+	 * Receives the events of a log one by one.
+	 */
+	public interface Visitor {
+
+		/**
+		 * Called for every event in the log.
+		 * @param step The step of the event
+		 * @param kind The kind of event
+		 * @param inspectable The id of the element of the network the event is about
+		 * @param uav The id of the UAV that caused the event, or -1 if the event was not caused by a UAV
+		 */
+		public void event(long step, Kind kind, int inspectable, int uav);
+
+	}
+
+	/**
+	 * A fixed number of events, stored column by column.
+	 */
+	private static class Chunk {
+
+		private final long[] steps;
+		private final byte[] kinds;
+		private final int[] inspectables, uavs;
+		private int size = 0;
+
+		private Chunk(int capacity) {
+			steps = new long[capacity];
+			kinds = new byte[capacity];
+			inspectables = new int[capacity];
+			uavs = new int[capacity];
+		}
+
+		private void add(long step, Kind kind, int inspectable, int uav) {
+			steps[size] = step;
+			kinds[size] = (byte) kind.ordinal();
+			inspectables[size] = inspectable;
+			uavs[size] = uav;
+			size++;
+		}
+
+		private void visit(Visitor visitor) {
+			for(int i = 0; i < size; i++)
+				visitor.event(steps[i], KINDS[kinds[i]], inspectables[i], uavs[i]);
+		}
+
+		private void write(DataOutputStream out) throws IOException {
+			out.writeInt(size);
+			for(int i = 0; i < size; i++)
+				out.writeLong(steps[i]);
+			out.write(kinds, 0, size);
+			for(int i = 0; i < size; i++)
+				out.writeInt(inspectables[i]);
+			for(int i = 0; i < size; i++)
+				out.writeInt(uavs[i]);
+		}
+
+		private void read(DataInputStream in) throws IOException {
+			size = in.readInt();
+			for(int i = 0; i < size; i++)
+				steps[i] = in.readLong();
+			in.readFully(kinds, 0, size);
+			for(int i = 0; i < size; i++)
+				inspectables[i] = in.readInt();
+			for(int i = 0; i < size; i++)
+				uavs[i] = in.readInt();
+		}
+
+	}
+
+	/**
+	 * The events of a log grouped per inspectable: the events of an inspectable are stored in one range of the columns,
+	 * in the order in which they were added.
+	 */
+	public class Index {
+
+		private final int[] start;
+		private final long[] steps;
+		private final byte[] kinds;
+		private final int[] uavs;
+
+		private Index(int[] start, int size) {
+			this.start = start;
+			steps = new long[size];
+			kinds = new byte[size];
+			uavs = new int[size];
+		}
+
+		/**
+		 * @param inspectable The id of an inspectable
+		 * @return The position of the first event of the inspectable
+		 */
+		public int getStart(int inspectable) {
+			return start[inspectable];
+		}
+
+		/**
+		 * @param inspectable The id of an inspectable
+		 * @return The position after the last event of the inspectable
+		 */
+		public int getEnd(int inspectable) {
+			return start[inspectable+1];
+		}
+
+		public int size() {
+			return steps.length;
+		}
+
+		public long getStep(int i) {
+			return steps[i];
+		}
+
+		public Kind getKind(int i) {
+			return KINDS[kinds[i]];
+		}
+
+		/**
+		 * @param i The position of an event
+		 * @return The id of the UAV that caused the event, or -1 if the event was not caused by a UAV
+		 */
+		public int getUAV(int i) {
+			return uavs[i];
+		}
+
+		/**
+		 * Returns the times it took to fulfil each inspection request, i.e. the steps between a request
+		 * and the first inspection of the same element at or after it. Requests that were never fulfilled are left out.
+		 * @return A new array with all response times, sorted
+		 */
+		public long[] getResponseTimes() {
+			long[] responseTimes = new long[steps.length];
+			int n = 0;
+			for(int inspectable = 0; inspectable < inspectables.length; inspectable++) {
+				//Walk the inspections of this inspectable along with its requests
+				int inspection = start[inspectable];
+				for(int i = start[inspectable]; i < start[inspectable+1]; i++) {
+					if(kinds[i] != Kind.REQUEST.ordinal())
+						continue;
+					while(inspection < start[inspectable+1] && (kinds[inspection] != Kind.INSPECTION.ordinal() || steps[inspection] < steps[i]))
+						inspection++;
+					if(inspection < start[inspectable+1])
+						responseTimes[n++] = steps[inspection] - steps[i];
+				}
+			}
+			responseTimes = Arrays.copyOf(responseTimes, n);
+			Arrays.sort(responseTimes);
+			return responseTimes;
+		}
+
+		/**
+		 * Returns the number of steps during which each UAV was inspecting an edge, from the start of an edge inspection
+		 * to its end or the crash of the UAV.
+		 * @return The number of inspecting steps of each UAV, indexed by the id of the UAV
+		 */
+		public long[] getInspectingStepsPerUAV() {
+			long[] inspecting = new long[getNbUAVs()];
+			//The start of the current inspection of each UAV, per edge
+			long[] started = new long[getNbUAVs()];
+			Arrays.fill(started, -1);
+			for(int inspectable = 0; inspectable < inspectables.length; inspectable++) {
+				if(inspectables[inspectable] instanceof Node)
+					continue;
+				for(int i = start[inspectable]; i < start[inspectable+1]; i++) {
+					int uav = uavs[i];
+					if(uav < 0)
+						continue;
+					if(kinds[i] == Kind.START.ordinal()) {
+						started[uav] = steps[i];
+					} else if(kinds[i] == Kind.STOP.ordinal() && started[uav] >= 0) {
+						inspecting[uav] += steps[i] - started[uav];
+						started[uav] = -1;
+					}
+				}
+				Arrays.fill(started, -1);
+			}
+			return inspecting;
+		}
+
+	}
+
+}
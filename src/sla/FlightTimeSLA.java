@@ -28,6 +28,44 @@ public class FlightTimeSLA {
 	public boolean isUAVFlyTime(long time) {
 		return time % (1440*30) < (inspectionDaysPerMonth*1440) && time % 1440 < inspectionMinutesPerDay;
 	}
+	
+	/**
+	 * Returns the number of minutes before the given step during which UAVs are allowed to fly.
+	 * @param time The step (exclusive) until which the fly minutes are counted
+	 * @return The number of fly minutes in [0, time)
+	 */
+	public long getFlyMinutesBefore(long time) {
+		if(time <= 0)
+			return 0;
+		int minutesPerDay = Math.min(inspectionMinutesPerDay, 1440),
+				daysPerMonth = Math.min(inspectionDaysPerMonth, 30);
+		long month = time / (1440*30);
+		long day = (time % (1440*30)) / 1440;
+		long minute = time % 1440;
+		long minutes = month * daysPerMonth * minutesPerDay + Math.min(day, daysPerMonth) * minutesPerDay;
+		if(day < daysPerMonth)
+			minutes += Math.min(minute, minutesPerDay);
+		return minutes;
+	}
+	
+	/**
+	 * Returns the step at which the given amount of fly minutes have passed after the given step.
+	 * For example, the step at which a UAV that is allowed to fly now, arrives after flying for 10 minutes 
+	 * is given by getFlyTimeAfter(now, 10).
+	 * @param time The current step, which is not counted itself
+	 * @param flyMinutes The strictly positive amount of fly minutes that should pass
+	 * @return The step at which the given amount of fly minutes after the given step has passed
+	 */
+	public long getFlyTimeAfter(long time, long flyMinutes) {
+		if(flyMinutes <= 0)
+			throw new IllegalArgumentException("The amount of fly minutes must be strictly positive");
+		int minutesPerDay = Math.min(inspectionMinutesPerDay, 1440),
+				daysPerMonth = Math.min(inspectionDaysPerMonth, 30);
+		long k = getFlyMinutesBefore(time + 1) + flyMinutes - 1;
+		long month = k / (daysPerMonth * minutesPerDay);
+		long rest = k % (daysPerMonth * minutesPerDay);
+		return month * 1440 * 30 + (rest / minutesPerDay) * 1440 + rest % minutesPerDay;
+	}
 
 
 }
@@ -1,11 +1,12 @@
 package sla;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.OptionalDouble;
 
 import network.Inspectable;
+import network.InspectionHistory;
+import network.TimeSeries;
 import network.UAVNetwork;
 
 /**
@@ -27,19 +28,49 @@ public class ResponseTimeSLA {
 
 	/**
 	 * Returns a list of all times it took to fulfill the inspection requests in the specified network.
+	 * Requests made before inspections were folded out of the inspection history of an element are left out.
 	 * @param network The network for which to return all response times.
 	 * @return A list of all times it took to fulfill the inspection requests in the specified network.
 	 */
 	public List<Long> getInspectionResponseTimes(UAVNetwork network) {
-		List<Long> responseTimes = new ArrayList<Long>();
-		for(Inspectable inspectable : network.getInspectables()) {
-			for(Long t : inspectable.getInspectionNeededTimes()) {
-				long nit = inspectable.getNextInspectionTimeAt(t);
-				if(nit != 0)
-					responseTimes.add(nit - t);
+		long[] responseTimes = getResponseTimes(network);
+		List<Long> list = new ArrayList<Long>(responseTimes.length);
+		for(long responseTime : responseTimes)
+			list.add(responseTime);
+		return list;
+	}
+	
+	/**
+	 * Returns all times it took to fulfill the inspection requests in the specified network, 
+	 * i.e. the steps between each request and the first inspection of the same element at or after it.
+	 * The requests and inspections of every node and edge are merged in a single pass, as both are sorted.
+	 * Requests that have not been fulfilled and requests made before inspections were folded out of the inspection history of an element are left out.
+	 * @param network The network for which to return all response times.
+	 * @return A new array with all response times, sorted.
+	 */
+	public long[] getResponseTimes(UAVNetwork network) {
+		long[] responseTimes = new long[16];
+		int n = 0;
+		for(int i = 0; i < network.getNbNodes() + network.getNbEdges(); i++) {
+			Inspectable inspectable = i < network.getNbNodes() ? network.getNode(i) : network.getEdge(i - network.getNbNodes());
+			TimeSeries requests = inspectable.getInspectionNeededTimes();
+			InspectionHistory history = inspectable.getInspectionHistory();
+			int inspection = 0;
+			for(int r = 0; r < requests.size(); r++) {
+				long t = requests.get(r);
+				if(history.getNbDropped() > 0 && t <= history.getLastDropped())
+					continue;
+				while(inspection < history.size() && history.get(inspection) < t)
+					inspection++;
+				if(inspection == history.size())
+					break;
+				if(n == responseTimes.length)
+					responseTimes = Arrays.copyOf(responseTimes, n * 2);
+				responseTimes[n++] = history.get(inspection) - t;
 			}
 		}
-		Collections.sort(responseTimes);
+		responseTimes = Arrays.copyOf(responseTimes, n);
+		Arrays.sort(responseTimes);
 		return responseTimes;
 	}
 	
@@ -57,11 +88,11 @@ public class ResponseTimeSLA {
 	 * @return A number representing the average response time for the specified network measured in simulation steps.
 	 */
 	public double getAverageResponseTime(UAVNetwork network) {
-		OptionalDouble average = getInspectionResponseTimes(network)
-	            .stream()
-	            .mapToDouble(a -> a)
-	            .average();
-		return average.isPresent() ? average.getAsDouble() : 0; 
+		long[] responseTimes = getResponseTimes(network);
+		long sum = 0;
+		for(long responseTime : responseTimes)
+			sum += responseTime;
+		return responseTimes.length == 0 ? 0 : (double) sum / responseTimes.length;
 	}
 
 }
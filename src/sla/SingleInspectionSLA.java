@@ -1,6 +1,8 @@
 package sla;
 
 import network.Inspectable;
+import network.InspectionHistory;
+import network.TimeSeries;
 /**
  * A class that represents a SLA that one inspectable element should be inspected once every x minutes.
  * Once an inspection happened, the SLA will be fulfilled and stay this way for as long as the time no inspection 
@@ -32,6 +34,14 @@ public class SingleInspectionSLA extends TimeBoundedSLA {
 		return inspectable;
 	}
 
+	/**
+	 * Returns the maximum number of steps between two inspections for this SLA to be fulfilled.
+	 * @return The maximum number of steps between two inspections
+	 */
+	public long getMaximumStepsBetweenInspections() {
+		return maximumStepsBetweenInspections;
+	}
+
 	@Override
 	public boolean isFulfilled(long currentStep) {
 		if(currentStep - inspectable.getLastInspectionTimeAt(currentStep) <= maximumStepsBetweenInspections)
@@ -39,6 +49,46 @@ public class SingleInspectionSLA extends TimeBoundedSLA {
 		return false;
 	}
 	
+	/**
+	 * Returns the periods in which this SLA was fulfilled, in one pass over the inspections during the given period.
+	 * Every inspection fulfills the SLA from the next step until the maximum number of steps after it,
+	 * and the start of the simulation counts as an inspection.
+	 * When old inspections have been folded, the period must start after the last folded one.
+	 */
+	@Override
+	public long[] getFulfilledIntervals(long startStep, long endStep) {
+		InspectionHistory history = inspectable.getInspectionHistory();
+		IntervalBuilder intervals = new IntervalBuilder();
+		intervals.add(Math.max(0, startStep), Math.min(maximumStepsBetweenInspections, endStep));
+		//Inspections more than the maximum number of steps before the start do not fulfill the SLA during the period
+		int i;
+		if(history.getNbDropped() > 0 && startStep - maximumStepsBetweenInspections <= history.getLastDropped()) {
+			if(startStep <= history.getLastDropped())
+				throw new IllegalStateException("The inspections before step " + startStep + " have been folded up to step " + history.getLastDropped());
+			//The last folded inspection may still fulfill the SLA at the start of the period
+			intervals.add(startStep, Math.min(history.getLastDropped() + maximumStepsBetweenInspections, endStep));
+			i = 0;
+		} else {
+			i = history.countBefore(startStep - maximumStepsBetweenInspections);
+		}
+		for(; i < history.size() && history.get(i) < endStep; i++) {
+			long time = history.get(i);
+			intervals.add(Math.max(time + 1, startStep), Math.min(time + maximumStepsBetweenInspections, endStep));
+		}
+		return intervals.toArray();
+	}
+	
+	@Override
+	public Sweep sweep() {
+		final TimeSeries.Cursor cursor = inspectable.getInspectionHistory().cursor();
+		return new Sweep() {
+			@Override
+			public boolean isFulfilled(long step) {
+				return step - cursor.getLastBefore(step) <= maximumStepsBetweenInspections;
+			}
+		};
+	}
+	
 	@Override
 	public String toString() {
 		return "Inspect " + inspectable + " once every " + maximumStepsBetweenInspections + " minutes";
@@ -1,5 +1,7 @@
 package sla;
 
+import java.util.Arrays;
+
 /**
  * An abstract class representing a SLA that in any point of time is either fulfilled or not fulfilled.
  * Because of this property one can also ask the percentage that the SLA has been fulfilled between two certain times.
@@ -16,6 +18,67 @@ public abstract class TimeBoundedSLA {
 	 */
 	public abstract boolean isFulfilled(long step);
 	
+	/**
+	 * Returns a sweep to check this SLA at steps that do not decrease, such as the data points of a period of time.
+	 * Subclasses can override this to reuse the work of earlier steps, by default every step is checked separately.
+	 * @return A new sweep over this SLA
+	 */
+	public Sweep sweep() {
+		return new Sweep() {
+			@Override
+			public boolean isFulfilled(long step) {
+				return TimeBoundedSLA.this.isFulfilled(step);
+			}
+		};
+	}
+	
+	/**
+	 * Checks whether an SLA is fulfilled at steps that do not decrease.
+	 */
+	public interface Sweep {
+		
+		/**
+		 * Tests whether or not the SLA was fulfilled at the specified step
+		 * @param step The step at which the SLA's status should be checked, usually at least the step of the previous check
+		 * @return True if the SLA was fulfilled at the specified step, False otherwise
+		 */
+		public boolean isFulfilled(long step);
+		
+	}
+	
+	/**
+	 * Returns the periods within the given period during which this SLA was fulfilled.
+	 * By default every step is checked, subclasses that know when their state changes should override this.
+	 * @param startStep The first step of the period
+	 * @param endStep The last step of the period
+	 * @return The first and last step of every period in which the SLA was fulfilled, as consecutive pairs.
+	 * 			The periods are sorted, do not overlap and are not adjacent.
+	 */
+	public long[] getFulfilledIntervals(long startStep, long endStep) {
+		IntervalBuilder intervals = new IntervalBuilder();
+		Sweep sweep = sweep();
+		for(long i = startStep; i <= endStep; i++)
+			if(sweep.isFulfilled(i))
+				intervals.add(i, i);
+		return intervals.toArray();
+	}
+	
+	/**
+	 * Returns the exact percentage of the steps between the given start an end steps at which the SLA was fulfilled.
+	 * @param startStep The start of the period
+	 * @param endStep The end of the period
+	 * @return A number between 0 and 100 inclusive that represents the percentage of the time the SLA was in the fulfilled state.
+	 */
+	public double getPercentage(long startStep, long endStep) {
+		if(endStep < startStep)
+			throw new IllegalArgumentException("The end of the period must not be before its start");
+		long[] intervals = getFulfilledIntervals(startStep, endStep);
+		long fulfilled = 0;
+		for(int i = 0; i < intervals.length; i += 2)
+			fulfilled += intervals[i+1] - intervals[i] + 1;
+		return fulfilled * 100.0 / (endStep - startStep + 1);
+	}
+	
 	/**
 	 * Requests the average percentage of which the SLA was fulfilled during the period between the given start an end steps.
 	 * @param startStep The start of the period
@@ -27,12 +90,46 @@ public abstract class TimeBoundedSLA {
 	public double getPercentage(long startStep, long endStep, long stepInterval){
 		double percent = 0;
 		int denom = 0;
+		Sweep sweep = sweep();
 		for(long i = startStep; i <= endStep; i += stepInterval) {
 			denom++;
-			if (isFulfilled(i))
+			if (sweep.isFulfilled(i))
 				percent++;
 		}
 		return percent * 100 / denom;
 	}
 	
+	/**
+	 * Collects the periods in which an SLA is fulfilled, merging periods that overlap or touch.
+	 * Periods must be added in order of their first step.
+	 */
+	protected static class IntervalBuilder {
+		
+		private long[] intervals = new long[8];
+		private int size = 0;
+		
+		/**
+		 * Adds the period from start to end inclusive. Empty periods, where the end is before the start, are ignored.
+		 * @param start The first step of the period, at least the first step of the previously added period
+		 * @param end The last step of the period
+		 */
+		public void add(long start, long end) {
+			if(end < start)
+				return;
+			if(size > 0 && start <= intervals[size-1] + 1) {
+				intervals[size-1] = Math.max(intervals[size-1], end);
+				return;
+			}
+			if(size == intervals.length)
+				intervals = Arrays.copyOf(intervals, size * 2);
+			intervals[size++] = start;
+			intervals[size++] = end;
+		}
+		
+		public long[] toArray() {
+			return Arrays.copyOf(intervals, size);
+		}
+		
+	}
+	
 }
@@ -0,0 +1,378 @@
+package sla.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import network.InspectionHistory;
+import sla.SingleInspectionSLA;
+import sla.TimeBoundedSLA;
+
+/**
+ * Keeps track of the coverage of inspection SLAs while the simulation runs, instead of sampling them afterwards.
+ * Every inspection updates the SLAs of the inspected element as it is added to its inspection history:
+ * <ul>
+ * <li>the number of steps each SLA was fulfilled up to each of its inspections is stored,
+ * so the exact coverage of an SLA during any period is found with a binary search in its inspection history;</li>
+ * <li>the number of SLAs that are fulfilled right now is updated with the times at which SLAs become fulfilled or expire,
+ * so the coverage at the current step is known without checking any SLA.</li>
+ * </ul>
+ * An SLA is fulfilled at a step when the last inspection strictly before that step is at most the maximum number of steps ago,
+ * where the start of the simulation counts as an inspection, just like {@link SingleInspectionSLA#isFulfilled(long)}.
+ * Only {@link SingleInspectionSLA}s can be tracked.
+ * When old inspections are folded out of a history, the fulfilled steps up to the last folded one are kept,
+ * so the coverage can still be computed for every period after it.
+ * The fulfilled steps up to steps that were given to {@link #keep(long[])} before are kept as well,
+ * so a report on a period that was known before the run can still be made when it starts before the last folded inspection.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class CoverageTracker {
+
+	private final List<Track> tracks = new ArrayList<Track>();
+	private final Map<TimeBoundedSLA, Track> slaTracks = new IdentityHashMap<TimeBoundedSLA, Track>();
+	//The times at which tracked SLAs become fulfilled or may expire, processed up to the current step
+	private final PriorityQueue<Event> events = new PriorityQueue<Event>(11, new Comparator<Event>() {
+		@Override
+		public int compare(Event e1, Event e2) {
+			if(e1.time != e2.time)
+				return Long.compare(e1.time, e2.time);
+			//An SLA that is inspected again is still fulfilled at the step its previous inspection expires
+			return Boolean.compare(e2.activation, e1.activation);
+		}
+	});
+	private long currentStep = 0;
+	private int nbFulfilled = 0;
+	private long nbOfInspections = 0;
+	//The steps up to which the fulfilled steps are kept when inspections are folded, and the totals of the SLAs folded past each of them
+	private long[] keptSteps = new long[0];
+	private long[] keptTotals = new long[0];
+
+	/**
+	 * Starts tracking the coverage of the given SLA, if it is a {@link SingleInspectionSLA}.
+	 * Inspections that happened before are taken into account.
+	 * @param sla The SLA to track
+	 * @return True if the SLA is tracked, False if it cannot be tracked
+	 */
+	public boolean track(TimeBoundedSLA sla) {
+		if(!(sla instanceof SingleInspectionSLA))
+			return false;
+		if(slaTracks.containsKey(sla))
+			return true;
+		SingleInspectionSLA single = (SingleInspectionSLA) sla;
+		Track track = new Track(single.getInspectable().getInspectionHistory(), single.getMaximumStepsBetweenInspections());
+		tracks.add(track);
+		slaTracks.put(sla, track);
+		nbFulfilled++;
+		events.add(new Event(track.max + 1, false, track));
+		for(int i = 0; i < track.history.size(); i++)
+			addEvents(track, track.history.get(i));
+		track.history.addListener(track);
+		advanceTo(currentStep);
+		return true;
+	}
+
+	public boolean isTracked(TimeBoundedSLA sla) {
+		return slaTracks.containsKey(sla);
+	}
+
+	/**
+	 * @return The number of inspections of tracked SLAs since they are tracked, which changes whenever their coverage may have changed
+	 */
+	public long getNbOfInspections() {
+		return nbOfInspections;
+	}
+
+	/**
+	 * @return The number of tracked SLAs
+	 */
+	public int size() {
+		return tracks.size();
+	}
+
+	/**
+	 * Returns the percentage of tracked SLAs that is fulfilled at the given step.
+	 * This takes constant time for the current step and later steps, assuming no inspections happen in between.
+	 * Earlier steps take a binary search per SLA.
+	 * @param step The step to check the SLAs at
+	 * @return A number between 0 and 100 inclusive representing the percentage of tracked SLAs that are fulfilled at the given step
+	 */
+	public double percentageFulfilledAt(long step) {
+		if(step >= currentStep) {
+			advanceTo(step);
+			return nbFulfilled * 100.0 / tracks.size();
+		}
+		int fulfilled = 0;
+		for(Track track : tracks)
+			fulfilled += track.getFulfilledSteps(step, step);
+		return fulfilled * 100.0 / tracks.size();
+	}
+
+	/**
+	 * Returns the number of steps in the given period during which the given SLA was fulfilled.
+	 * This takes two binary searches in the inspection history of the SLA.
+	 * @param sla A tracked SLA
+	 * @param firstStep The first step of the period
+	 * @param lastStep The last step of the period
+	 * @return The number of fulfilled steps in [firstStep, lastStep]
+	 */
+	public long getFulfilledSteps(TimeBoundedSLA sla, long firstStep, long lastStep) {
+		if(lastStep < firstStep)
+			throw new IllegalArgumentException("The last step must not be before the first step");
+		Track track = slaTracks.get(sla);
+		if(track == null)
+			throw new IllegalArgumentException("The SLA " + sla + " is not tracked");
+		return track.getFulfilledSteps(firstStep, lastStep);
+	}
+
+	/**
+	 * Returns the total number of steps during which the tracked SLAs were fulfilled, from the start of the simulation up to each of the given steps.
+	 * This takes a single pass over the inspection history of every SLA, so the coverage of many consecutive parts of a period is found at once.
+	 * @param steps The steps up to and including which the fulfilled steps are counted, in increasing order
+	 * @return A new array with, for each of the given steps, the sum over all tracked SLAs of the number of fulfilled steps in [0, step]
+	 */
+	public long[] getFulfilledStepsUntil(long[] steps) {
+		checkIncreasing(steps);
+		boolean kept = Arrays.equals(steps, keptSteps);
+		long[] totals = kept ? keptTotals.clone() : new long[steps.length];
+		for(Track track : tracks)
+			track.addFulfilledStepsUntil(steps, kept ? track.nbKept : 0, totals);
+		return totals;
+	}
+
+	/**
+	 * Keeps the fulfilled steps up to the given steps for when the inspections before them are folded:
+	 * the totals over all tracked SLAs at every step, and the fulfilled steps of each SLA at the first and the last step.
+	 * {@link #getFulfilledStepsUntil(long[])} with the same steps and {@link #getFulfilledSteps(TimeBoundedSLA, long, long)}
+	 * from the step after the first to the last step then still work after folding.
+	 * The steps replace the ones that were kept before.
+	 * @param steps The steps to keep the fulfilled steps at, in increasing order
+	 * @throws IllegalStateException If inspections after the first step have already been folded
+	 */
+	public void keep(long[] steps) {
+		checkIncreasing(steps);
+		for(Track track : tracks)
+			if(steps.length > 0 && track.history.getNbDropped() > 0 && track.history.getLastDropped() > steps[0])
+				throw new IllegalStateException("Inspections up to step " + track.history.getLastDropped() + " have already been folded");
+		keptSteps = steps.clone();
+		keptTotals = new long[steps.length];
+		for(Track track : tracks)
+			track.nbKept = 0;
+	}
+
+	private void checkIncreasing(long[] steps) {
+		for(int i = 1; i < steps.length; i++)
+			if(steps[i] < steps[i-1])
+				throw new IllegalArgumentException("The steps must be in increasing order");
+	}
+
+	/**
+	 * Stops tracking all SLAs.
+	 */
+	public void clear() {
+		for(Track track : tracks)
+			track.history.removeListener(track);
+		tracks.clear();
+		slaTracks.clear();
+		events.clear();
+		currentStep = 0;
+		nbFulfilled = 0;
+		keptSteps = new long[0];
+		keptTotals = new long[0];
+	}
+
+	private void addEvents(Track track, long time) {
+		events.add(new Event(time + 1, true, track));
+		events.add(new Event(time + track.max + 1, false, track));
+	}
+
+	/**
+	 * Processes all events up to and including the given step.
+	 */
+	private void advanceTo(long step) {
+		while(!events.isEmpty() && events.peek().time <= step) {
+			Event event = events.poll();
+			Track track = event.track;
+			if(event.activation) {
+				track.deadline = Math.max(track.deadline, event.time - 1 + track.max);
+				if(!track.fulfilled) {
+					track.fulfilled = true;
+					nbFulfilled++;
+				}
+			} else if(track.fulfilled && track.deadline < event.time) {
+				track.fulfilled = false;
+				nbFulfilled--;
+			}
+		}
+		currentStep = Math.max(currentStep, step);
+	}
+
+	/**
+	 * A point in time at which an SLA becomes fulfilled (activation) or may stop being fulfilled.
+	 */
+	private static class Event {
+
+		private final long time;
+		private final boolean activation;
+		private final Track track;
+
+		private Event(long time, boolean activation, Track track) {
+			this.time = time;
+			this.activation = activation;
+			this.track = track;
+		}
+
+	}
+
+	/**
+	 * The coverage state of one SLA.
+	 */
+	private class Track implements InspectionHistory.Listener {
+
+		private final InspectionHistory history;
+		private final long max;
+		//The number of steps the SLA was fulfilled up to and including the time of each inspection in the history
+		private long[] fulfilledSteps = new long[4];
+		private int size = 0;
+		//The number of steps the SLA was fulfilled up to and including the time of the last folded inspection
+		private long foldedSteps = 0;
+		//The number of kept steps of which the fulfilled steps have been added to the kept totals, because the inspections up to them were folded
+		private int nbKept = 0;
+		//The fulfilled steps up to the first and the last kept step, once they have been added to the kept totals
+		private long keptFirst, keptLast;
+		//The last step at which the SLA is fulfilled, based on the inspections processed so far
+		private long deadline;
+		private boolean fulfilled = true;
+
+		private Track(InspectionHistory history, long max) {
+			this.history = history;
+			this.max = max;
+			this.deadline = max;
+			if(history.getNbDropped() > 0) {
+				if(history.getSummary() == null || history.getSummary().getWindow() != max)
+					throw new IllegalStateException("The inspections of the SLA have been folded with a different window");
+				foldedSteps = history.getSummary().getFulfilledSteps();
+			}
+			update();
+		}
+
+		@Override
+		public void inspectionsFolded(InspectionHistory history, int count) {
+			//The fulfilled steps up to the kept steps before the last folded inspection can no longer be computed once it is dropped
+			for(; nbKept < keptSteps.length && keptSteps[nbKept] <= history.get(count-1); nbKept++) {
+				long fulfilled = getFulfilledStepsUntil(keptSteps[nbKept]);
+				keptTotals[nbKept] += fulfilled;
+				if(nbKept == 0)
+					keptFirst = fulfilled;
+				if(nbKept == keptSteps.length-1)
+					keptLast = fulfilled;
+			}
+			foldedSteps = fulfilledSteps[count-1];
+			System.arraycopy(fulfilledSteps, count, fulfilledSteps, 0, size - count);
+			size -= count;
+		}
+
+		@Override
+		public void inspectionAdded(InspectionHistory history, long time) {
+			nbOfInspections++;
+			//Everything before the inspection is known now
+			advanceTo(time);
+			if(time < currentStep) {
+				//The steps up to the current one were processed already, so the SLA is fulfilled right away if it has not expired yet
+				deadline = Math.max(deadline, time + max);
+				if(!fulfilled && deadline >= currentStep) {
+					fulfilled = true;
+					nbFulfilled++;
+				}
+				if(time + max >= currentStep)
+					events.add(new Event(time + max + 1, false, this));
+			} else {
+				addEvents(this, time);
+			}
+			//An inspection inserted before others changes the fulfilled steps of all later ones
+			if(time < history.get(history.size()-1))
+				size = 0;
+			update();
+		}
+
+		/**
+		 * Computes the fulfilled steps of the inspections in the history that were not processed yet.
+		 */
+		private void update() {
+			if(fulfilledSteps.length < history.size())
+				fulfilledSteps = Arrays.copyOf(fulfilledSteps, Math.max(history.size(), fulfilledSteps.length * 2));
+			for(; size < history.size(); size++)
+				fulfilledSteps[size] = getFulfilledSteps(size);
+		}
+
+		/**
+		 * Computes the number of steps the SLA was fulfilled up to and including the i-th inspection, from the value at the previous inspection.
+		 */
+		private long getFulfilledSteps(int i) {
+			long time = history.get(i);
+			if(i == 0)
+				return getFulfilledStepsBeforeHistory(time);
+			return fulfilledSteps[i-1] + Math.min(time - history.get(i-1), max);
+		}
+
+		/**
+		 * @return The number of steps in [0, step] during which the SLA was fulfilled, for a step before the first inspection in the history
+		 */
+		private long getFulfilledStepsBeforeHistory(long step) {
+			if(history.getNbDropped() == 0)
+				return Math.min(step, max) + 1;
+			return foldedSteps + Math.min(step - history.getLastDropped(), max);
+		}
+
+		/**
+		 * @return The number of steps in [0, step] during which the SLA was fulfilled
+		 */
+		private long getFulfilledStepsUntil(long step) {
+			if(step < 0)
+				return 0;
+			if(nbKept > 0 && step == keptSteps[0])
+				return keptFirst;
+			if(nbKept > 0 && nbKept == keptSteps.length && step == keptSteps[nbKept-1])
+				return keptLast;
+			return getFulfilledStepsUntil(step, history.countBefore(step + 1));
+		}
+
+		/**
+		 * @param k The number of inspections in the history at or before the step
+		 * @return The number of steps in [0, step] during which the SLA was fulfilled
+		 */
+		private long getFulfilledStepsUntil(long step, int k) {
+			if(k == 0)
+				return getFulfilledStepsBeforeHistory(step);
+			return fulfilledSteps[k-1] + Math.min(step - history.get(k-1), max);
+		}
+
+		private long getFulfilledSteps(long firstStep, long lastStep) {
+			return getFulfilledStepsUntil(lastStep) - getFulfilledStepsUntil(firstStep - 1);
+		}
+
+		/**
+		 * Adds the number of fulfilled steps up to each of the given increasing steps to the totals, in one pass over the history.
+		 * @param from The index of the first step to add, the ones before are already in the totals
+		 */
+		private void addFulfilledStepsUntil(long[] steps, int from, long[] totals) {
+			int k = 0;
+			for(int i = from; i < steps.length; i++) {
+				if(steps[i] < 0)
+					continue;
+				if(k == 0 && history.getNbDropped() > 0 && steps[i] < history.getLastDropped())
+					throw new IllegalStateException("The inspections before step " + steps[i] + " have been folded up to step " + history.getLastDropped());
+				while(k < history.size() && history.get(k) <= steps[i])
+					k++;
+				totals[i] += getFulfilledStepsUntil(steps[i], k);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,167 @@
+package sla.report;
+
+import java.util.Arrays;
+
+/**
+ * The times it took to fulfil the inspection requests of a simulation, with their statistics computed once.
+ * The quartiles are computed the same way as in the box-and-whisker charts: the first quartile is the median of the lower half
+ * and the third quartile the median of the upper half, where both halves contain the middle element if the number of times is odd.
+ * The report does not change when the simulation continues.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class ResponseTimeReport {
+
+	private final long[] responseTimes;
+	private final double mean;
+
+	/**
+	 * Constructs a report of the given response times.
+	 * @param responseTimes The response times, which are copied
+	 */
+	public ResponseTimeReport(long[] responseTimes) {
+		this.responseTimes = responseTimes.clone();
+		Arrays.sort(this.responseTimes);
+		long sum = 0;
+		for(long responseTime : this.responseTimes)
+			sum += responseTime;
+		mean = this.responseTimes.length == 0 ? 0 : (double) sum / this.responseTimes.length;
+	}
+
+	/**
+	 * @return A new array with all response times, sorted
+	 */
+	public long[] getResponseTimes() {
+		return responseTimes.clone();
+	}
+
+	/**
+	 * @param i The position of a response time in the sorted response times
+	 * @return The i-th shortest response time
+	 */
+	public long get(int i) {
+		return responseTimes[i];
+	}
+
+	/**
+	 * @param time A number of steps
+	 * @return The number of response times strictly shorter than the given time, which is also the position of the first time that is not
+	 */
+	public int countBelow(double time) {
+		int low = 0, high = responseTimes.length;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(responseTimes[mid] < time)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * @param time A number of steps
+	 * @return The number of response times that are at most the given time, which is also the position of the first longer time
+	 */
+	public int countAtMost(double time) {
+		int low = 0, high = responseTimes.length;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(responseTimes[mid] <= time)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * @return The number of requests that were fulfilled
+	 */
+	public int size() {
+		return responseTimes.length;
+	}
+
+	public boolean isEmpty() {
+		return responseTimes.length == 0;
+	}
+
+	/**
+	 * @return The average response time, or 0 if there are no response times
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * @return The shortest response time, or 0 if there are no response times
+	 */
+	public long getMin() {
+		return isEmpty() ? 0 : responseTimes[0];
+	}
+
+	/**
+	 * @return The longest response time, or 0 if there are no response times
+	 */
+	public long getMax() {
+		return isEmpty() ? 0 : responseTimes[responseTimes.length-1];
+	}
+
+	/**
+	 * @return The median response time, or NaN if there are no response times
+	 */
+	public double getMedian() {
+		return median(0, responseTimes.length-1);
+	}
+
+	/**
+	 * @return The median of the lower half of the response times, or NaN if there are no response times
+	 */
+	public double getFirstQuartile() {
+		int n = responseTimes.length;
+		return median(0, n % 2 == 1 ? n/2 : n/2 - 1);
+	}
+
+	/**
+	 * @return The median of the upper half of the response times, or NaN if there are no response times
+	 */
+	public double getThirdQuartile() {
+		int n = responseTimes.length;
+		return median(n/2, n-1);
+	}
+
+	/**
+	 * Returns the smallest response time such that at least the given fraction of the response times is at most that time.
+	 * @param fraction A number between 0 and 1 inclusive
+	 * @return The quantile of the response times, or 0 if there are no response times
+	 */
+	public long getQuantile(double fraction) {
+		if(fraction < 0 || fraction > 1)
+			throw new IllegalArgumentException("The fraction must be between 0 and 1 inclusive");
+		if(isEmpty())
+			return 0;
+		int i = (int) Math.ceil(fraction * responseTimes.length) - 1;
+		return responseTimes[Math.max(0, i)];
+	}
+
+	/**
+	 * @param goal The number of steps in which a request should be fulfilled
+	 * @return The percentage of requests that were fulfilled within the given number of steps, or 100 if there are no response times
+	 */
+	public double getPercentageWithin(long goal) {
+		if(isEmpty())
+			return 100;
+		return countAtMost(goal) * 100.0 / responseTimes.length;
+	}
+
+	private double median(int first, int last) {
+		int count = last - first + 1;
+		if(count <= 0)
+			return Double.NaN;
+		if(count % 2 == 1)
+			return responseTimes[first + count/2];
+		return (responseTimes[first + count/2 - 1] + responseTimes[first + count/2]) / 2.0;
+	}
+
+}
@@ -2,7 +2,6 @@ package sla.report;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import simulation.UAVNetworkSimulation;
@@ -24,6 +23,13 @@ public class SLAManager {
 	private List<TimeBoundedSLA> timeSLAs = new ArrayList<TimeBoundedSLA>();
 	private ResponseTimeSLA responseTimeSLA;
 	private FlightTimeSLA flightTimeSLA = new FlightTimeSLA();
+	private CoverageTracker coverage = new CoverageTracker();
+	//The last report and the number of inspections when it was made
+	private SLAReport report;
+	private long reportInspections;
+	//The last response time report and the number of schedule steps when it was made
+	private ResponseTimeReport responseTimeReport;
+	private long responseTimeReportSteps;
 	
 	
 	public SLAManager(UAVNetworkSimulation sim) {
@@ -39,21 +45,43 @@ public class SLAManager {
 		flightTimeSLA.setInspectionDaysPerMonth(inspectionDaysPerMonth);
 		flightTimeSLA.setInspectionMinutesPerDay(inspectionMinutesPerDay);
 	}
+	
+	public FlightTimeSLA getFlightTimeSLA() {
+		return flightTimeSLA;
+	}
 
 	public void setResponseTimeSLA(long goal) {
 		responseTimeSLA = new ResponseTimeSLA(goal);
+		responseTimeReport = null;
 	}
 	
-	public List<Long> getResponseTimes() {
+	/**
+	 * Returns the report of the response times of the inspection requests in the network of the simulation.
+	 * The report is kept until the schedule of the simulation steps again, 
+	 * so the averages and boxplots of the same run share one computation.
+	 * @return The report of the response times
+	 */
+	public ResponseTimeReport getResponseTimeReport() {
 		if(responseTimeSLA == null)
 			throw new IllegalStateException("No response time SLA has been set");
-		return responseTimeSLA.getInspectionResponseTimes(sim.network);
+		long steps = sim.schedule.getSteps();
+		if(responseTimeReport == null || responseTimeReportSteps != steps) {
+			responseTimeReport = new ResponseTimeReport(responseTimeSLA.getResponseTimes(sim.network));
+			responseTimeReportSteps = steps;
+		}
+		return responseTimeReport;
+	}
+	
+	public List<Long> getResponseTimes() {
+		long[] responseTimes = getResponseTimeReport().getResponseTimes();
+		List<Long> list = new ArrayList<Long>(responseTimes.length);
+		for(long responseTime : responseTimes)
+			list.add(responseTime);
+		return list;
 	}
 	
 	public double getAverageResponseTime() {
-		if(responseTimeSLA == null)
-			throw new IllegalStateException("No response time SLA has been set");
-		return responseTimeSLA.getAverageResponseTime(sim.network);
+		return getResponseTimeReport().getMean();
 	}
 
 	public long getResponseTimeGoal() {
@@ -64,6 +92,16 @@ public class SLAManager {
 	
 	public void addInspectionSLA(TimeBoundedSLA sla) {
 		timeSLAs.add(sla);
+		coverage.track(sla);
+		report = null;
+	}
+	
+	/**
+	 * Returns the tracker that keeps the coverage of the SLAs up to date while the simulation runs.
+	 * @return The coverage tracker of this manager
+	 */
+	public CoverageTracker getCoverageTracker() {
+		return coverage;
 	}
 	
 	public List<TimeBoundedSLA> getInspectionSLAs() {
@@ -74,48 +112,62 @@ public class SLAManager {
 		return nbDataPoints;
 	}
 	
+	/**
+	 * Returns the report of the coverage of the SLAs in this manager during the given period.
+	 * The report is computed in a single pass over the SLAs and kept until the SLAs change or another inspection happens,
+	 * so asking several numbers about the same period does not compute them again.
+	 * @param firstStep The first step at which the coverage of the SLAs must be checked
+	 * @param lastStep The last step at which the coverage of the SLAs must be checked
+	 * @return The report of the SLAs during the given period
+	 */
+	public SLAReport getReport(long firstStep, long lastStep) {
+		//Without the tracker, changes to the SLAs are not noticed, so the report cannot be kept
+		boolean tracked = !timeSLAs.isEmpty() && coverage.size() == timeSLAs.size();
+		if(tracked && report != null && report.getFirstStep() == firstStep && report.getLastStep() == lastStep 
+				&& reportInspections == coverage.getNbOfInspections())
+			return report;
+		SLAReport report = new SLAReport(timeSLAs, coverage, firstStep, lastStep, nbDataPoints);
+		if(tracked) {
+			this.report = report;
+			reportInspections = coverage.getNbOfInspections();
+		}
+		return report;
+	}
+	
+	/**
+	 * Keeps what the report of the given period needs when old inspections are folded out of the inspection histories of the SLAs,
+	 * so the report can still be made at the end of a run with an inspection retention shorter than the period.
+	 * This must be called after the SLAs have been added and before any inspection in the period is folded.
+	 * @param firstStep The first step of the period that will be reported on
+	 * @param lastStep The last step of the period that will be reported on
+	 */
+	public void keepReport(long firstStep, long lastStep) {
+		coverage.keep(SLAReport.getPartEnds(firstStep, lastStep, nbDataPoints));
+	}
+	
 	/**
 	 * Returns an array of doubles where each double is a number between 0 and 1 that represents how many of the SLAs managed by this class where fulfilled at that time.
 	 * A different element in the array represents a different time at which the average coverage of the SLAs was checked.
+	 * The period is divided into about as many parts as there are data points and each element is the exact average over all steps of its part,
+	 * where the last part also contains the steps that are left at the end of the period.
 	 * @param firstStep The first step at which the coverage of the SLAs must be checked
 	 * @param lastStep The last step at which the coverage of the SLAs must be checked
 	 * @return An array of doubles representing the global coverages of the SLAs on different steps in the interval specified by the given steps.
 	 */
 	public double[] getTimeData(long firstStep, long lastStep) {
-		long stepSize = (lastStep-firstStep) / nbDataPoints;
-		if(stepSize == 0)
-			stepSize = 1;
-		int size = ((lastStep-firstStep+1)/stepSize) > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) ((lastStep-firstStep+1)/stepSize);
-		double[] pfd = new double[size];
-		for(TimeBoundedSLA sla : timeSLAs)
-			for(int i = 0; i < size; i++) {
-				if(sla.isFulfilled((i*stepSize)+firstStep))
-					pfd[i]++;
-			}
-		for(int i = 0; i < size; i++)
-			pfd[i] = pfd[i]/timeSLAs.size();
+		double[] pfd = getTimeComplianceData(firstStep, lastStep);
+		for(int i = 0; i < pfd.length; i++)
+			pfd[i] /= 100;
 		return pfd;
 	}
 	
 	/**
 	 * Returns an array of doubles where each double is a number between 0 and 100 that represents the percentage of the SLAs managed by this class where fulfilled at that time.
 	 * A different element in the array represents a different time at which the average coverage of the SLAs was checked.
-	 * @see SLAManager.getFulfilledData() for more details. The values in the array will be the same, except they are multiplied by 100.
+	 * @see SLAManager.getTimeData() for more details. The values in the array will be the same, except they are multiplied by 100.
 	 */
 	public double[] getTimeComplianceData(long firstStep, long lastStep) {
-		long stepSize = (lastStep-firstStep) / nbDataPoints;
-		if(stepSize == 0)
-			stepSize = 1;
-		int size = ((lastStep-firstStep+1)/stepSize) > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) ((lastStep-firstStep+1)/stepSize);
-		double[] pfd = new double[size];
-		for(TimeBoundedSLA sla : timeSLAs)
-			for(int i = 0; i < size; i++) {
-				if(sla.isFulfilled((i*stepSize)+firstStep))
-					pfd[i]++;
-			}
-		for(int i = 0; i < size; i++)
-			pfd[i] = pfd[i]/timeSLAs.size()*100;
-		return pfd;
+		return getReport(firstStep, lastStep).getTimeComplianceData();
 	}	
 	
 	/**
@@ -123,23 +175,10 @@ public class SLAManager {
 	 * A different element in the array represents a different SLA.
 	 * @param firstStep The first step at which the coverage of the SLAs must be checked
 	 * @param lastStep The last step at which the coverage of the SLAs must be checked
-	 * @return An array of doubles representing the coverages of the different SLAs.
+	 * @return An array of doubles representing the exact coverages of the different SLAs.
 	 */
 	public double[] getSLAComplianceData(long firstStep, long lastStep) {
-		long stepSize = (lastStep-firstStep) / nbDataPoints;
-		if(stepSize == 0)
-			stepSize = 1;
-		int size = ((lastStep-firstStep+1)/stepSize) > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) ((lastStep-firstStep+1)/stepSize);
-		double[] pfd = new double[timeSLAs.size()];
-		for(int sla = 0; sla < timeSLAs.size(); sla++) {
-			long percentage = 0;
-			for(int i = 0; i < size; i++) {
-				if(timeSLAs.get(sla).isFulfilled((i*stepSize)+firstStep))
-					percentage++;
-			}
-			pfd[sla] = percentage * 100.0 / size;
-		}
-		return pfd;
+		return getReport(firstStep, lastStep).getSLAComplianceData();
 	}
 	
 	/**
@@ -149,14 +188,7 @@ public class SLAManager {
 	 * @return The variance of the global coverages in the specified period of time
 	 */
 	public double getTimeVariance(long firstStep, long lastStep) {
-		double mean = percentageFulfilledBetween(firstStep, lastStep);
-		double globalVariance = 0;
-		double[] pfd = getTimeComplianceData(firstStep, lastStep);
-		for (int i = 0; i < pfd.length; i++) {
-			globalVariance += Math.pow(mean - pfd[i], 2);
-		}
-		globalVariance /= pfd.length;
-		return globalVariance;
+		return getReport(firstStep, lastStep).getTimeVariance();
 	}
 	
 	/**
@@ -167,7 +199,7 @@ public class SLAManager {
 	 * @return The standard deviation of the global coverages in the specified period of time
 	 */
 	public double getTimeStandardDeviation(long firstStep, long lastStep) {
-		return Math.sqrt(getTimeVariance(firstStep, lastStep));
+		return getReport(firstStep, lastStep).getTimeStandardDeviation();
 	}
 	
 	/**
@@ -178,14 +210,7 @@ public class SLAManager {
 	 * @return The variance of the SLA coverages in the specified period of time
 	 */
 	public double getSLAVariance(long firstStep, long lastStep) {
-		double mean = percentageFulfilledBetween(firstStep, lastStep);
-		double slaVariance = 0;
-		double[] pfd = getSLAComplianceData(firstStep, lastStep);
-		for (int i = 0; i < pfd.length; i++) {
-			slaVariance += Math.pow(mean - pfd[i], 2);
-		}
-		slaVariance /= pfd.length;
-		return slaVariance;
+		return getReport(firstStep, lastStep).getSLAVariance();
 	}
 	
 	/**
@@ -196,7 +221,7 @@ public class SLAManager {
 	 * @return The standard deviation of the SLA coverages in the specified period of time
 	 */
 	public double getSLAStandardDeviation(long firstStep, long lastStep) {
-		return Math.sqrt(getSLAVariance(firstStep, lastStep));
+		return getReport(firstStep, lastStep).getSLAStandardDeviation();
 	}
 
 	/**
@@ -205,6 +230,8 @@ public class SLAManager {
 	 * @return A number between 0 and 100 inclusive representing the number of SLAs that are fulfilled at the given step.
 	 */
 	public double percentageFulfilledAt(long step) {
+		if(!timeSLAs.isEmpty() && coverage.size() == timeSLAs.size())
+			return coverage.percentageFulfilledAt(step);
 		double percent = 0;
 		for(TimeBoundedSLA sla : timeSLAs) 
 			if(sla.isFulfilled(step))
@@ -215,18 +242,12 @@ public class SLAManager {
 	
 	/**
 	 * Returns the average percentage of SLAs that were fulfilled during the period specified by the arguments.
-	 * This number is calculated by taking the average over the different percentages during the specified period.
+	 * This number is calculated by taking the average over all steps of the period.
 	 * @param step The step to check the SLAs at
 	 * @return A number between 0 and 100 inclusive representing the average coverage of SLAs during the specified period.
 	 */
 	public double percentageFulfilledBetween(long firstStep, long lastStep) {
-		double[] pfd = getTimeComplianceData(firstStep, lastStep);
-		
-		double percent = 0;
-		for(int i = 0; i < pfd.length; i++) {
-			percent += pfd[i];
-		}
-		return percent / pfd.length;
+		return getReport(firstStep, lastStep).getAverageCoverage();
 	}
 	
 	/**
@@ -236,14 +257,7 @@ public class SLAManager {
 	 * @return The lowest of any average SLA coverages during the period specified by the arguments.
 	 */
 	public double lowestPercentage(long firstStep, long lastStep) {
-		double min = Double.MAX_VALUE;
-		long stepSize = (lastStep-firstStep) / nbDataPoints;
-		for(TimeBoundedSLA sla : timeSLAs) {
-			if(sla.getPercentage(firstStep, lastStep, stepSize) < min) {
-				min = sla.getPercentage(firstStep, lastStep, stepSize);
-			}
-		}
-		return min;
+		return getReport(firstStep, lastStep).getLowestCoverage();
 	}
 	
 	/**
@@ -254,7 +268,7 @@ public class SLAManager {
 	 * @return True if all SLAs in this manager reach the specified coverage during the specified period, False otherwise.
 	 */
 	public boolean allSLAsAbove(double percentage, long firstStep, long lastStep) {
-		return lowestPercentage(firstStep, lastStep) >= percentage;
+		return getReport(firstStep, lastStep).allSLAsAbove(percentage);
 	}
 
 	/**
@@ -265,7 +279,7 @@ public class SLAManager {
 	 * @return True if the average coverage of all SLAs in this manager is above the specified coverage during the specified period, False otherwise.
 	 */
 	public boolean coverageAbove(double minCoverage, long firstStep, long lastStep) {
-		return percentageFulfilledBetween(firstStep, lastStep) >= minCoverage;
+		return getReport(firstStep, lastStep).coverageAbove(minCoverage);
 	}
 	
 	/**
@@ -279,7 +293,7 @@ public class SLAManager {
 	 *  		all SLAs in this manager reach the specified coverage during the specified period, False otherwise.
 	 */
 	public boolean SLAsFulfilled(double minCoverage, double minSLACoverage, long firstStep, long lastStep) {
-		return coverageAbove(minCoverage, firstStep, lastStep) && allSLAsAbove(minSLACoverage, firstStep, lastStep);
+		return getReport(firstStep, lastStep).SLAsFulfilled(minCoverage, minSLACoverage);
 	}
 	
 	/**
@@ -289,17 +303,7 @@ public class SLAManager {
 	 * @return A list of all SLAs in this manager, sorted by average coverage during the specified period of time.
 	 */
 	public List<TimeBoundedSLA> getSortedSLAs(final long firstStep, final long lastStep) {
-		final long stepSize = (lastStep-firstStep) / nbDataPoints;
-		timeSLAs.sort(new Comparator<TimeBoundedSLA>() {
-
-			@Override
-			public int compare(TimeBoundedSLA sla1, TimeBoundedSLA sla2) {
-				if(sla1.getPercentage(firstStep, lastStep, stepSize) == sla2.getPercentage(firstStep, lastStep, stepSize))
-					return 0;
-				return sla1.getPercentage(firstStep, lastStep, stepSize) > sla2.getPercentage(firstStep, lastStep, stepSize) ? 1 : -1;
-			}
-		});
-		return getInspectionSLAs();
+		return getReport(firstStep, lastStep).getSortedSLAs();
 	}
 	
 	/**
@@ -307,7 +311,10 @@ public class SLAManager {
 	 */
 	public void clear() {
 		timeSLAs.clear();
+		coverage.clear();
+		report = null;
 		responseTimeSLA = null;
+		responseTimeReport = null;
 	}
 	
 }
@@ -0,0 +1,256 @@
+package sla.report;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import sla.TimeBoundedSLA;
+
+/**
+ * The coverage of a set of SLAs during a period, computed once in a single pass over the periods in which each SLA was fulfilled.
+ * SLAs of which the coverage is tracked while the simulation runs are read from the {@link CoverageTracker} instead,
+ * which knows the fulfilled steps up to any step from its running totals.
+ * The report contains the coverage over time, the coverage of every SLA, the average and lowest coverage,
+ * the variances of both coverages and the SLAs sorted by coverage, so none of these have to be computed again.
+ * The report does not change when the SLAs change afterwards.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class SLAReport {
+
+	private final long firstStep, lastStep, stepSize;
+	private final double[] timeCompliance, slaCompliance;
+	private final double mean, lowest, timeVariance, slaVariance;
+	private final List<TimeBoundedSLA> sortedSLAs;
+
+	/**
+	 * Computes the report of the given SLAs during the given period.
+	 * @param slas The SLAs to report on
+	 * @param tracker The tracker of the SLAs, which must not track any other SLAs, or null to compute the coverage of every SLA from its fulfilled intervals
+	 * @param firstStep The first step of the period
+	 * @param lastStep The last step of the period
+	 * @param nbDataPoints The number of parts the period is divided into for the coverage over time
+	 */
+	public SLAReport(List<TimeBoundedSLA> slas, CoverageTracker tracker, long firstStep, long lastStep, int nbDataPoints) {
+		if(lastStep < firstStep)
+			throw new IllegalArgumentException("The last step must not be before the first step");
+		this.firstStep = firstStep;
+		this.lastStep = lastStep;
+		this.stepSize = getStepSize(firstStep, lastStep, nbDataPoints);
+		int size = getNbOfParts(firstStep, lastStep, stepSize);
+		timeCompliance = new double[size];
+		slaCompliance = new double[slas.size()];
+		//The number of SLAs that are fulfilled during the whole part, as the difference with the previous part
+		long[] fullParts = new long[size+1];
+		Welford slaStatistics = new Welford();
+		double lowest = Double.MAX_VALUE;
+		int nbTracked = 0;
+		for(int s = 0; s < slas.size(); s++) {
+			if(tracker != null && tracker.isTracked(slas.get(s))) {
+				slaCompliance[s] = tracker.getFulfilledSteps(slas.get(s), firstStep, lastStep) * 100.0 / (lastStep - firstStep + 1);
+				slaStatistics.add(slaCompliance[s]);
+				lowest = Math.min(lowest, slaCompliance[s]);
+				nbTracked++;
+				continue;
+			}
+			long[] intervals = slas.get(s).getFulfilledIntervals(firstStep, lastStep);
+			long fulfilled = 0;
+			for(int i = 0; i < intervals.length; i += 2) {
+				fulfilled += intervals[i+1] - intervals[i] + 1;
+				int first = (int) Math.min((intervals[i]-firstStep)/stepSize, size-1),
+						last = (int) Math.min((intervals[i+1]-firstStep)/stepSize, size-1);
+				if(first == last) {
+					timeCompliance[first] += intervals[i+1] - intervals[i] + 1;
+				} else {
+					timeCompliance[first] += firstStep + (first+1)*stepSize - intervals[i];
+					timeCompliance[last] += intervals[i+1] - (firstStep + last*stepSize) + 1;
+					fullParts[first+1]++;
+					fullParts[last]--;
+				}
+			}
+			slaCompliance[s] = fulfilled * 100.0 / (lastStep - firstStep + 1);
+			slaStatistics.add(slaCompliance[s]);
+			lowest = Math.min(lowest, slaCompliance[s]);
+		}
+		if(tracker != null && nbTracked != tracker.size())
+			throw new IllegalArgumentException("The tracker tracks SLAs that are not in the report");
+		//The fulfilled steps of the tracked SLAs up to the end of each part, where the first element is the step before the period
+		long[] tracked = null;
+		if(nbTracked > 0)
+			tracked = tracker.getFulfilledStepsUntil(getPartEnds(firstStep, lastStep, nbDataPoints));
+		Welford timeStatistics = new Welford();
+		long fulfilled = 0;
+		for(int i = 0; i < size; i++) {
+			long length = i == size-1 ? lastStep - (firstStep + i*stepSize) + 1 : stepSize;
+			fulfilled += fullParts[i];
+			if(tracked != null)
+				timeCompliance[i] += tracked[i+1] - tracked[i];
+			timeCompliance[i] = (timeCompliance[i] + fulfilled*length) / length / slas.size() * 100;
+			timeStatistics.add(timeCompliance[i]);
+		}
+		this.mean = slaStatistics.mean;
+		this.lowest = lowest;
+		this.slaVariance = slaStatistics.getVariance();
+		this.timeVariance = timeStatistics.getVariance();
+
+		final double[] compliance = slaCompliance;
+		List<Integer> order = new ArrayList<Integer>(slas.size());
+		for(int s = 0; s < slas.size(); s++)
+			order.add(s);
+		order.sort(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer s1, Integer s2) {
+				return Double.compare(compliance[s1], compliance[s2]);
+			}
+		});
+		List<TimeBoundedSLA> sorted = new ArrayList<TimeBoundedSLA>(slas.size());
+		for(int s : order)
+			sorted.add(slas.get(s));
+		sortedSLAs = Collections.unmodifiableList(sorted);
+	}
+
+	private static long getStepSize(long firstStep, long lastStep, int nbDataPoints) {
+		long stepSize = (lastStep-firstStep) / nbDataPoints;
+		return stepSize == 0 ? 1 : stepSize;
+	}
+
+	private static int getNbOfParts(long firstStep, long lastStep, long stepSize) {
+		return ((lastStep-firstStep+1)/stepSize) > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) ((lastStep-firstStep+1)/stepSize);
+	}
+
+	/**
+	 * Returns the last step of every part of the coverage over time of a report on the given period, preceded by the step before the period.
+	 * @param firstStep The first step of the period
+	 * @param lastStep The last step of the period
+	 * @param nbDataPoints The number of parts the period is divided into
+	 * @return A new array with the step before the period followed by the last step of each part, in increasing order
+	 */
+	static long[] getPartEnds(long firstStep, long lastStep, int nbDataPoints) {
+		if(lastStep < firstStep)
+			throw new IllegalArgumentException("The last step must not be before the first step");
+		long stepSize = getStepSize(firstStep, lastStep, nbDataPoints);
+		int size = getNbOfParts(firstStep, lastStep, stepSize);
+		long[] ends = new long[size+1];
+		for(int i = 0; i < size; i++)
+			ends[i] = firstStep + i*stepSize - 1;
+		ends[size] = lastStep;
+		return ends;
+	}
+
+	public long getFirstStep() {
+		return firstStep;
+	}
+
+	public long getLastStep() {
+		return lastStep;
+	}
+
+	/**
+	 * @return The number of steps in each part of the coverage over time, except the last one which also contains the steps that are left
+	 */
+	public long getStepSize() {
+		return stepSize;
+	}
+
+	/**
+	 * Returns the percentage of SLAs that were fulfilled over time.
+	 * The period is divided into parts of the step size and each element is the exact average over all steps of its part.
+	 * @return A new array with the coverage over time, with numbers between 0 and 100
+	 */
+	public double[] getTimeComplianceData() {
+		return timeCompliance.clone();
+	}
+
+	/**
+	 * @return A new array with the coverage of every SLA during the period, in the order in which the SLAs were given, with numbers between 0 and 100
+	 */
+	public double[] getSLAComplianceData() {
+		return slaCompliance.clone();
+	}
+
+	/**
+	 * @return The average coverage of the SLAs during the period, between 0 and 100
+	 */
+	public double getAverageCoverage() {
+		return mean;
+	}
+
+	/**
+	 * @return The lowest coverage of any SLA during the period, or Double.MAX_VALUE if there are no SLAs
+	 */
+	public double getLowestCoverage() {
+		return lowest;
+	}
+
+	public double getTimeVariance() {
+		return timeVariance;
+	}
+
+	public double getTimeStandardDeviation() {
+		return Math.sqrt(timeVariance);
+	}
+
+	public double getSLAVariance() {
+		return slaVariance;
+	}
+
+	public double getSLAStandardDeviation() {
+		return Math.sqrt(slaVariance);
+	}
+
+	/**
+	 * @return The SLAs sorted by their coverage during the period, from lowest to highest
+	 */
+	public List<TimeBoundedSLA> getSortedSLAs() {
+		return sortedSLAs;
+	}
+
+	/**
+	 * @param percentage The percentage of coverage all SLAs should reach
+	 * @return True if every SLA reached the given coverage during the period, False otherwise
+	 */
+	public boolean allSLAsAbove(double percentage) {
+		return lowest >= percentage;
+	}
+
+	/**
+	 * @param minCoverage The minimum coverage the average should reach
+	 * @return True if the average coverage during the period reached the given coverage, False otherwise
+	 */
+	public boolean coverageAbove(double minCoverage) {
+		return mean >= minCoverage;
+	}
+
+	/**
+	 * @param minCoverage The minimum coverage the average should reach
+	 * @param minSLACoverage The percentage of coverage all SLAs should reach
+	 * @return True if both the average coverage and the coverage of every SLA reached the given coverages, False otherwise
+	 */
+	public boolean SLAsFulfilled(double minCoverage, double minSLACoverage) {
+		return coverageAbove(minCoverage) && allSLAsAbove(minSLACoverage);
+	}
+
+	/**
+	 * Keeps the mean and variance of a series of values in a single pass, with Welford's numerically stable method.
+	 */
+	private static class Welford {
+
+		private long n = 0;
+		private double mean = 0, m2 = 0;
+
+		private void add(double value) {
+			n++;
+			double delta = value - mean;
+			mean += delta / n;
+			m2 += delta * (value - mean);
+		}
+
+		private double getVariance() {
+			return n == 0 ? 0 : m2 / n;
+		}
+
+	}
+
+}
@@ -3,7 +3,9 @@ package sla.report;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.jfree.chart.ChartFactory;
@@ -14,6 +16,7 @@ import org.jfree.chart.plot.CategoryPlot;
 import org.jfree.chart.plot.Marker;
 import org.jfree.chart.plot.ValueMarker;
 import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.statistics.BoxAndWhiskerItem;
 import org.jfree.data.statistics.DefaultBoxAndWhiskerCategoryDataset;
 import org.jfree.ui.RectangleAnchor;
 import org.jfree.ui.RectangleInsets;
@@ -46,8 +49,18 @@ public class SLAReporter {
 	 * @param strategy A string representing the navigation strategy that was used during the simulation
 	 */
 	public void addToDatasets(int nbOfUAVs, String strategy) {
-		avgResponseTimesDS.addValue(manager.getAverageResponseTime(), strategy,
-				nbOfUAVs + "");
+		addToDatasets(nbOfUAVs, strategy, manager.getAverageResponseTime());
+	}
+	
+	/**
+	 * Adds the given average response time to a dataset with the given nb of UAVs and strategy, so that graphs can be generated later on.
+	 * Can be used to add the results of simulations that ran with a different SLA manager.
+	 * @param nbOfUAVs The number of UAVs that was used during the simulation
+	 * @param strategy A string representing the navigation strategy that was used during the simulation
+	 * @param averageResponseTime The average response time of the simulation
+	 */
+	public synchronized void addToDatasets(int nbOfUAVs, String strategy, double averageResponseTime) {
+		avgResponseTimesDS.addValue(averageResponseTime, strategy, nbOfUAVs + "");
 	}
 	
 	/**
@@ -59,15 +72,43 @@ public class SLAReporter {
 	 * @param lastStep The last step of which data should be added to the datasets
 	 */
 	public void addToBoxDatasets(int nbOfUAVs, String strategy, long firstStep, long lastStep) {
-		boxDS.add(manager.getResponseTimes(), strategy, nbOfUAVs + "");
+		boxDS.add(createBoxAndWhiskerItem(manager.getResponseTimeReport()), strategy, nbOfUAVs + "");
+		SLAReport report = manager.getReport(firstStep, lastStep);
 		slaBoxDS.add(
-				Arrays.stream(manager.getSLAComplianceData(firstStep, lastStep)).boxed().collect(Collectors.toList()),
+				Arrays.stream(report.getSLAComplianceData()).boxed().collect(Collectors.toList()),
 				strategy, "SLA Coverages");
 		slaBoxDS.add(
-				Arrays.stream(manager.getTimeComplianceData(firstStep, lastStep)).boxed().collect(Collectors.toList()),
+				Arrays.stream(report.getTimeComplianceData()).boxed().collect(Collectors.toList()),
 				strategy, "Coverage over time");
 	}
 
+	/**
+	 * Creates the box and whisker of the given response times from the statistics in the report, 
+	 * the same way JFreeChart's BoxAndWhiskerCalculator would from the list of all response times.
+	 * Values more than 1.5 times the interquartile range outside the box are outliers, 
+	 * the most extreme outliers within twice that range end the outer whiskers.
+	 * The response times are sorted, so the bounds are found with binary searches and only the outliers are boxed.
+	 */
+	static BoxAndWhiskerItem createBoxAndWhiskerItem(ResponseTimeReport report) {
+		if(report.isEmpty())
+			return new BoxAndWhiskerItem(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 
+					Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, new ArrayList<Long>());
+		double q1 = report.getFirstQuartile(), q3 = report.getThirdQuartile(), range = q3 - q1;
+		//The regular values are from position firstRegular up to lastRegular, the outliers are before and after them
+		int firstRegular = report.countBelow(q1 - range * 1.5), lastRegular = report.countAtMost(q3 + range * 1.5) - 1;
+		double minRegular = report.get(firstRegular), maxRegular = report.get(lastRegular);
+		int firstNear = report.countBelow(q1 - range * 2), lastNear = report.countAtMost(q3 + range * 2) - 1;
+		double minOutlier = firstNear < firstRegular ? report.get(firstNear) : minRegular,
+				maxOutlier = lastNear > lastRegular ? report.get(lastNear) : maxRegular;
+		List<Long> outliers = new ArrayList<Long>();
+		for(int i = 0; i < firstRegular; i++)
+			outliers.add(report.get(i));
+		for(int i = lastRegular + 1; i < report.size(); i++)
+			outliers.add(report.get(i));
+		return new BoxAndWhiskerItem(report.getMean(), report.getMedian(), q1, q3, minRegular, maxRegular,
+				minOutlier, maxOutlier, outliers);
+	}
+
 	/**
 	 * Returns an object representing a boxplot graph of the response times.
 	 * @return An object representing a boxplot graph of the response times.
@@ -137,7 +178,7 @@ public class SLAReporter {
 	public JFreeChart getResponseTimeGraph() {
 		DefaultCategoryDataset responseTimeDS = new DefaultCategoryDataset();
 		int i = 1;
-		for (Long l : manager.getResponseTimes()) {
+		for (long l : manager.getResponseTimeReport().getResponseTimes()) {
 			responseTimeDS.addValue(l, (i++) + "", "");
 		}
 		JFreeChart chart = ChartFactory.createBarChart("Response times",
@@ -0,0 +1,198 @@
+package uav;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid of square cells as large as the broadcast radius, in which every UAV is registered in the cells it can be in
+ * until it moves again. A UAV that is moved every minute is in one cell, a UAV that flies on between wake-ups is registered in all cells
+ * around the straight line to its destination.
+ * A broadcast can then only reach the UAVs in the cell of its location and the eight cells around it,
+ * so only those UAVs have to be checked instead of the whole fleet.
+ *
+ * UAVs that would cover too many cells are kept in a separate list that is checked for every broadcast.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class BroadcastGrid {
+
+	//The maximum number of cells a UAV is registered in, before it is checked for every broadcast instead
+	private static final int MAX_CELLS = 64;
+
+	private final double cellSize;
+	private final Map<Long, List<Entry>> cells = new HashMap<Long, List<Entry>>();
+	private final List<Entry> everywhere = new ArrayList<Entry>();
+	private final Map<UAV, Entry> entries = new IdentityHashMap<UAV, Entry>();
+	//Marks the entries that have been found during the current search, so a UAV in several cells is found once
+	private int search = 0;
+
+	/**
+	 * Constructs an empty grid.
+	 * @param cellSize The size of the cells, which should be the broadcast radius
+	 */
+	public BroadcastGrid(double cellSize) {
+		if(!(cellSize > 0))
+			throw new IllegalArgumentException("The cell size must be strictly positive");
+		this.cellSize = cellSize;
+	}
+
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Adds the given UAV to the grid. It is placed in the cells of its area when it is moved.
+	 * @param uav The UAV
+	 * @param index The position of the UAV in the fleet, which determines the order in which UAVs are found
+	 */
+	public void add(UAV uav, int index) {
+		if(entries.containsKey(uav))
+			throw new IllegalArgumentException("The UAV is already in the grid");
+		entries.put(uav, new Entry(uav, index));
+	}
+
+	/**
+	 * Registers the given UAV in the cells that overlap the given area instead of the cells it was in.
+	 * The area must contain every location the UAV can have until it is moved again.
+	 * @param uav A UAV in the grid
+	 * @param minX The lowest x coordinate of the area
+	 * @param minY The lowest y coordinate of the area
+	 * @param maxX The highest x coordinate of the area
+	 * @param maxY The highest y coordinate of the area
+	 */
+	public void move(UAV uav, double minX, double minY, double maxX, double maxY) {
+		Entry entry = entries.get(uav);
+		if(entry == null)
+			throw new IllegalArgumentException("The UAV is not in the grid");
+		long x1 = cell(minX), y1 = cell(minY), x2 = cell(maxX), y2 = cell(maxY);
+		if(entry.registered && x1 == entry.minX && y1 == entry.minY && x2 == entry.maxX && y2 == entry.maxY)
+			return;
+		remove(entry);
+		entry.minX = x1;
+		entry.minY = y1;
+		entry.maxX = x2;
+		entry.maxY = y2;
+		entry.registered = true;
+		if(entry.isEverywhere()) {
+			everywhere.add(entry);
+			return;
+		}
+		for(long x = x1; x <= x2; x++)
+			for(long y = y1; y <= y2; y++) {
+				List<Entry> cell = cells.get(key(x, y));
+				if(cell == null) {
+					cell = new ArrayList<Entry>(4);
+					cells.put(key(x, y), cell);
+				}
+				cell.add(entry);
+			}
+	}
+
+	/**
+	 * Removes the given UAV from the grid.
+	 * @param uav The UAV to remove
+	 */
+	public void remove(UAV uav) {
+		Entry entry = entries.remove(uav);
+		if(entry != null)
+			remove(entry);
+	}
+
+	/**
+	 * Returns the UAVs that may be within one cell size of the given location, in the order of their position in the fleet.
+	 * The distance to each of them still has to be checked.
+	 * @param x The x coordinate of the location
+	 * @param y The y coordinate of the location
+	 * @return A new list with the UAVs near the location
+	 */
+	public List<UAV> getUAVsNear(double x, double y) {
+		search++;
+		List<Entry> found = new ArrayList<Entry>();
+		long cx = cell(x), cy = cell(y);
+		for(long i = cx - 1; i <= cx + 1; i++)
+			for(long j = cy - 1; j <= cy + 1; j++) {
+				List<Entry> cell = cells.get(key(i, j));
+				if(cell != null)
+					for(Entry entry : cell)
+						if(entry.search != search) {
+							entry.search = search;
+							found.add(entry);
+						}
+			}
+		found.addAll(everywhere);
+		Collections.sort(found, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry e1, Entry e2) {
+				return Integer.compare(e1.index, e2.index);
+			}
+		});
+		List<UAV> uavs = new ArrayList<UAV>(found.size());
+		for(Entry entry : found)
+			uavs.add(entry.uav);
+		return uavs;
+	}
+
+	/**
+	 * Removes all UAVs from the grid.
+	 */
+	public void clear() {
+		cells.clear();
+		everywhere.clear();
+		entries.clear();
+	}
+
+	private void remove(Entry entry) {
+		if(!entry.registered)
+			return;
+		entry.registered = false;
+		if(entry.isEverywhere()) {
+			everywhere.remove(entry);
+			return;
+		}
+		for(long x = entry.minX; x <= entry.maxX; x++)
+			for(long y = entry.minY; y <= entry.maxY; y++) {
+				List<Entry> cell = cells.get(key(x, y));
+				cell.remove(entry);
+				if(cell.isEmpty())
+					cells.remove(key(x, y));
+			}
+	}
+
+	private long cell(double coordinate) {
+		return (long) Math.floor(coordinate / cellSize);
+	}
+
+	private static long key(long x, long y) {
+		//Multiplying by an odd number keeps the keys unique and spreads neighbouring cells over the hash table
+		return ((x << 32) ^ (y & 0xffffffffL)) * 0x9E3779B97F4A7C15L;
+	}
+
+	/**
+	 * The cells a UAV is registered in.
+	 */
+	private static class Entry {
+
+		private final UAV uav;
+		private final int index;
+		private long minX, minY, maxX, maxY;
+		private boolean registered = false;
+		private int search = 0;
+
+		private Entry(UAV uav, int index) {
+			this.uav = uav;
+			this.index = index;
+		}
+
+		private boolean isEverywhere() {
+			return (maxX - minX + 1) * (maxY - minY + 1) > MAX_CELLS;
+		}
+
+	}
+
+}
@@ -0,0 +1,248 @@
+package uav;
+
+import network.Node;
+import sim.engine.Schedule;
+import sim.engine.SimState;
+import sim.engine.TentativeStep;
+import sim.util.Double2D;
+import simulation.UAVNetworkSimulation;
+import sla.FlightTimeSLA;
+import uav.navigation.UAVNavigationStrategy;
+
+/**
+ * A UAV that is not stepped every minute, but only wakes up at the minutes at which something else happens than flying straight on:
+ * arriving at its destination, running out of battery, finishing a recharge or standby period and reviving after a crash.
+ * The minutes in between are applied in bulk when the UAV wakes up, so the cost of a UAV scales with the number of decisions it takes instead of the number of simulated minutes.
+ * At the minutes it wakes up, the UAV executes the same per-minute behaviour as a normal UAV, so both follow exactly the same rules.
+ *
+ * Outside actions, such as a crash, that are ordered before the UAVs see the UAV before it acts in the current minute, and those ordered after the UAVs after it.
+ * The results differ from the per-minute engine only in two ways:
+ * UAVs that act in the same minute, and outside actions at the same ordering as the UAVs, can be executed in a different order,
+ * and positions of UAVs between two wake-ups are interpolated (e.g. to decide whether they receive a broadcast).
+ * A single UAV, or UAVs that do not interact, get exactly the same results as with the per-minute engine.
+ * When the UAVs interact, the SLA coverage can differ by a few percentage points.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class EventDrivenUAV extends UAV {
+
+	private static final long serialVersionUID = 1;
+	//The ordering at which UAVs act in a minute, both in this engine and when they are stepped every minute
+	private static final int UAV_ORDERING = 0;
+
+	private UAVNetworkSimulation sim;
+	private TentativeStep wakeUp;
+	private boolean started = false, stepping = false;
+	//The last minute that has been applied to this UAV
+	private long lastStep = -1;
+
+	public EventDrivenUAV(UAVNetworkSimulation sim, Node startNode, UAVNavigationStrategy navigationBehaviour, UAVConfiguration configuration) {
+		super(startNode, navigationBehaviour, configuration);
+		this.sim = sim;
+	}
+
+	@Override
+	public void scheduleIn(Schedule schedule) {
+		scheduleIn(schedule, schedule.getTime() + 1);
+	}
+
+	@Override
+	public void scheduleIn(Schedule schedule, double time) {
+		wakeUp = new TentativeStep(this);
+		schedule.scheduleOnce(time, wakeUp);
+	}
+
+	@Override
+	public void step(SimState state) {
+		long step = sim.getCurrentStep();
+		if(started)
+			catchUp(step);
+		started = true;
+		stepping = true;
+		super.step(state);
+		stepping = false;
+		lastStep = step;
+		scheduleNextWakeUp();
+	}
+
+	@Override
+	public void crash() {
+		interrupt();
+		super.crash();
+		resume();
+	}
+
+	@Override
+	public void crash(long time) {
+		interrupt();
+		super.crash(time);
+		resume();
+	}
+
+	@Override
+	public void standBy(long nbOfSteps) {
+		interrupt();
+		super.standBy(nbOfSteps);
+		resume();
+	}
+
+	@Override
+	public long getBatteryLife() {
+		interrupt();
+		return super.getBatteryLife();
+	}
+
+	@Override
+	public long getStandByTime() {
+		interrupt();
+		return super.getStandByTime();
+	}
+
+	@Override
+	public Double2D getLocation(UAVNetworkSimulation sim) {
+		Double2D location = super.getLocation(sim);
+		if(!started || !isFlying())
+			return location;
+		long minutes = getFlyMinutesBetween(lastStep + 1, sim.getCurrentStep());
+		return minutes > 0 ? move(location, minutes) : location;
+	}
+
+	/**
+	 * Until it wakes up again, a flying UAV can be anywhere on the straight line to its destination,
+	 * or at most one minute of flying past it.
+	 */
+	@Override
+	protected void moved(UAVNetworkSimulation sim, Double2D location) {
+		if(!isFlying()) {
+			super.moved(sim, location);
+			return;
+		}
+		Double2D target = nextLocation.getNode().getLocation();
+		double margin = getSpeedKmMinute();
+		sim.getUAVController().move(this, Math.min(location.x, target.x) - margin, Math.min(location.y, target.y) - margin,
+				Math.max(location.x, target.x) + margin, Math.max(location.y, target.y) + margin);
+	}
+
+	/**
+	 * Applies all minutes up to and including the current one, as if this UAV woke up now.
+	 * Its state and location are then the same as those of a UAV that is stepped every minute, once the current minute has passed.
+	 */
+	public void finishCurrentStep() {
+		interrupt();
+		resume();
+	}
+
+	/**
+	 * Applies all minutes before the current one, so the state of this UAV can be changed from outside.
+	 * A steppable that is ordered after the UAVs sees a UAV that is stepped every minute after it acted in the current minute,
+	 * so the current minute is applied as well in that case.
+	 */
+	private void interrupt() {
+		if(!started || stepping)
+			return;
+		long step = sim.getCurrentStep();
+		catchUp(step);
+		if(lastStep < step && sim.getCurrentOrdering() > UAV_ORDERING)
+			act(step);
+	}
+
+	/**
+	 * Applies the current minute to this UAV (if it did not act yet) after its state was changed from outside
+	 * and reschedules its wake-up according to its new state.
+	 */
+	private void resume() {
+		if(!started || stepping)
+			return;
+		long step = sim.getCurrentStep();
+		if(lastStep < step)
+			act(step);
+		scheduleNextWakeUp();
+	}
+
+	/**
+	 * Executes the per-minute behaviour of this UAV in the given minute, which is the current one.
+	 */
+	private void act(long step) {
+		stepping = true;
+		super.step(sim);
+		stepping = false;
+		lastStep = step;
+	}
+
+	/**
+	 * Applies all minutes after the last one that has been applied up to the given step (exclusive).
+	 * No decision is taken during these minutes, so the state and position of the UAV can be updated at once.
+	 * @param step The step until which all minutes should be applied
+	 */
+	private void catchUp(long step) {
+		long from = lastStep + 1;
+		if(step <= from)
+			return;
+		long flown = skip(step - from, isReviving() ? 0 : getFlyMinutesBetween(from, step));
+		if(flown > 0)
+			sim.map.setObjectLocation(this, move(super.getLocation(sim), flown));
+		lastStep = step - 1;
+	}
+
+	/**
+	 * Cancels the pending wake-up of this UAV and schedules the next one at the first minute at which it will have to do more than flying on.
+	 */
+	private void scheduleNextWakeUp() {
+		if(wakeUp != null)
+			wakeUp.stop();
+		wakeUp = null;
+		moved(sim, super.getLocation(sim));
+
+		long next;
+		if(hasCrashed()) {
+			long minutes = getMinutesUntilNextEvent(sim);
+			if(minutes < 0)
+				return;
+			//Revive time continues outside fly time as well, a UAV that crashed for good only finishes its recharge and standby during fly time
+			next = isReviving() ? lastStep + minutes : getFlightTimeSLA().getFlyTimeAfter(lastStep, minutes);
+		} else {
+			next = getFlightTimeSLA().getFlyTimeAfter(lastStep, getFlyMinutesUntilNextDecision());
+		}
+		wakeUp = new TentativeStep(this);
+		sim.schedule.scheduleOnce(next, wakeUp);
+	}
+
+	/**
+	 * Returns the number of fly minutes after the last applied minute at which this UAV has to act again.
+	 * Only called when the UAV is not crashed.
+	 * @return The strictly positive number of fly minutes until the next wake-up of this UAV
+	 */
+	protected long getFlyMinutesUntilNextDecision() {
+		return getMinutesUntilNextEvent(sim);
+	}
+
+	/**
+	 * Returns the location reached after flying the given number of minutes from the given location towards the destination of this UAV.
+	 */
+	private Double2D move(Double2D location, long minutes) {
+		Double2D target = nextLocation.getNode().getLocation();
+		double distance = location.distance(target);
+		if(distance == 0)
+			return location;
+		double fraction = minutes * getSpeedKmMinute() / distance;
+		return new Double2D(location.x + (target.x - location.x) * fraction, location.y + (target.y - location.y) * fraction);
+	}
+
+	/**
+	 * Checks if the UAV is flying towards its destination, i.e. it is not crashed, recharging or in standby.
+	 */
+	private boolean isFlying() {
+		return getState() == State.FLYING && nextLocation != null;
+	}
+
+	private long getFlyMinutesBetween(long from, long to) {
+		FlightTimeSLA flightTime = getFlightTimeSLA();
+		return flightTime.getFlyMinutesBefore(to) - flightTime.getFlyMinutesBefore(from);
+	}
+
+	private FlightTimeSLA getFlightTimeSLA() {
+		return sim.getSlaChecker().getFlightTimeSLA();
+	}
+
+}
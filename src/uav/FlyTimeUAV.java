@@ -0,0 +1,29 @@
+package uav;
+
+import network.Node;
+import simulation.UAVNetworkSimulation;
+import uav.navigation.UAVNavigationStrategy;
+
+/**
+ * A UAV that is stepped every minute it is allowed to fly, but is not scheduled at all outside the fly time of the flight time SLA.
+ * When no other UAV or event needs the minutes in between two fly windows, the schedule can jump over them at once.
+ * A crashed UAV still wakes up at the minute it revives, even if that is outside fly time, as revive time continues outside fly time as well.
+ * Apart from the order of the UAVs and events that act in the same minute, a simulation with these UAVs gives the same results as one with normal UAVs.
+ * 
+ * @author Wietse Buseyne
+ *
+ */
+public class FlyTimeUAV extends EventDrivenUAV {
+
+	private static final long serialVersionUID = 1;
+
+	public FlyTimeUAV(UAVNetworkSimulation sim, Node startNode, UAVNavigationStrategy navigationBehaviour, UAVConfiguration configuration) {
+		super(sim, startNode, navigationBehaviour, configuration);
+	}
+
+	@Override
+	protected long getFlyMinutesUntilNextDecision() {
+		return 1;
+	}
+
+}
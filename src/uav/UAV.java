@@ -1,12 +1,16 @@
 package uav;
 import java.util.List;
 
+import network.Inspectable;
 import network.Node;
+import sim.engine.Schedule;
 import sim.engine.SimState;
 import sim.engine.Steppable;
 import sim.util.Double2D;
 import sim.util.MutableDouble2D;
 import simulation.UAVNetworkSimulation;
+import simulation.log.InspectionEventLog;
+import simulation.log.InspectionEventLog.Kind;
 import uav.navigation.CentralServerLNINavigation;
 import uav.navigation.EdgeNodeLocation;
 import uav.navigation.UAVNavigationStrategy;
@@ -15,6 +19,9 @@ import uav.navigation.UAVNavigationStrategy;
  * Represents a UAV that can fly over a network according to a specific navigation behaviour.
  * The UAV can go to standby, has a battery life and can inspect edges and nodes of a network.
  * 
+ * Every minute, the UAV acts according to its {@link State}. The durations of a crash, recharge and standby are kept as the number of minutes left,
+ * so the minute at which the UAV has to do something else than counting down or flying on can be asked with {@link #getMinutesUntilNextEvent(UAVNetworkSimulation)}.
+ * 
  * @author Wietse Buseyne
  *
  */
@@ -22,22 +29,50 @@ public class UAV implements Steppable {
 	
 	private static final long serialVersionUID = 1;
 	
-	private EdgeNodeLocation nextLocation;
+	/**
+	 * What a UAV does during a minute of fly time.
+	 */
+	public enum State {
+		/**
+		 * The UAV flies towards its destination.
+		 */
+		FLYING,
+		/**
+		 * The UAV recharges its battery at a recharge station and flies on afterwards.
+		 */
+		RECHARGING,
+		/**
+		 * The UAV waits at a node.
+		 */
+		STANDING_BY,
+		/**
+		 * The UAV crashed, either until it revives or for good.
+		 */
+		CRASHED
+	}
+	
+	protected EdgeNodeLocation nextLocation;
 	private UAVNavigationStrategy navigationBehaviour;
 	
-	private boolean crashed = false;
+	private State state = State.FLYING;
 	private long rechargeTime = 10;
 	private double speedKmHour = 20;
 	private double broadcastRadius = 5;
 
 	private boolean standbyPossible = true;
 	private long standByTime = 0;
-	private long standByCounter = 0, standByCounterQueue = 0;
-		
-	private Counter batteryLife, inspectionCounter, rechargeCounter, crashCounter;
+	
+	//The minutes of battery left (-1 when it ran out) and the minutes of a full battery
+	private long batteryLife, maxBatteryLife;
+	//The minutes of fly time left of the recharge (-1 if not recharging), the standby and the standby that starts at the next node
+	private long rechargeMinutesLeft = -1, standByMinutesLeft = 0, queuedStandByMinutes = 0;
+	//The minutes left until the UAV revives from a crash, -1 if it does not revive
+	private long reviveMinutesLeft = -1;
 	
 	private static double nextRechargeNodeSafetyMultiplier = 1.5;
 	
+	private InspectionEventLog eventLog;
+	
 	public UAV(Node startNode) {
 		this(startNode, new CentralServerLNINavigation(), new UAVConfiguration());
 	}
@@ -47,35 +82,22 @@ public class UAV implements Steppable {
 		this.broadcastRadius = configuration.broadcastRadius;
 		this.navigationBehaviour = navigationBehaviour;
 		this.nextLocation = new EdgeNodeLocation(null, startNode);
-		
-		batteryLife = new Counter(configuration.batteryLife, new Runnable() {
-			
-			@Override
-			public void run() {
-				System.out.println("UAV crashed");
-				crash();
-			}
-		});
-		
-		rechargeTime = configuration.rechargeTime;
-		rechargeCounter = new Counter(rechargeTime, new Runnable() {
-			
-			@Override
-			public void run() {
-				//System.out.println("Recharging... Old battery level: " + getBatteryLife());
-				recharge();
-			}
-		});
-		rechargeCounter.setCount(-1);
-		
-		crashCounter = new Counter(0, new Runnable() {
-			
-			@Override
-			public void run() {
-				crashed = false;
-			}
-		});
-		crashCounter.setCount(-1);
+		this.batteryLife = configuration.batteryLife;
+		this.maxBatteryLife = configuration.batteryLife;
+		this.rechargeTime = configuration.rechargeTime;
+	}
+	
+	/**
+	 * Sets the log to which this UAV adds its inspection events.
+	 * @param eventLog The event log, or null if the events should not be logged
+	 */
+	public void setEventLog(InspectionEventLog eventLog) {
+		this.eventLog = eventLog;
+	}
+	
+	private void log(Kind kind, Inspectable inspectable) {
+		if(eventLog != null)
+			eventLog.add(kind, inspectable, this);
 	}
 	
 	public void setStandby(boolean standbyPossible) {
@@ -87,7 +109,7 @@ public class UAV implements Steppable {
 	 * @return The maximum distance in km the UAV can fly (i.e., with a full battery).
 	 */
 	public double getMaxFlyingDistance() {
-		return getFlyingDistance(batteryLife.getMax());
+		return getFlyingDistance(maxBatteryLife);
 	}
 	
 	/**
@@ -111,7 +133,7 @@ public class UAV implements Steppable {
 	 * Resets the battery level of this UAV to its maximum
 	 */
 	public void recharge() {
-		batteryLife.reset();
+		batteryLife = maxBatteryLife;
 	}
 	
 	/**
@@ -119,7 +141,7 @@ public class UAV implements Steppable {
 	 * @return The amount of minutes the UAV can fly for with its current battery level.
 	 */
 	public long getBatteryLife() {
-		return batteryLife.getCount();
+		return batteryLife;
 	}
 
 	/**
@@ -169,88 +191,292 @@ public class UAV implements Steppable {
 	public UAVNavigationStrategy getNavigationBehaviour() {
 		return navigationBehaviour;
 	}
+	
+	/**
+	 * Schedules this UAV in the given schedule, starting at the next step.
+	 * @param schedule The schedule to add this UAV to
+	 */
+	public void scheduleIn(Schedule schedule) {
+		schedule.scheduleRepeating(this);
+	}
+	
+	/**
+	 * Schedules this UAV in the given schedule, starting at the given time.
+	 * @param schedule The schedule to add this UAV to
+	 * @param time The time at which the UAV should start navigating
+	 */
+	public void scheduleIn(Schedule schedule, double time) {
+		schedule.scheduleRepeating(time, this);
+	}
+	
+	/**
+	 * Tells the controller of the given simulation where this UAV can be until it moves again, so broadcasts can find it.
+	 * A UAV that is moved every minute is at its location on the map.
+	 * @param sim The simulation this UAV flies in
+	 * @param location The location of this UAV on the map
+	 */
+	protected void moved(UAVNetworkSimulation sim, Double2D location) {
+		sim.getUAVController().move(this, location.x, location.y, location.x, location.y);
+	}
+	
+	/**
+	 * Returns the current location of this UAV in the given simulation.
+	 * @param sim The simulation this UAV flies in
+	 * @return The current location of this UAV
+	 */
+	public Double2D getLocation(UAVNetworkSimulation sim) {
+		return sim.map.getObjectLocation(this);
+	}
 
 	@Override
-	public void step(final SimState state) {
-		final UAVNetworkSimulation sim = (UAVNetworkSimulation)state;
-		if(crashCounter.tick()) {
-			//Do nothing if crashed and not yet revived
+	public void step(SimState simState) {
+		UAVNetworkSimulation sim = (UAVNetworkSimulation) simState;
+		if(state == State.CRASHED && reviveMinutesLeft >= 0) {
 			//Revive time continues outside fly time as well
-		} else if(!sim.isUAVFlyTime()) {
-		} else if(rechargeCounter.tick()) {
-			//Do nothing if recharging
-		} else if(standByCounter > 0) {
-			standByCounter--;
-			standByTime++;
-		} else if(!crashed) {
-			batteryLife.tick();
-			if(standByCounterQueue > 0)
-				standByCounterQueue--;
-			
-			if(nextLocation == null) {
-				nextLocation = new EdgeNodeLocation(null, navigationBehaviour.getStartLocation(sim));
+			if(reviveMinutesLeft > 0) {
+				reviveMinutesLeft--;
+				return;
+			}
+			revive();
+		}
+		if(!sim.isUAVFlyTime())
+			return;
+		switch(state) {
+		case FLYING:
+			flyMinute(sim);
+			break;
+		case RECHARGING:
+			if(rechargeMinutesLeft > 0) {
+				rechargeMinutesLeft--;
+				break;
+			}
+			//The UAV continues in the minute its recharge is finished
+			finishRecharge();
+			if(state == State.STANDING_BY)
+				standByMinute();
+			else
+				flyMinute(sim);
+			break;
+		case STANDING_BY:
+			standByMinute();
+			break;
+		case CRASHED:
+			//A UAV that crashed for good does not fly anymore, but still finishes its recharge and standby
+			if(rechargeMinutesLeft > 0) {
+				rechargeMinutesLeft--;
+			} else {
+				if(rechargeMinutesLeft == 0)
+					finishRecharge();
+				if(standByMinutesLeft > 0)
+					standByMinute();
 			}
-			if(inspectionCounter == null) {
-				inspectionCounter = new Counter(0, new Runnable() { //start new counter, will update itself on next location
-					
-					@Override
-					public void run() {
-						boolean recharge = false;
-						Node previous = nextLocation.getNode();
-						if(nextLocation.getNode().isRechargeNode()) {
-							recharge = true;
-						}
-						//Go to standby mode if needed
-						if(standByCounterQueue > 0) {
-							standByCounter = standByCounterQueue;
-							standByCounterQueue = 0;
-						}
-						if(state.schedule.getSteps() - nextLocation.getNode().getLastInspectionTime() >= nextLocation.getNode().getMinStepsBetweenInspections())
-							nextLocation.getNode().addInspection(state.schedule);
-						
-						if(nextLocation.getEdge() != null) {
-							nextLocation.getEdge().stopInspection(UAV.this); 
-							nextLocation.getEdge().addInspection(state.schedule);
-						}
-						
-						nextLocation = navigationBehaviour.getNextDestination(sim, nextLocation.getNode());
-						if(nextLocation != null) {
-							//If recharge station and cannot reach next station
-							if(recharge && (!nextLocation.getNode().isRechargeNode() || nextLocation.getNode().distance(previous)*nextRechargeNodeSafetyMultiplier > getFlyingDistance())) {
-								rechargeCounter.reset();
-							}
-							nextLocation.getEdge().startInspection(UAV.this, state.schedule.getSteps());
-							inspectionCounter.reset(0);
-						} else { //No next location, go to standby
-						}
-					}
-				});
+			break;
+		}
+	}
+	
+	/**
+	 * Flies for one minute: uses the battery, handles the arrival at the destination and flies on.
+	 */
+	private void flyMinute(UAVNetworkSimulation sim) {
+		if(batteryLife > 0) {
+			batteryLife--;
+		} else if(batteryLife == 0) {
+			batteryLife = -1;
+			System.out.println("UAV crashed");
+			//The UAV still finishes this minute
+			crash();
+		}
+		if(queuedStandByMinutes > 0)
+			queuedStandByMinutes--;
+		
+		if(nextLocation == null) {
+			nextLocation = new EdgeNodeLocation(null, navigationBehaviour.getStartLocation(sim));
+		}
+		Double2D me = sim.map.getObjectLocation(this);
+
+		if(me.distance(nextLocation.getNode().getLocation()) <= getSpeedKmMinute()/2) {
+			if(nextLocation.getNode().isRechargeNode() && getBatteryLife() < 0) { //otherwise inspection cannot complete
+				startRecharge();
+			} else {
+				arrive(sim);
+			}
+		}
+		
+		MutableDouble2D sumForces = new MutableDouble2D();
+		
+		sumForces.addIn(new Double2D((nextLocation.getNode().getLocation().x-me.x), (nextLocation.getNode().getLocation().y-me.y)));
+		try {
+			sumForces.normalize();
+		} catch(ArithmeticException ex) {}
+		sumForces.setX(sumForces.getX()*getSpeedKmMinute());
+		sumForces.setY(sumForces.getY()*getSpeedKmMinute());
+		sumForces.addIn(me);
+		
+		Double2D location = new Double2D(sumForces);
+		sim.map.setObjectLocation(this, location);
+		moved(sim, location);
+	}
+	
+	/**
+	 * Handles the arrival of this UAV at its destination: inspects the node and the edge it flew over and gets its next destination.
+	 * The UAV goes to standby if it was asked to and recharges first if it may not reach the next recharge station.
+	 */
+	private void arrive(UAVNetworkSimulation sim) {
+		Node previous = nextLocation.getNode();
+		boolean recharge = previous.isRechargeNode();
+		//Go to standby mode if needed
+		if(queuedStandByMinutes > 0) {
+			standByMinutesLeft = queuedStandByMinutes;
+			queuedStandByMinutes = 0;
+		}
+		if(sim.getCurrentStep() - previous.getLastInspectionTime() >= previous.getMinStepsBetweenInspections()) {
+			previous.addInspection(sim.schedule);
+			log(Kind.INSPECTION, previous);
+		}
+		
+		if(nextLocation.getEdge() != null) {
+			nextLocation.getEdge().stopInspection(this); 
+			log(Kind.STOP, nextLocation.getEdge());
+			nextLocation.getEdge().addInspection(sim.schedule);
+			log(Kind.INSPECTION, nextLocation.getEdge());
+		}
+		
+		nextLocation = navigationBehaviour.getNextDestination(sim, previous);
+		if(nextLocation != null) {
+			//If recharge station and cannot reach next station
+			if(recharge && (!nextLocation.getNode().isRechargeNode() || nextLocation.getNode().distance(previous)*nextRechargeNodeSafetyMultiplier > getFlyingDistance())) {
+				startRecharge();
 			}
-			
-			Double2D me = sim.map.getObjectLocation(this);
-	
-			if(me.distance(nextLocation.getNode().getLocation()) <= getSpeedKmMinute()/2) {
-				if(nextLocation.getNode().isRechargeNode() && getBatteryLife() < inspectionCounter.getCount()) { //otherwise inspection cannot complete
-					rechargeCounter.reset();
-				} else {
-					if(state.schedule.getSteps() - nextLocation.getNode().getLastInspectionTime() < nextLocation.getNode().getMinStepsBetweenInspections())
-						inspectionCounter.setCount(0);
-					inspectionCounter.tick();
-				}
+			nextLocation.getEdge().startInspection(this, sim.getCurrentStep());
+			log(Kind.START, nextLocation.getEdge());
+		}
+		updateState();
+	}
+	
+	private void startRecharge() {
+		rechargeMinutesLeft = rechargeTime;
+		updateState();
+	}
+	
+	private void finishRecharge() {
+		rechargeMinutesLeft = -1;
+		recharge();
+		updateState();
+	}
+	
+	private void standByMinute() {
+		standByMinutesLeft--;
+		standByTime++;
+		updateState();
+	}
+	
+	private void revive() {
+		reviveMinutesLeft = -1;
+		state = State.FLYING;
+		updateState();
+	}
+	
+	/**
+	 * Sets the state of this UAV according to its recharge and standby, unless it crashed.
+	 * A recharge goes before a standby.
+	 */
+	private void updateState() {
+		if(state == State.CRASHED)
+			return;
+		if(rechargeMinutesLeft >= 0)
+			state = State.RECHARGING;
+		else if(standByMinutesLeft > 0)
+			state = State.STANDING_BY;
+		else
+			state = State.FLYING;
+	}
+	
+	/**
+	 * Returns what this UAV does during the next minute of fly time.
+	 * @return The state of this UAV
+	 */
+	public State getState() {
+		return state;
+	}
+	
+	/**
+	 * Returns the number of minutes until the next minute at which this UAV does more than counting down or flying on:
+	 * the minute at which it revives, finishes its recharge or standby, arrives at its destination or runs out of battery.
+	 * A UAV that crashed for good does not fly anymore, but still finishes its recharge and standby.
+	 * While the UAV is reviving from a crash all minutes count, otherwise only the minutes of fly time count.
+	 * @param sim The simulation this UAV flies in
+	 * @return The strictly positive number of minutes until the next event, or -1 if the UAV crashed for good and has nothing left to finish
+	 */
+	public long getMinutesUntilNextEvent(UAVNetworkSimulation sim) {
+		switch(state) {
+		case CRASHED:
+			if(reviveMinutesLeft >= 0)
+				return reviveMinutesLeft + 1;
+			if(rechargeMinutesLeft >= 0)
+				return rechargeMinutesLeft + 1;
+			return standByMinutesLeft > 0 ? standByMinutesLeft + 1 : -1;
+		case RECHARGING:
+			return rechargeMinutesLeft + 1;
+		case STANDING_BY:
+			return standByMinutesLeft + 1;
+		default:
+			return Math.min(getMinutesUntilArrival(sim), batteryLife + 1);
+		}
+	}
+	
+	/**
+	 * Returns the number of fly minutes this UAV needs before it is within half a minute of flying from its destination.
+	 */
+	private long getMinutesUntilArrival(UAVNetworkSimulation sim) {
+		if(nextLocation == null)
+			return 1;
+		double distance = getLocation(sim).distance(nextLocation.getNode().getLocation());
+		double speed = getSpeedKmMinute();
+		if(distance <= speed / 2)
+			return 1;
+		if(speed == 0)
+			return Long.MAX_VALUE;
+		return (long) Math.ceil((distance - speed / 2) / speed) + 1;
+	}
+	
+	/**
+	 * Applies the given minutes at once, which have to end before the minute given by {@link #getMinutesUntilNextEvent(UAVNetworkSimulation)}:
+	 * the crash, recharge or standby of this UAV is counted down, or its battery is used while it flies on.
+	 * The location of the UAV is not changed.
+	 * @param minutes The number of minutes to apply
+	 * @param flyMinutes The number of those minutes that are fly time
+	 * @return The number of minutes this UAV flew
+	 */
+	protected long skip(long minutes, long flyMinutes) {
+		long flown = 0;
+		switch(state) {
+		case CRASHED:
+			//Revive time continues outside fly time as well
+			if(reviveMinutesLeft >= 0) {
+				if(reviveMinutesLeft > 0)
+					reviveMinutesLeft -= minutes;
+			} else if(rechargeMinutesLeft >= 0) {
+				rechargeMinutesLeft -= flyMinutes;
+			} else if(standByMinutesLeft > 0) {
+				standByMinutesLeft -= flyMinutes;
+				standByTime += flyMinutes;
 			}
-			
-			MutableDouble2D sumForces = new MutableDouble2D();
-			
-			sumForces.addIn(new Double2D((nextLocation.getNode().getLocation().x-me.x), (nextLocation.getNode().getLocation().y-me.y)));
-			try {
-				sumForces.normalize();
-			} catch(ArithmeticException ex) {}
-			sumForces.setX(sumForces.getX()*getSpeedKmMinute());
-			sumForces.setY(sumForces.getY()*getSpeedKmMinute());
-			sumForces.addIn(me);
-			
-			sim.map.setObjectLocation(this, new Double2D(sumForces));
+			break;
+		case RECHARGING:
+			rechargeMinutesLeft -= flyMinutes;
+			break;
+		case STANDING_BY:
+			standByMinutesLeft -= flyMinutes;
+			standByTime += flyMinutes;
+			break;
+		case FLYING:
+			batteryLife -= flyMinutes;
+			queuedStandByMinutes = Math.max(0, queuedStandByMinutes - flyMinutes);
+			flown = flyMinutes;
+			break;
 		}
+		updateState();
+		return flown;
 	}
 	
 	/**
@@ -261,11 +487,11 @@ public class UAV implements Steppable {
 		if(nbOfSteps < 0)
 			throw new IllegalArgumentException("The number of steps to be standby must be positive");
 		if(standbyPossible)
-			if(standByCounter > 0) {
-				if(nbOfSteps > standByCounter)
-					standByCounter = nbOfSteps;
-			} else if(nbOfSteps > standByCounterQueue) {
-				standByCounterQueue = nbOfSteps;
+			if(standByMinutesLeft > 0) {
+				if(nbOfSteps > standByMinutesLeft)
+					standByMinutesLeft = nbOfSteps;
+			} else if(nbOfSteps > queuedStandByMinutes) {
+				queuedStandByMinutes = nbOfSteps;
 			}
 	}
 	
@@ -274,7 +500,7 @@ public class UAV implements Steppable {
 	 * @return True if the UAV is in standby mode, False otherwise.
 	 */
 	public boolean isStandBy() {
-		return standByCounter > 0;
+		return standByMinutesLeft > 0;
 	}
 	
 	/**
@@ -289,9 +515,7 @@ public class UAV implements Steppable {
 	 * Crashes this UAV. It will stop all its activities immediately and stay crashed during the simulation.
 	 */
 	public void crash() {
-		crashed = true;
-		if(nextLocation.getEdge() != null)
-			nextLocation.getEdge().stopInspection(this);
+		setCrashed();
 	}
 	
 	/**
@@ -300,8 +524,20 @@ public class UAV implements Steppable {
 	 * @param time The amount of time for which the UAV will crash.
 	 */
 	public void crash(long time) {
-		crash();
-		crashCounter.setCount(time-1);
+		setCrashed();
+		reviveMinutesLeft = time-1;
+	}
+	
+	/**
+	 * Puts this UAV in the crashed state and stops its current inspection.
+	 * Subclasses that override {@link #crash()} are not called, so a crash with a revive time is complete before they act on it.
+	 */
+	private void setCrashed() {
+		state = State.CRASHED;
+		if(nextLocation.getEdge() != null) {
+			nextLocation.getEdge().stopInspection(this);
+			log(Kind.STOP, nextLocation.getEdge());
+		}
 	}
 	
 	/**
@@ -309,7 +545,15 @@ public class UAV implements Steppable {
 	 * @return True if the UAV is currently crashed, False otherwise.
 	 */
 	public boolean hasCrashed() {
-		return crashed;
+		return state == State.CRASHED;
+	}
+	
+	/**
+	 * Checks if the UAV is currently crashed for a limited amount of time.
+	 * @return True if the UAV is currently crashed and will revive, False otherwise.
+	 */
+	public boolean isReviving() {
+		return state == State.CRASHED && reviveMinutesLeft >= 0;
 	}
 	
 	/**
@@ -22,4 +22,13 @@ public class UAVConfiguration {
 		return getSpeedKmMinute() * batteryLife;
 	}
 	
+	public UAVConfiguration copy() {
+		UAVConfiguration c = new UAVConfiguration();
+		c.rechargeTime = rechargeTime;
+		c.broadcastRadius = broadcastRadius;
+		c.speedKmHour = speedKmHour;
+		c.batteryLife = batteryLife;
+		return c;
+	}
+	
 }
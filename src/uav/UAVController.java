@@ -11,8 +11,8 @@ import sim.util.Double2D;
 import simulation.UAVNetworkSimulation;
 import uav.navigation.EdgeNodeLocation;
 import uav.navigation.UAVNavigationStrategy;
-import util.algorithms.dijkstra.Dijkstra;
-import util.algorithms.dijkstra.Vertex;
+import util.algorithms.dijkstra.CompactGraph;
+import util.algorithms.dijkstra.ShortestPath;
 
 /**
  * A controller class that manages all the UAVs currently in a simulation.
@@ -25,6 +25,7 @@ public class UAVController {
 	
 	private UAVNetworkSimulation sim;
 	private List<UAV> uavs = new ArrayList<>();
+	private BroadcastGrid broadcastGrid;
 	
 	private long stepsInCycle = 1;
 	private double cyclePercentageToBeFulfilled = 0;
@@ -44,6 +45,16 @@ public class UAVController {
 		return standby / uavs.size();
 	}
 	
+	/**
+	 * Applies the current minute to every event-driven UAV that did not act in it yet,
+	 * so all UAVs are in the state they would be in if they had been stepped every minute.
+	 */
+	public void finishCurrentStep() {
+		for(UAV uav : uavs)
+			if(uav instanceof EventDrivenUAV)
+				((EventDrivenUAV) uav).finishCurrentStep();
+	}
+	
 	public long getStepsInCycle() {
 		return stepsInCycle;
 	}
@@ -80,15 +91,49 @@ public class UAVController {
 	 * @param step The time at which the element was inspected
 	 */
 	public void sendInspectionMessage(Double2D location, Inspectable inspectable, long step) {
-		for(UAV uav2 : uavs) {
-			Double2D uav2Location = sim.map.getObjectLocation(uav2);
-			if(location.distance(uav2Location) < sim.getConfiguration().uavConfiguration.broadcastRadius) {
+		double radius = sim.getConfiguration().uavConfiguration.broadcastRadius;
+		if(!(radius > 0))
+			return;
+		//Only the UAVs in the cells around the location can be in reach
+		for(UAV uav2 : getBroadcastGrid().getUAVsNear(location.x, location.y)) {
+			Double2D uav2Location = uav2.getLocation(sim);
+			if(location.distance(uav2Location) < radius) {
 				uav2.getNavigationBehaviour().inspectionDoneOrStarted(inspectable, step);
 			}
 		}
 	}
 
 	
+	/**
+	 * Updates the area in which the given UAV can be until it moves again, so broadcasts can find it.
+	 * Called by the UAVs of this controller after they moved.
+	 * @param uav The UAV that moved
+	 * @param minX The lowest x coordinate the UAV can have
+	 * @param minY The lowest y coordinate the UAV can have
+	 * @param maxX The highest x coordinate the UAV can have
+	 * @param maxY The highest y coordinate the UAV can have
+	 */
+	public void move(UAV uav, double minX, double minY, double maxX, double maxY) {
+		if(broadcastGrid != null && broadcastGrid.getCellSize() == sim.getConfiguration().uavConfiguration.broadcastRadius)
+			broadcastGrid.move(uav, minX, minY, maxX, maxY);
+	}
+	
+	/**
+	 * Returns the grid with the UAVs of this controller by the cells of the broadcast radius,
+	 * building it again if the broadcast radius has changed.
+	 */
+	private BroadcastGrid getBroadcastGrid() {
+		double radius = sim.getConfiguration().uavConfiguration.broadcastRadius;
+		if(broadcastGrid == null || broadcastGrid.getCellSize() != radius) {
+			broadcastGrid = new BroadcastGrid(radius);
+			for(int i = 0; i < uavs.size(); i++) {
+				broadcastGrid.add(uavs.get(i), i);
+				uavs.get(i).moved(sim, sim.map.getObjectLocation(uavs.get(i)));
+			}
+		}
+		return broadcastGrid;
+	}
+	
 	/**
 	 * Adds a UAV with the given strategy at the given node and puts it under control of this class.
 	 * The specifications of the UAV are determined by the configuration of the simulation this class belongs to.
@@ -96,10 +141,14 @@ public class UAVController {
 	 * @param navBehaviour The navigation strategy of the UAV.
 	 */
 	public void addUAV(Node startNode, UAVNavigationStrategy navBehaviour) {
-		UAV uav = new UAV(startNode, navBehaviour, sim.getConfiguration().uavConfiguration);
+		UAV uav = createUAV(startNode, navBehaviour);
+		uav.setEventLog(sim.getEventLog());
 		uavs.add(uav);
 		sim.map.setObjectLocation(uav, startNode.getLocation());
-		sim.schedule.scheduleRepeating(uav);
+		if(broadcastGrid != null)
+			broadcastGrid.add(uav, uavs.size()-1);
+		uav.moved(sim, startNode.getLocation());
+		uav.scheduleIn(sim.schedule);
 	}
 
 	/**
@@ -111,10 +160,26 @@ public class UAVController {
 	 * @param time The time the UAV should start navigating at.
 	 */
 	public void addUAV(Node startNode, UAVNavigationStrategy navBehaviour, double time) {
-		UAV uav = new UAV(startNode, navBehaviour, sim.getConfiguration().uavConfiguration);
+		UAV uav = createUAV(startNode, navBehaviour);
+		uav.setEventLog(sim.getEventLog());
 		uavs.add(uav);
 		sim.map.setObjectLocation(uav, startNode.getLocation());
-		sim.schedule.scheduleRepeating(time, uav);
+		if(broadcastGrid != null)
+			broadcastGrid.add(uav, uavs.size()-1);
+		uav.moved(sim, startNode.getLocation());
+		uav.scheduleIn(sim.schedule, time);
+	}
+	
+	/**
+	 * Creates a UAV for the engine the simulation is configured with: 
+	 * a UAV that is stepped every minute, one that is only stepped during fly time or one that only wakes up when it has to take a decision.
+	 */
+	private UAV createUAV(Node startNode, UAVNavigationStrategy navBehaviour) {
+		if(sim.getConfiguration().eventDriven)
+			return new EventDrivenUAV(sim, startNode, navBehaviour, sim.getConfiguration().uavConfiguration);
+		if(sim.getConfiguration().skipNonFlyTime)
+			return new FlyTimeUAV(sim, startNode, navBehaviour, sim.getConfiguration().uavConfiguration);
+		return new UAV(startNode, navBehaviour, sim.getConfiguration().uavConfiguration);
 	}
 
 	/**
@@ -138,55 +203,20 @@ public class UAVController {
 	
 	/**
 	 * Indicates that an edge requested inspection.
-	 * Will instruct the nearest UAV to fly to that edge to inspect it.
+	 * Will instruct the nearest UAV to fly to the nearest node of that edge and inspect the edge by flying to its other node.
 	 * @param e The edge for which inspection was requested.
 	 */
 	public void inspectionRequested(InspectableEdge e) {
 		if(!e.isUnderInspection()) {
 			Node node1 = (Node) e.getFrom(),
 					node2 = (Node) e.getOtherNode(node1);
-			sim.resetDijkstra();
-			
-			Dijkstra dijkstra = new Dijkstra(sim.nodeToVertex(node1));
-					
-			UAV closestUAV = null;
-			double minDist = Double.MAX_VALUE;
-			Node node = node1,
-					lastNode = node2;
-			for(UAV uav : uavs) {
-				if(!uav.hasCrashed() && uav.getJobDescription() != JobDescription.INSPECTING_ON_COMMAND) {
-					double dist = dijkstra.getDistance(sim.nodeToVertex(uav.getNavigationBehaviour().getDestination().getNode()));
-					if(dist < minDist) {
-						minDist = dist;
-						closestUAV = uav;
-					}
-				}
-			}
-			sim.resetDijkstra();
-			dijkstra = new Dijkstra(sim.nodeToVertex(node2));
-			for(UAV uav : uavs) {
-				if(!uav.hasCrashed() && uav.getJobDescription() != JobDescription.INSPECTING_ON_COMMAND) {
-					double dist = dijkstra.getDistance(sim.nodeToVertex(uav.getNavigationBehaviour().getDestination().getNode()));
-					if(dist < minDist) {
-						minDist = dist;
-						closestUAV = uav;
-						node = node2;
-						lastNode = node1;
-					}
-				}
-			}
-					
-			if(closestUAV != null) {
-				LinkedList<EdgeNodeLocation> nextLocations = new LinkedList<EdgeNodeLocation>();
-				Node n = closestUAV.getNavigationBehaviour().getDestination().getNode();
-				List<Vertex> vertices = dijkstra.getShortestPath(sim.nodeToVertex(n));
-				nextLocations.addFirst(new EdgeNodeLocation((InspectableEdge)sim.network.getEdge(node, lastNode), node));
-				for(int i = 0; i < vertices.size()-1; i++) {
-					Vertex v1 = vertices.get(i),
-							v2 = vertices.get(i+1);
-					nextLocations.addFirst(new EdgeNodeLocation((InspectableEdge)sim.network.getEdge(v2.mapsTo, v1.mapsTo), v1.mapsTo));
-				}
-				closestUAV.inspect(nextLocations);
+			List<UAV> available = getAvailableUAVs();
+			ShortestPath path = getPathToNearestUAV(available, node1, node2);
+			if(path != null) {
+				Node node = sim.getGraph().getVertex(path.getSource()).mapsTo;
+				LinkedList<EdgeNodeLocation> nextLocations = toLocations(path);
+				nextLocations.addLast(new EdgeNodeLocation(e, node.equals(node1) ? node2 : node1));
+				getUAVWithDestination(available, path.getTarget()).inspect(nextLocations);
 			}
 		}
 	}
@@ -200,33 +230,67 @@ public class UAVController {
 		if(node == null)
 			throw new IllegalArgumentException("The node cannot be null");
 		
-		sim.resetDijkstra();
-		Dijkstra dijkstra = new Dijkstra(sim.nodeToVertex(node));
-				
-		UAV closestUAV = null;
-		double minDist = Double.MAX_VALUE;
-		for(UAV uav : uavs) {
-			if(!uav.hasCrashed() && uav.getJobDescription() != JobDescription.INSPECTING_ON_COMMAND) {
-				double dist = dijkstra.getDistance(sim.nodeToVertex(uav.getNavigationBehaviour().getDestination().getNode()));
-				if(dist < minDist) {
-					minDist = dist;
-					closestUAV = uav;
-				}
-			}
-		}
-		
-		if(closestUAV != null) {
-			LinkedList<EdgeNodeLocation> nextLocations = new LinkedList<EdgeNodeLocation>();
-			Node n = closestUAV.getNavigationBehaviour().getDestination().getNode();
-			List<Vertex> vertices = dijkstra.getShortestPath(sim.nodeToVertex(n));
-			for(int i = 0; i < vertices.size()-1; i++) {
-				Vertex v1 = vertices.get(i),
-						v2 = vertices.get(i+1);
-				nextLocations.addFirst(new EdgeNodeLocation((InspectableEdge)sim.network.getEdge(v2.mapsTo, v1.mapsTo), v1.mapsTo));
-			}
+		List<UAV> available = getAvailableUAVs();
+		ShortestPath path = getPathToNearestUAV(available, node);
+		if(path != null) {
+			LinkedList<EdgeNodeLocation> nextLocations = toLocations(path);
 			if(!nextLocations.isEmpty())
-				closestUAV.inspect(nextLocations);
+				getUAVWithDestination(available, path.getTarget()).inspect(nextLocations);
+		}
+	}
+	
+	/**
+	 * Returns the UAVs that can be sent to inspect an element, i.e. the UAVs that did not crash and are not inspecting on command already.
+	 */
+	private List<UAV> getAvailableUAVs() {
+		List<UAV> available = new ArrayList<UAV>();
+		for(UAV uav : uavs)
+			if(!uav.hasCrashed() && uav.getJobDescription() != JobDescription.INSPECTING_ON_COMMAND)
+				available.add(uav);
+		return available;
+	}
+	
+	/**
+	 * Searches the shortest path from the given nodes to the nearest destination of the given UAVs.
+	 * One search is started from all nodes at once, which stops at the first destination of a UAV it reaches.
+	 * @param uavs The UAVs to search
+	 * @param nodes The nodes to start from
+	 * @return The shortest path from one of the nodes to the nearest destination of a UAV, or null if none can be reached
+	 */
+	private ShortestPath getPathToNearestUAV(List<UAV> uavs, Node... nodes) {
+		if(uavs.isEmpty())
+			return null;
+		CompactGraph graph = sim.getGraph();
+		int[] destinations = new int[uavs.size()];
+		for(int i = 0; i < destinations.length; i++)
+			destinations[i] = graph.getIndex(sim.nodeToVertex(uavs.get(i).getNavigationBehaviour().getDestination().getNode()));
+		int[] sources = new int[nodes.length];
+		for(int i = 0; i < nodes.length; i++)
+			sources[i] = graph.getIndex(sim.nodeToVertex(nodes[i]));
+		return graph.searchNearest(sources, destinations);
+	}
+	
+	/**
+	 * Returns the first of the given UAVs that has the vertex with the given index as destination.
+	 */
+	private UAV getUAVWithDestination(List<UAV> uavs, int vertex) {
+		for(UAV uav : uavs)
+			if(sim.nodeToVertex(uav.getNavigationBehaviour().getDestination().getNode()) == sim.getGraph().getVertex(vertex))
+				return uav;
+		throw new IllegalStateException("No UAV has the vertex " + sim.getGraph().getVertex(vertex) + " as destination");
+	}
+	
+	/**
+	 * Converts the given path from a node to the destination of a UAV to the locations the UAV has to fly to in order to reach that node.
+	 */
+	private LinkedList<EdgeNodeLocation> toLocations(ShortestPath path) {
+		LinkedList<EdgeNodeLocation> nextLocations = new LinkedList<EdgeNodeLocation>();
+		for(int i = 0; i < path.getNbVertices()-1; i++) {
+			Node n1 = sim.getGraph().getVertex(path.getVertex(i)).mapsTo,
+					n2 = sim.getGraph().getVertex(path.getVertex(i+1)).mapsTo;
+			nextLocations.addFirst(new EdgeNodeLocation((InspectableEdge)sim.network.getEdge(n2, n1), n1));
 		}
+		return nextLocations;
 	}
 
 	/**
@@ -234,6 +298,7 @@ public class UAVController {
 	 */
 	public void clear() {
 		uavs.clear();
+		broadcastGrid = null;
 	}
 
 	public int getNbOfUAVs() {
@@ -17,7 +17,7 @@ import uav.navigation.aco.LNIACOImpl;
  */
 public class ACONavigation extends SimpleStartLocationNavigation {
 	
-	public static double ALPHA = 12.64, BETA = 9.78;
+	public static final double DEFAULT_ALPHA = 12.64, DEFAULT_BETA = 9.78;
 	public static final ACOImpl DEFAULT_IMPL = new LNIACOImpl();
 	private double alpha, beta;
 	private ACOImpl acoStrategy;
@@ -31,7 +31,7 @@ public class ACONavigation extends SimpleStartLocationNavigation {
 	}
 	
 	public ACONavigation() {
-		this(ALPHA, BETA);
+		this(DEFAULT_ALPHA, DEFAULT_BETA);
 	}
 	
 	public ACONavigation(double alpha, double beta) {
@@ -48,7 +48,7 @@ public class ACONavigation extends SimpleStartLocationNavigation {
 	public EdgeNodeLocation getNextDestination(UAVNetworkSimulation sim, Node currentLocation) {
 		Bag edges = sim.network.getEdges(currentLocation, null);
 		double randomNumber = sim.random.nextDouble(false, true);
-		double[] probabilities = computeProbabilities(sim.network, currentLocation, sim.schedule.getSteps());
+		double[] probabilities = computeProbabilities(sim.network, currentLocation, sim.getCurrentStep());
 		for(int i = 0; i < probabilities.length; i++) {
 			if(randomNumber < probabilities[i]) {
 				return new EdgeNodeLocation((InspectableEdge)edges.get(i), (Node)((InspectableEdge)edges.get(i)).getOtherNode(currentLocation));
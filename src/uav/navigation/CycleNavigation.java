@@ -35,7 +35,7 @@ public class CycleNavigation extends SimpleStartLocationNavigation {
 		Node n = (Node) sim.network.getNode(nodes.get(currentPosition++));
 		currentPosition = currentPosition % nodes.size();
 		if(stepsInCycle == -1 && currentPosition == 0)
-			setStepsInCycle(sim.schedule.getSteps());
+			setStepsInCycle(sim.getCurrentStep());
 		Node n2 = sim.network.getNode(nodes.get(currentPosition));
 
 		if(sim.network.getEdge(n, n2) == null)
@@ -22,7 +22,7 @@ public class IndividualLNINavigation extends SimpleStartLocationNavigation {
 
 	@Override
 	public EdgeNodeLocation getNextDestination(UAVNetworkSimulation sim, Node currentLocation) {
-		inspectionTimes.put(currentlyInspecting, sim.schedule.getSteps());
+		inspectionTimes.put(currentlyInspecting, sim.getCurrentStep());
 		
 		Bag edges = sim.network.getEdges(currentLocation, null);
 		InspectableEdge nextEdge = null;
@@ -23,8 +23,8 @@ public class InterUAVLNINavigation extends SimpleStartLocationNavigation {
 
 	@Override
 	public EdgeNodeLocation getNextDestination(UAVNetworkSimulation sim, Node currentLocation) {
-		sim.getUAVController().sendInspectionMessage(currentLocation.getLocation(), currentlyInspecting, sim.schedule.getSteps());
-		inspectionTimes.put(currentlyInspecting, sim.schedule.getSteps());
+		sim.getUAVController().sendInspectionMessage(currentLocation.getLocation(), currentlyInspecting, sim.getCurrentStep());
+		inspectionTimes.put(currentlyInspecting, sim.getCurrentStep());
 		
 		Bag edges = sim.network.getEdges(currentLocation, null);
 		InspectableEdge nextEdge = null;
@@ -38,7 +38,7 @@ public class InterUAVLNINavigation extends SimpleStartLocationNavigation {
 		currentlyInspecting = nextEdge;
 		//Send message for new edge we are going to inspect, even if we did not inspect it yet
 		//Like this, we can prevent other UAVs from starting to inspect this edge
-		sim.getUAVController().sendInspectionMessage(currentLocation.getLocation(), currentlyInspecting, sim.schedule.getSteps());
+		sim.getUAVController().sendInspectionMessage(currentLocation.getLocation(), currentlyInspecting, sim.getCurrentStep());
 		destination = new EdgeNodeLocation(nextEdge, (Node)nextEdge.getOtherNode(currentLocation));
 		return destination;
 	}
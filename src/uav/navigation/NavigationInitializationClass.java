@@ -32,6 +32,10 @@ public class NavigationInitializationClass {
 		}
 	}
 
+	public boolean hasParameters() {
+		return params.length > 0;
+	}
+
 	public String getSimpleName() {
 		return navigationBehaviour.getSimpleName();
 	}
@@ -3,58 +3,68 @@ package util.algorithms;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
+import util.algorithms.dijkstra.CompactGraph;
+import util.algorithms.dijkstra.Edge;
+import util.algorithms.dijkstra.Position;
+import util.algorithms.dijkstra.ShortestPath;
+import util.algorithms.dijkstra.ShortestPathTree;
+import util.algorithms.dijkstra.Vertex;
+import util.algorithms.matching.BlossomOddVertexMatcher;
+import util.algorithms.matching.GreedyOddVertexMatcher;
+import util.algorithms.matching.OddVertexDistances;
+import util.algorithms.matching.OddVertexMatcher;
 import edu.princeton.cs.algs4.EulerianCycle;
 import edu.princeton.cs.algs4.Graph;
 
 /**
  * Class for finding a cycle in an undirected graph that tries to approximate the optimal Chinese Postman tour.
- * 
+ *
+ * The vertices with an odd degree are paired and the shortest path between the vertices of each pair is added to the graph,
+ * after which every vertex has an even degree and an Eulerian cycle can be found.
+ * Only the shortest paths between the odd vertices are needed, so Dijkstra searches are done from the odd vertices instead of
+ * computing the shortest paths between all vertices. For each odd vertex only the distances to its nearest odd vertices are kept,
+ * so memory use is linear in the size of the graph.
+ *
+ * The odd vertices are paired by an {@link OddVertexMatcher}. By default, the optimal pairing is searched with the blossom algorithm
+ * if the graph has few enough odd vertices, otherwise a greedy pairing is improved with 2-opt swaps.
+ *
  * Based on the CPP class by Harold Thimbleby for directed graphs, see <a href="https://www3.cs.stonybrook.edu/~algorith/implement/cpp/distrib/CPP.java">https://www3.cs.stonybrook.edu/~algorith/implement/cpp/distrib/CPP.java</a>.
  *
  * @author Harold Thimbleby, 2001, 2, 3
  * @author Wietse Buseyne, 2016
  */
+public class UndirectedGraphCycleFinder {
+
+	private static final int NB_OF_NEAREST_ODD_VERTICES = 10;
 
-@SuppressWarnings("rawtypes")
-public class UndirectedGraphCycleFinder {	
-	
 	int N; // number of vertices
-	int delta[]; // deltas of vertices
-	int neg[], pos[]; // unbalanced vertices
-	List<Integer> odd = new ArrayList<Integer>();
-	int arcs[][]; // adjacency matrix, counts arcs between vertices
-	int f[][]; // repeated arcs in CPT
-	float c[][]; // costs of cheapest arcs or paths
-	Vector label[][]; // vectors of labels of arcs (for each vertex pair) 
-	String cheapestLabel[][]; // labels of cheapest arcs
-	boolean defined[][]; // whether path cost is defined between vertices
-	int path[][]; // spanning tree of the graph
+	int delta[]; // degrees of vertices
+	List<Integer> odd = new ArrayList<Integer>(); // vertices with an odd degree
+	List<Vertex> vertices; // the graph to search shortest paths in
+	CompactGraph compactGraph;
+	OddVertexDistances oddDistances; // distances between the odd vertices
+	OddVertexMatcher matcher = null; // null to choose a matcher based on the number of odd vertices
 	float basicCost; // total cost of traversing each arc once
 	Graph graph;
 	List<Integer> cycle = null;
-	
-	
+
+
 	public UndirectedGraphCycleFinder(int vertices) {
 		if((N = vertices) <= 0)
 			throw new IllegalArgumentException("The number of vertices must be strictly positivey");
 		delta = new int[N];
-		defined = new boolean[N][N];
-		label = new Vector[N][N];
-		c = new float[N][N];
-		f = new int[N][N];
-		arcs = new int[N][N];
-		cheapestLabel = new String[N][N];
-		path = new int[N][N];
+		this.vertices = new ArrayList<Vertex>(N);
+		for(int i = 0; i < N; i++)
+			this.vertices.add(new Vertex(new Position(0, 0), null));
 		basicCost = 0;
 		graph = new Graph(vertices);
 	}
-	
-	public void solve() 	{	
-		leastCostPaths();
-		checkValid();
+
+	public void solve() 	{
+		compactGraph = new CompactGraph(vertices);
 		findOdd();
+		leastCostPaths();
 		for(Pair<Integer> p : getRepeatedEdges()) {
 			graph.addEdge(p.first(), p.second());
 		}
@@ -64,97 +74,102 @@ public class UndirectedGraphCycleFinder {
         	cycle.add(i);
         cycle.remove(cycle.size()-1);
 	}
-	
+
 	public List<Integer> getCycle() {
         return cycle;
 	}
-	
+
+	/**
+	 * Returns the arcs that have to be traversed a second time, i.e. the arcs on the shortest paths between the paired odd vertices.
+	 * The paths are searched again, which is cheaper than keeping the shortest path trees of all odd vertices.
+	 * @return The repeated arcs
+	 */
 	public List<Pair<Integer>> getRepeatedEdges() {
 		List<Pair<Integer>> repeatedEdges = new ArrayList<Pair<Integer>>();
 		for(Pair<Integer> pair : getPairing()) {
-			int  u = pair.first(), v = pair.second();
-			for( int p; u != v; u = p ) { // break down path into its arcs
-				p = path[u][v];
-				repeatedEdges.add(new Pair<Integer>(u, p));
-			}
+			ShortestPath path = compactGraph.searchNearest(new int[]{pair.first()}, new int[]{pair.second()});
+			for(int i = 0; i < path.getNbVertices()-1; i++) // break down path into its arcs
+				repeatedEdges.add(new Pair<Integer>(path.getVertex(i), path.getVertex(i+1)));
 		}
 		return repeatedEdges;
 	}
-	
+
 	public void findOdd() {
+		odd.clear();
 		for(int i = 0; i < N; i++) // initialise sets
 			if(delta[i] %2 != 0)
 				odd.add(i);
 	}
-	
+
 	/**
-	 * Returns a pairing of all the odd edges.
-	 * If this method is be optimized to return the optimal pairing, this class would always find the optimal cycle as well.
-	 * @return A list of pairs of the odd edges.
+	 * Returns a pairing of all the odd vertices, made by the matcher of this class.
+	 * @return A list of pairs of the odd vertices.
 	 */
-	private  List<Pair<Integer>> getPairing() {
+	private List<Pair<Integer>> getPairing() {
+		OddVertexMatcher matcher = this.matcher;
+		if(matcher == null) {
+			BlossomOddVertexMatcher exact = new BlossomOddVertexMatcher();
+			matcher = odd.size() <= exact.getMaxVertices() ? exact : new GreedyOddVertexMatcher();
+		}
+		int[] mate = matcher.match(oddDistances);
 		List<Pair<Integer>> bestPairing = new ArrayList<Pair<Integer>>();
-		for(int i = 0; i < odd.size()-1; i+=2)
-			bestPairing.add(new Pair<Integer>(odd.get(i), odd.get(i+1)));
+		for(int i = 0; i < mate.length; i++)
+			if(i < mate[i])
+				bestPairing.add(new Pair<Integer>(odd.get(i), odd.get(mate[i])));
 		return bestPairing;
 	}
-	
-	@SuppressWarnings("unchecked")
-	public UndirectedGraphCycleFinder addArc(String lab, int u, int v, float cost){	
-		if( !defined[u][v] ) label[u][v] = new Vector();
-	
-		if( !defined[v][u] ) label[v][u] = new Vector();
-		
-		label[u][v].addElement(lab); 
-		
-		label[v][u].addElement(lab+"'"); 
-		
+
+	/**
+	 * Sets the strategy used to pair the odd vertices.
+	 * @param matcher The strategy to pair the odd vertices, or null to choose one based on the number of odd vertices
+	 */
+	public void setMatcher(OddVertexMatcher matcher) {
+		this.matcher = matcher;
+	}
+
+	/**
+	 * Adds an arc between the given vertices.
+	 * @param lab The label of the arc (not used)
+	 * @param u The first vertex of the arc
+	 * @param v The second vertex of the arc
+	 * @param cost The cost of traversing the arc
+	 * @return This object
+	 */
+	public UndirectedGraphCycleFinder addArc(String lab, int u, int v, float cost){
+		if(u < 0 || u >= N || v < 0 || v >= N)
+			throw new IllegalArgumentException("The vertices of an arc must be between 0 and " + (N-1));
+		if(cost < 0)
+			throw new IllegalArgumentException("The cost of an arc must be positive");
+		vertices.get(u).addBidirectionalEdge(new Edge(vertices.get(v), cost));
+
 		basicCost += cost;
-		if( !defined[u][v] || c[u][v] > cost )
-		{	c[u][v] = cost;
-			cheapestLabel[u][v] = lab;
-			defined[u][v] = true;
-			path[u][v] = v;
-			
-			c[v][u] = cost;
-			cheapestLabel[v][u] = lab+"'";
-			defined[v][u] = true;
-			path[v][u] = u;
-		}
-		arcs[u][v]++;
 		delta[u]++;
-
-		arcs[v][u]++;
 		delta[v]++;
-		
+
 		graph.addEdge(u, v);
 		return this;
 	}
-	
-	/** Floyd-Warshall algorithm
-	 *  Assumes no negative self-cycles.
-	 *  Finds least cost paths or terminates on finding any non-trivial negative cycle.
+
+	/**
+	 * Searches the nearest odd vertices of every odd vertex and keeps the costs of the paths to them.
+	 * Also checks if the graph is connected.
 	 */
-	private void leastCostPaths() {	
-		for( int k = 0; k < N; k++ )
-			for( int i = 0; i < N; i++ )
-				if( defined[i][k] )
-					for( int j = 0; j < N; j++ )
-						if( defined[k][j]
-						    && (!defined[i][j] || c[i][j] > c[i][k]+c[k][j]) )
-						{	path[i][j] = path[i][k];
-							c[i][j] = c[i][k]+c[k][j];
-							defined[i][j] = true;
-							if( i == j && c[i][j] < 0 ) return; // stop on negative cycle
-						}
+	private void leastCostPaths() {
+		ShortestPathTree tree = compactGraph.search(0);
+		for(int v = 0; v < N; v++)
+			if(tree.getDistance(v) == Double.MAX_VALUE)
+				throw new IllegalStateException("Graph is not connected");
+		int[] oddVertices = new int[odd.size()];
+		for(int i = 0; i < oddVertices.length; i++)
+			oddVertices[i] = odd.get(i);
+		oddDistances = new OddVertexDistances(compactGraph, oddVertices, NB_OF_NEAREST_ODD_VERTICES);
 	}
 
-	private void checkValid() {	
-		for( int i = 0; i < N; i++ ) {	
-			for( int j = 0; j < N; j++ )
-				if( !defined[i][j] ) throw new Error("Graph is not strongly connected");
-			if( c[i][i] < 0 ) throw new Error("Graph has a negative cycle");
-		}
+	/**
+	 * Returns the total cost of traversing each arc once.
+	 */
+	public float getBasicCost() {
+		return basicCost;
 	}
-	
-}
\ No newline at end of file
+
+}
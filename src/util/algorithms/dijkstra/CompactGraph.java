@@ -0,0 +1,153 @@
+package util.algorithms.dijkstra;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, int-indexed copy of a graph of vertices, stored in compressed sparse row form.
+ * The edges of the vertex with index i are stored from offsets[i] up to offsets[i+1] in the targets and weights arrays,
+ * so searches walk primitive arrays instead of the linked lists of edges of the vertices.
+ *
+ * Searches never change the graph or its vertices and every thread gets its own search state,
+ * so several threads can query the same graph at the same time.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class CompactGraph {
+
+	private final Vertex[] vertices;
+	private final Map<Vertex, Integer> indices = new IdentityHashMap<Vertex, Integer>();
+	final int[] offsets, targets;
+	final double[] weights;
+	private final ThreadLocal<ShortestPathSearch> searches = new ThreadLocal<ShortestPathSearch>() {
+		@Override
+		protected ShortestPathSearch initialValue() {
+			return new ShortestPathSearch(CompactGraph.this);
+		}
+	};
+
+	/**
+	 * Creates a compact copy of the graph formed by the given vertices and their edges.
+	 * The vertices get their index in the given list as index in the graph.
+	 * @param vertices The vertices of the graph
+	 * @throws IllegalArgumentException If an edge points to a vertex that is not in the given list
+	 */
+	public CompactGraph(List<Vertex> vertices) {
+		this.vertices = vertices.toArray(new Vertex[vertices.size()]);
+		int nbOfEdges = 0;
+		for(int i = 0; i < this.vertices.length; i++) {
+			indices.put(this.vertices[i], i);
+			nbOfEdges += this.vertices[i].getEdges().size();
+		}
+		offsets = new int[this.vertices.length + 1];
+		targets = new int[nbOfEdges];
+		weights = new double[nbOfEdges];
+		int e = 0;
+		for(int i = 0; i < this.vertices.length; i++) {
+			offsets[i] = e;
+			for(Edge edge : this.vertices[i].getEdges()) {
+				Integer target = indices.get(edge.getTarget());
+				if(target == null)
+					throw new IllegalArgumentException("The vertex " + this.vertices[i] + " has an edge to a vertex outside the graph");
+				targets[e] = target;
+				weights[e] = edge.getWeight();
+				e++;
+			}
+		}
+		offsets[this.vertices.length] = e;
+	}
+
+	/**
+	 * Creates a compact copy of the graph formed by all vertices that can be reached from the given vertex.
+	 * @param start The vertex to start from
+	 * @return The graph of all vertices reachable from the given vertex
+	 */
+	public static CompactGraph reachableFrom(Vertex start) {
+		List<Vertex> vertices = new ArrayList<Vertex>();
+		Map<Vertex, Boolean> found = new IdentityHashMap<Vertex, Boolean>();
+		vertices.add(start);
+		found.put(start, true);
+		for(int i = 0; i < vertices.size(); i++)
+			for(Edge e : vertices.get(i).getEdges())
+				if(found.put(e.getTarget(), true) == null)
+					vertices.add(e.getTarget());
+		return new CompactGraph(vertices);
+	}
+
+	public int getNbVertices() {
+		return vertices.length;
+	}
+
+	public Vertex getVertex(int index) {
+		return vertices[index];
+	}
+
+	/**
+	 * Checks if the given vertex is part of this graph.
+	 * @param vertex The vertex to check
+	 * @return True if the vertex is in this graph, False otherwise
+	 */
+	public boolean contains(Vertex vertex) {
+		return indices.containsKey(vertex);
+	}
+
+	/**
+	 * Returns the index of the given vertex in this graph.
+	 * @param vertex The vertex to get the index of
+	 * @return The index of the vertex
+	 * @throws IllegalArgumentException If the vertex is not part of this graph
+	 */
+	public int getIndex(Vertex vertex) {
+		Integer index = indices.get(vertex);
+		if(index == null)
+			throw new IllegalArgumentException("The vertex " + vertex + " is not part of the graph");
+		return index;
+	}
+
+	/**
+	 * Searches the shortest paths from the given vertex to all other vertices in this graph.
+	 * @param source The vertex to start the search from
+	 * @return The tree of shortest paths from the given vertex
+	 */
+	public ShortestPathTree getShortestPathTree(Vertex source) {
+		return search(getIndex(source));
+	}
+
+	/**
+	 * Searches the shortest paths from the vertex with the given index to all other vertices in this graph.
+	 * The search state of the calling thread is reused, so no memory proportional to the graph is allocated except for the result.
+	 * @param source The index of the vertex to start the search from
+	 * @return The tree of shortest paths from the given vertex
+	 */
+	public ShortestPathTree search(int source) {
+		return searches.get().search(source);
+	}
+
+	/**
+	 * Searches the shortest path from any of the given sources to the nearest of the given targets.
+	 * The search stops as soon as the nearest target is found, so its cost depends on the distance to that target instead of the size of the graph.
+	 * @param sources The indices of the vertices to start from
+	 * @param targets The indices of the vertices to search
+	 * @return The shortest path from one of the sources to the nearest target, or null if no target can be reached
+	 */
+	public ShortestPath searchNearest(int[] sources, int[] targets) {
+		return searches.get().searchNearest(sources, targets);
+	}
+
+	/**
+	 * Searches the targets nearest to the given source, in order of their distance.
+	 * See {@link ShortestPathSearch#searchNearest(int, int[], int[], double[])}.
+	 * @param source The index of the vertex to start from
+	 * @param targets The indices of the vertices to search
+	 * @param nearest The array to put the indices of the nearest targets in, its length is the number of targets to search
+	 * @param distances The array to put the distances to the nearest targets in
+	 * @return The number of targets found
+	 */
+	public int searchNearest(int source, int[] targets, int[] nearest, double[] distances) {
+		return searches.get().searchNearest(source, targets, nearest, distances);
+	}
+
+}
@@ -3,41 +3,38 @@ package util.algorithms.dijkstra;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 
 /**
  * A class for finding the shortest path through a graph using the Dijkstra's shortest path algorithm. 
+ * The search runs on a compact copy of the graph and does not change the vertices, so no reset is needed between searches
+ * and several searches on the same graph can run at the same time.
  * @author Wietse Buseyne
  */
 public class Dijkstra {
 	
+	private final CompactGraph graph;
+	private final ShortestPathTree tree;
+	
 	/**
 	 * Searches for the shortest path from the given start vertex to all other vertices in the graph.
 	 * If two paths have the same cost, the algorithm will prefer the shortest path.
+	 * A compact copy of all vertices reachable from the start is made first, 
+	 * so searches that are repeated on the same graph should use {@link #Dijkstra(CompactGraph, Vertex)}.
 	 * @param start The vertex to start the search from.
 	 */
 	public Dijkstra(Vertex start) {
-		start.distance = 0;
-		start.previous = null;
-		
-		PriorityQueue<Vertex> unvisited = new PriorityQueue<>();
-		unvisited.add(start);
-		
-		Vertex current;
-		while (!unvisited.isEmpty()) {
-			//Explore all paths from start and don't give end to stop at, so shorter path with same cost can be found
-			current = unvisited.poll();
-			
-			for(Edge e : current.edges) {
-				Vertex v = e.getTarget();
-				if(current.distance + e.getWeight() < v.distance) {
-					unvisited.remove(v);
-					v.distance = current.distance + e.getWeight();
-					v.previous = current;
-					unvisited.add(v);
-				} 
-			}
-		}
+		this(CompactGraph.reachableFrom(start), start);
+	}
+	
+	/**
+	 * Searches for the shortest path from the given start vertex to all other vertices in the given graph.
+	 * If two paths have the same cost, the algorithm will prefer the shortest path.
+	 * @param graph The graph to search in.
+	 * @param start The vertex to start the search from.
+	 */
+	public Dijkstra(CompactGraph graph, Vertex start) {
+		this.graph = graph;
+		tree = graph.getShortestPathTree(start);
 	}
 	
 	/**
@@ -47,21 +44,24 @@ public class Dijkstra {
 	 */
 	public List<Vertex> getShortestPath(Vertex end) {
 		LinkedList<Vertex> path = new LinkedList<>();
-
-		for(Vertex v = end; v != null; v = v.previous) {
-			path.addFirst(v);
+		if(!graph.contains(end)) {
+			path.add(end);
+			return path;
 		}
-		
+		for(int v : tree.getPath(graph.getIndex(end)))
+			path.add(graph.getVertex(v));
 		return path;
 	}
 	
 	/**
 	 * Returns the length of the shortest path from the start of this object to the given end vertex.
 	 * @param end The vertex to navigate to.
-	 * @return The length of the shortest path from the start vertex to the given end vertex.
+	 * @return The length of the shortest path from the start vertex to the given end vertex, or Double.MAX_VALUE if it cannot be reached.
 	 */
 	public double getDistance(Vertex end) {
-		return end.distance;
+		if(!graph.contains(end))
+			return Double.MAX_VALUE;
+		return tree.getDistance(graph.getIndex(end));
 	}
 	
 	/**
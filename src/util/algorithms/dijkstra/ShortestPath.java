@@ -0,0 +1,50 @@
+package util.algorithms.dijkstra;
+
+/**
+ * An immutable shortest path through a compact graph, as the indices of the vertices on the path and its length.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class ShortestPath {
+
+	private final int[] vertices;
+	private final double length;
+
+	public ShortestPath(int[] vertices, double length) {
+		if(vertices.length == 0)
+			throw new IllegalArgumentException("A path must contain at least one vertex");
+		this.vertices = vertices;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the index of the first vertex of the path.
+	 */
+	public int getSource() {
+		return vertices[0];
+	}
+
+	/**
+	 * Returns the index of the last vertex of the path.
+	 */
+	public int getTarget() {
+		return vertices[vertices.length-1];
+	}
+
+	public int getNbVertices() {
+		return vertices.length;
+	}
+
+	/**
+	 * Returns the index of the vertex at the given position on the path, starting from the source.
+	 */
+	public int getVertex(int i) {
+		return vertices[i];
+	}
+
+	public double getLength() {
+		return length;
+	}
+
+}
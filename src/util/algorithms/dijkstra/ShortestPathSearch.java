@@ -0,0 +1,230 @@
+package util.algorithms.dijkstra;
+
+import java.util.Arrays;
+
+/**
+ * The reusable state of a Dijkstra search over a compact graph.
+ * All state is kept in primitive arrays that are allocated once, and the unvisited vertices are kept in an indexed binary heap,
+ * so decreasing the distance of a vertex costs O(log n) instead of the linear removal from a priority queue.
+ * The state of a vertex is only reset when a search reaches it, so a search that stops early only costs the vertices it visited.
+ *
+ * A search object must only be used by one thread at a time. {@link CompactGraph} keeps one per thread.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class ShortestPathSearch {
+
+	private static final int SETTLED = -2, UNVISITED = -1;
+
+	private final CompactGraph graph;
+	private final double[] distance;
+	private final int[] hops, previous;
+	//The heap of vertices to visit and the position of each vertex in it (or SETTLED/UNVISITED)
+	private final int[] heap, heapPosition;
+	private int heapSize;
+	//The state of a vertex belongs to the current search only if its visited stamp equals the current stamp
+	private final int[] visited, target;
+	private int stamp = 0;
+
+	public ShortestPathSearch(CompactGraph graph) {
+		this.graph = graph;
+		int n = graph.getNbVertices();
+		distance = new double[n];
+		hops = new int[n];
+		previous = new int[n];
+		heap = new int[n];
+		heapPosition = new int[n];
+		visited = new int[n];
+		target = new int[n];
+	}
+
+	/**
+	 * Searches the shortest paths from the given vertex to all other vertices in the graph.
+	 * If two paths have the same cost, the path with the least edges is preferred.
+	 * @param source The index of the vertex to start the search from
+	 * @return The tree of shortest paths from the given vertex
+	 */
+	public ShortestPathTree search(int source) {
+		start(new int[]{source});
+		run(null);
+		double[] distances = new double[distance.length];
+		int[] previous = new int[distance.length];
+		for(int v = 0; v < distance.length; v++) {
+			distances[v] = visited[v] == stamp ? distance[v] : Double.MAX_VALUE;
+			previous[v] = visited[v] == stamp ? this.previous[v] : -1;
+		}
+		return new ShortestPathTree(source, distances, previous);
+	}
+
+	/**
+	 * Searches the shortest path from any of the given sources to the nearest of the given targets.
+	 * The search stops as soon as the first target is reached, so only the vertices closer to the sources than that target are visited.
+	 * If two paths have the same cost, the path with the least edges is preferred.
+	 * @param sources The indices of the vertices to start the search from
+	 * @param targets The indices of the vertices to search
+	 * @return The shortest path from one of the sources to the nearest target, or null if no target can be reached
+	 */
+	public ShortestPath searchNearest(int[] sources, int[] targets) {
+		start(sources);
+		for(int t : targets) {
+			checkIndex(t);
+			target[t] = stamp;
+		}
+		int[] nearest = new int[1];
+		if(run(nearest) == 0)
+			return null;
+		int found = nearest[0];
+		int length = 0;
+		for(int v = found; v != -1; v = previous[v])
+			length++;
+		int[] path = new int[length];
+		for(int v = found; v != -1; v = previous[v])
+			path[--length] = v;
+		return new ShortestPath(path, distance[found]);
+	}
+
+	/**
+	 * Searches the targets nearest to the given source, in order of their distance.
+	 * The search stops as soon as enough targets are found.
+	 * @param source The index of the vertex to start the search from
+	 * @param targets The indices of the vertices to search
+	 * @param nearest The array to put the indices of the nearest targets in, its length is the number of targets to search
+	 * @param distances The array to put the distances to the nearest targets in, at least as long as nearest
+	 * @return The number of targets found, which is less than requested if not enough targets can be reached
+	 */
+	public int searchNearest(int source, int[] targets, int[] nearest, double[] distances) {
+		start(new int[]{source});
+		for(int t : targets) {
+			checkIndex(t);
+			target[t] = stamp;
+		}
+		int found = run(nearest);
+		for(int i = 0; i < found; i++)
+			distances[i] = distance[nearest[i]];
+		return found;
+	}
+
+	/**
+	 * Clears the state of the previous search and adds the given sources to the heap.
+	 */
+	private void start(int[] sources) {
+		if(++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(visited, 0);
+			Arrays.fill(target, 0);
+			stamp = 1;
+		}
+		heapSize = 0;
+		for(int s : sources) {
+			checkIndex(s);
+			visit(s);
+			if(heapPosition[s] == UNVISITED) {
+				distance[s] = 0;
+				hops[s] = 0;
+				push(s);
+			}
+		}
+	}
+
+	/**
+	 * Settles the vertices in order of distance until the heap is empty or, if requested, enough targets are settled.
+	 * @param found The array to put the settled targets in, or null to settle all vertices
+	 * @return The number of targets that were settled
+	 */
+	private int run(int[] found) {
+		int nbFound = 0;
+		while(heapSize > 0) {
+			int current = poll();
+			if(found != null && target[current] == stamp) {
+				found[nbFound++] = current;
+				if(nbFound == found.length)
+					return nbFound;
+			}
+			for(int e = graph.offsets[current]; e < graph.offsets[current+1]; e++) {
+				int v = graph.targets[e];
+				visit(v);
+				if(heapPosition[v] == SETTLED)
+					continue;
+				double d = distance[current] + graph.weights[e];
+				int h = hops[current] + 1;
+				if(d < distance[v] || (d == distance[v] && h < hops[v])) {
+					distance[v] = d;
+					hops[v] = h;
+					previous[v] = current;
+					if(heapPosition[v] == UNVISITED)
+						push(v);
+					else
+						siftUp(heapPosition[v]);
+				}
+			}
+		}
+		return nbFound;
+	}
+
+	private void visit(int v) {
+		if(visited[v] != stamp) {
+			visited[v] = stamp;
+			distance[v] = Double.MAX_VALUE;
+			hops[v] = Integer.MAX_VALUE;
+			previous[v] = -1;
+			heapPosition[v] = UNVISITED;
+		}
+	}
+
+	private void checkIndex(int v) {
+		if(v < 0 || v >= distance.length)
+			throw new IllegalArgumentException("The graph has no vertex with index " + v);
+	}
+
+	private boolean before(int v1, int v2) {
+		return distance[v1] < distance[v2] || (distance[v1] == distance[v2] && hops[v1] < hops[v2]);
+	}
+
+	private void push(int v) {
+		heap[heapSize] = v;
+		heapPosition[v] = heapSize;
+		siftUp(heapSize++);
+	}
+
+	private int poll() {
+		int first = heap[0];
+		heapPosition[first] = SETTLED;
+		if(--heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapPosition[heap[0]] = 0;
+			siftDown(0);
+		}
+		return first;
+	}
+
+	private void siftUp(int i) {
+		int v = heap[i];
+		while(i > 0) {
+			int parent = (i - 1) / 2;
+			if(!before(v, heap[parent]))
+				break;
+			heap[i] = heap[parent];
+			heapPosition[heap[i]] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		heapPosition[v] = i;
+	}
+
+	private void siftDown(int i) {
+		int v = heap[i];
+		while(2*i + 1 < heapSize) {
+			int child = 2*i + 1;
+			if(child + 1 < heapSize && before(heap[child+1], heap[child]))
+				child++;
+			if(!before(heap[child], v))
+				break;
+			heap[i] = heap[child];
+			heapPosition[heap[i]] = i;
+			i = child;
+		}
+		heap[i] = v;
+		heapPosition[v] = i;
+	}
+
+}
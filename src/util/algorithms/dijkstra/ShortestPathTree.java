@@ -0,0 +1,79 @@
+package util.algorithms.dijkstra;
+
+/**
+ * The immutable result of a shortest path search from one vertex in a compact graph:
+ * the distance to and the previous vertex on the shortest path to every vertex of the graph, by vertex index.
+ * The tree does not refer to the vertices themselves, so it stays valid for every graph with the same structure.
+ * Distances are stored as floats to keep the trees small.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class ShortestPathTree {
+
+	private final int source;
+	private final float[] distance;
+	private final int[] previous;
+
+	ShortestPathTree(int source, double[] distance, int[] previous) {
+		this.source = source;
+		this.distance = new float[distance.length];
+		for(int i = 0; i < distance.length; i++)
+			this.distance[i] = distance[i] == Double.MAX_VALUE ? Float.POSITIVE_INFINITY : (float) distance[i];
+		this.previous = previous;
+	}
+
+	public int getSource() {
+		return source;
+	}
+
+	public int getNbVertices() {
+		return previous.length;
+	}
+
+	/**
+	 * Returns the length of the shortest path from the source to the vertex with the given index.
+	 * @param vertex The index of the vertex
+	 * @return The length of the shortest path, or Double.MAX_VALUE if the vertex cannot be reached
+	 */
+	public double getDistance(int vertex) {
+		return distance[vertex] == Float.POSITIVE_INFINITY ? Double.MAX_VALUE : distance[vertex];
+	}
+
+	/**
+	 * Returns the index of the vertex before the vertex with the given index on the shortest path from the source.
+	 * @param vertex The index of the vertex
+	 * @return The index of the previous vertex, or -1 for the source and vertices that cannot be reached
+	 */
+	public int getPrevious(int vertex) {
+		return previous[vertex];
+	}
+
+	/**
+	 * Returns the indices of the vertices on the shortest path from the source to the vertex with the given index.
+	 * If the vertex cannot be reached, the path only contains the vertex itself.
+	 * @param vertex The index of the vertex to navigate to
+	 * @return The indices of the vertices on the shortest path, starting with the source
+	 */
+	public int[] getPath(int vertex) {
+		int length = 0;
+		for(int v = vertex; v != -1; v = previous[v])
+			length++;
+		int[] path = new int[length];
+		for(int v = vertex; v != -1; v = previous[v])
+			path[--length] = v;
+		return path;
+	}
+
+	/**
+	 * Returns the shortest path from the source to the vertex with the given index.
+	 * @param vertex The index of the vertex to navigate to
+	 * @return The shortest path from the source, or null if the vertex cannot be reached
+	 */
+	public ShortestPath getShortestPath(int vertex) {
+		if(distance[vertex] == Float.POSITIVE_INFINITY)
+			return null;
+		return new ShortestPath(getPath(vertex), distance[vertex]);
+	}
+
+}
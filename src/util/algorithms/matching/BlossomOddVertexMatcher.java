@@ -0,0 +1,581 @@
+package util.algorithms.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pairs the odd vertices optimally, i.e. with the lowest possible total distance, using Edmonds' blossom algorithm for weighted matching.
+ * The algorithm runs in O(n^3) on the complete graph of the n odd vertices, which is kept in memory:
+ * about 33 bytes per pair of odd vertices, or 16 MB for the default maximum of 1000 odd vertices.
+ * Matching more odd vertices is refused, larger graphs should use the {@link GreedyOddVertexMatcher}, whose memory use is linear.
+ *
+ * Based on the maximum weight matching implementation by Joris van Rantwijk, see <a href="http://jorisvr.nl/article/maximum-matching">http://jorisvr.nl/article/maximum-matching</a>.
+ * The distances are converted to integer weights (in meters), so all computations with the dual variables are exact.
+ *
+ * @author Joris van Rantwijk, 2008
+ * @author Wietse Buseyne
+ *
+ */
+public class BlossomOddVertexMatcher implements OddVertexMatcher {
+
+	public static final int DEFAULT_MAX_VERTICES = 1000;
+	private static final double UNITS_PER_KM = 1000;
+
+	private final int maxVertices;
+
+	//The graph
+	private int nvertex, nedge;
+	private int[] edgeFrom, edgeTo, endpoint;
+	private long[] weight;
+	private int[][] neighbend;
+	//The state of the algorithm
+	private int[] mate, label, labelend, inblossom, blossomparent, blossombase, bestedge;
+	private int[][] blossomchilds, blossomendps, blossombestedges;
+	private long[] dualvar;
+	private boolean[] allowedge;
+	private List<Integer> unusedblossoms, queue;
+
+	public BlossomOddVertexMatcher() {
+		this(DEFAULT_MAX_VERTICES);
+	}
+
+	/**
+	 * @param maxVertices The maximum number of odd vertices this matcher accepts
+	 */
+	public BlossomOddVertexMatcher(int maxVertices) {
+		if(maxVertices < 0)
+			throw new IllegalArgumentException("The maximum number of vertices must be positive");
+		this.maxVertices = maxVertices;
+	}
+
+	public int getMaxVertices() {
+		return maxVertices;
+	}
+
+	@Override
+	public synchronized int[] match(OddVertexDistances distances) {
+		int k = distances.size();
+		if(k % 2 != 0)
+			throw new IllegalArgumentException("An odd number of vertices cannot be paired");
+		if(k > maxVertices)
+			throw new IllegalArgumentException("The exact matcher accepts at most " + maxVertices + " odd vertices, the graph has " + k);
+		if(k == 0)
+			return new int[0];
+
+		//The distances are searched one odd vertex at a time, so no table of distances is needed besides the weights
+		nvertex = k;
+		nedge = k*(k-1)/2;
+		edgeFrom = new int[nedge];
+		edgeTo = new int[nedge];
+		weight = new long[nedge];
+		long max = 0;
+		for(int i = 0, e = 0; i < k; i++) {
+			double[] row = distances.getDistances(i);
+			for(int j = i+1; j < k; j++, e++) {
+				if(row[j] == Double.MAX_VALUE)
+					throw new IllegalArgumentException("The odd vertices are not connected");
+				edgeFrom[e] = i;
+				edgeTo[e] = j;
+				weight[e] = Math.round(row[j] * UNITS_PER_KM);
+				max = Math.max(max, weight[e]);
+			}
+		}
+		//Maximize (max + 1 - distance) with a perfect matching, which minimizes the total distance
+		for(int e = 0; e < nedge; e++)
+			weight[e] = max + 1 - weight[e];
+		int[] result = maxWeightMatching(max + 1);
+
+		edgeFrom = edgeTo = endpoint = null;
+		weight = dualvar = null;
+		neighbend = blossomchilds = blossomendps = blossombestedges = null;
+		return result;
+	}
+
+	private long slack(int k) {
+		return dualvar[edgeFrom[k]] + dualvar[edgeTo[k]] - 2 * weight[k];
+	}
+
+	private void blossomLeaves(int b, List<Integer> leaves) {
+		if(b < nvertex)
+			leaves.add(b);
+		else
+			for(int t : blossomchilds[b])
+				blossomLeaves(t, leaves);
+	}
+
+	private List<Integer> blossomLeaves(int b) {
+		List<Integer> leaves = new ArrayList<Integer>();
+		blossomLeaves(b, leaves);
+		return leaves;
+	}
+
+	/**
+	 * Assigns label t to the top-level blossom containing vertex w, coming through the edge with remote endpoint p.
+	 */
+	private void assignLabel(int w, int t, int p) {
+		int b = inblossom[w];
+		label[w] = label[b] = t;
+		labelend[w] = labelend[b] = p;
+		bestedge[w] = bestedge[b] = -1;
+		if(t == 1) {
+			queue.addAll(blossomLeaves(b));
+		} else if(t == 2) {
+			int base = blossombase[b];
+			assignLabel(endpoint[mate[base]], 1, mate[base] ^ 1);
+		}
+	}
+
+	/**
+	 * Traces back from vertices v and w to discover either a new blossom or an augmenting path.
+	 * @return The base vertex of the new blossom, or -1 for an augmenting path
+	 */
+	private int scanBlossom(int v, int w) {
+		List<Integer> path = new ArrayList<Integer>();
+		int base = -1;
+		while(v != -1 || w != -1) {
+			int b = inblossom[v];
+			if((label[b] & 4) != 0) {
+				base = blossombase[b];
+				break;
+			}
+			path.add(b);
+			label[b] = 5;
+			if(labelend[b] == -1) {
+				v = -1;
+			} else {
+				v = endpoint[labelend[b]];
+				b = inblossom[v];
+				v = endpoint[labelend[b]];
+			}
+			if(w != -1) {
+				int t = v;
+				v = w;
+				w = t;
+			}
+		}
+		for(int b : path)
+			label[b] = 1;
+		return base;
+	}
+
+	/**
+	 * Constructs a new blossom with the given base, containing edge k which connects a pair of S vertices.
+	 */
+	private void addBlossom(int base, int k) {
+		int v = edgeFrom[k], w = edgeTo[k];
+		int bb = inblossom[base], bv = inblossom[v], bw = inblossom[w];
+		int b = unusedblossoms.remove(unusedblossoms.size()-1);
+		blossombase[b] = base;
+		blossomparent[b] = -1;
+		blossomparent[bb] = b;
+		List<Integer> path = new ArrayList<Integer>(), endps = new ArrayList<Integer>();
+		while(bv != bb) {
+			blossomparent[bv] = b;
+			path.add(bv);
+			endps.add(labelend[bv]);
+			v = endpoint[labelend[bv]];
+			bv = inblossom[v];
+		}
+		path.add(bb);
+		java.util.Collections.reverse(path);
+		java.util.Collections.reverse(endps);
+		endps.add(2*k);
+		while(bw != bb) {
+			blossomparent[bw] = b;
+			path.add(bw);
+			endps.add(labelend[bw] ^ 1);
+			w = endpoint[labelend[bw]];
+			bw = inblossom[w];
+		}
+		blossomchilds[b] = toArray(path);
+		blossomendps[b] = toArray(endps);
+		label[b] = 1;
+		labelend[b] = labelend[bb];
+		dualvar[b] = 0;
+		for(int leaf : blossomLeaves(b)) {
+			if(label[inblossom[leaf]] == 2)
+				queue.add(leaf);
+			inblossom[leaf] = b;
+		}
+		int[] bestedgeto = new int[2*nvertex];
+		Arrays.fill(bestedgeto, -1);
+		for(int child : blossomchilds[b]) {
+			List<int[]> nblists = new ArrayList<int[]>();
+			if(blossombestedges[child] == null) {
+				for(int leaf : blossomLeaves(child)) {
+					int[] nblist = new int[neighbend[leaf].length];
+					for(int i = 0; i < nblist.length; i++)
+						nblist[i] = neighbend[leaf][i] / 2;
+					nblists.add(nblist);
+				}
+			} else {
+				nblists.add(blossombestedges[child]);
+			}
+			for(int[] nblist : nblists)
+				for(int e : nblist) {
+					int i = edgeFrom[e], j = edgeTo[e];
+					if(inblossom[j] == b) {
+						int t = i;
+						i = j;
+						j = t;
+					}
+					int bj = inblossom[j];
+					if(bj != b && label[bj] == 1 && (bestedgeto[bj] == -1 || slack(e) < slack(bestedgeto[bj])))
+						bestedgeto[bj] = e;
+				}
+			blossombestedges[child] = null;
+			bestedge[child] = -1;
+		}
+		List<Integer> best = new ArrayList<Integer>();
+		for(int e : bestedgeto)
+			if(e != -1)
+				best.add(e);
+		blossombestedges[b] = toArray(best);
+		bestedge[b] = -1;
+		for(int e : blossombestedges[b])
+			if(bestedge[b] == -1 || slack(e) < slack(bestedge[b]))
+				bestedge[b] = e;
+	}
+
+	/**
+	 * Expands the given top-level blossom.
+	 */
+	private void expandBlossom(int b, boolean endstage) {
+		for(int s : blossomchilds[b]) {
+			blossomparent[s] = -1;
+			if(s < nvertex)
+				inblossom[s] = s;
+			else if(endstage && dualvar[s] == 0)
+				expandBlossom(s, endstage);
+			else
+				for(int leaf : blossomLeaves(s))
+					inblossom[leaf] = s;
+		}
+		if(!endstage && label[b] == 2) {
+			int[] childs = blossomchilds[b], endps = blossomendps[b];
+			int entrychild = inblossom[endpoint[labelend[b] ^ 1]];
+			int j = indexOf(childs, entrychild), jstep, endptrick;
+			if((j & 1) != 0) {
+				j -= childs.length;
+				jstep = 1;
+				endptrick = 0;
+			} else {
+				jstep = -1;
+				endptrick = 1;
+			}
+			int p = labelend[b];
+			while(j != 0) {
+				label[endpoint[p ^ 1]] = 0;
+				label[endpoint[get(endps, j-endptrick) ^ endptrick ^ 1]] = 0;
+				assignLabel(endpoint[p ^ 1], 2, p);
+				allowedge[get(endps, j-endptrick) / 2] = true;
+				j += jstep;
+				p = get(endps, j-endptrick) ^ endptrick;
+				allowedge[p / 2] = true;
+				j += jstep;
+			}
+			int bv = get(childs, j);
+			label[endpoint[p ^ 1]] = label[bv] = 2;
+			labelend[endpoint[p ^ 1]] = labelend[bv] = p;
+			bestedge[bv] = -1;
+			j += jstep;
+			while(get(childs, j) != entrychild) {
+				bv = get(childs, j);
+				if(label[bv] == 1) {
+					j += jstep;
+					continue;
+				}
+				int labelled = -1;
+				for(int leaf : blossomLeaves(bv))
+					if(label[leaf] != 0) {
+						labelled = leaf;
+						break;
+					}
+				if(labelled != -1) {
+					label[labelled] = 0;
+					label[endpoint[mate[blossombase[bv]]]] = 0;
+					assignLabel(labelled, 2, labelend[labelled]);
+				}
+				j += jstep;
+			}
+		}
+		label[b] = labelend[b] = -1;
+		blossomchilds[b] = blossomendps[b] = null;
+		blossombase[b] = -1;
+		blossombestedges[b] = null;
+		bestedge[b] = -1;
+		unusedblossoms.add(b);
+	}
+
+	/**
+	 * Swaps matched and unmatched edges over an alternating path through blossom b between vertex v and the base vertex.
+	 */
+	private void augmentBlossom(int b, int v) {
+		int t = v;
+		while(blossomparent[t] != b)
+			t = blossomparent[t];
+		if(t >= nvertex)
+			augmentBlossom(t, v);
+		int[] childs = blossomchilds[b], endps = blossomendps[b];
+		int i = indexOf(childs, t), j = i, jstep, endptrick;
+		if((i & 1) != 0) {
+			j -= childs.length;
+			jstep = 1;
+			endptrick = 0;
+		} else {
+			jstep = -1;
+			endptrick = 1;
+		}
+		while(j != 0) {
+			j += jstep;
+			t = get(childs, j);
+			int p = get(endps, j-endptrick) ^ endptrick;
+			if(t >= nvertex)
+				augmentBlossom(t, endpoint[p]);
+			j += jstep;
+			t = get(childs, j);
+			if(t >= nvertex)
+				augmentBlossom(t, endpoint[p ^ 1]);
+			mate[endpoint[p]] = p ^ 1;
+			mate[endpoint[p ^ 1]] = p;
+		}
+		blossomchilds[b] = rotate(childs, i);
+		blossomendps[b] = rotate(endps, i);
+		blossombase[b] = blossombase[blossomchilds[b][0]];
+	}
+
+	/**
+	 * Swaps matched and unmatched edges over the augmenting path through edge k.
+	 */
+	private void augmentMatching(int k) {
+		int[][] starts = {{edgeFrom[k], 2*k+1}, {edgeTo[k], 2*k}};
+		for(int[] start : starts) {
+			int s = start[0], p = start[1];
+			while(true) {
+				int bs = inblossom[s];
+				if(bs >= nvertex)
+					augmentBlossom(bs, s);
+				mate[s] = p;
+				if(labelend[bs] == -1)
+					break;
+				int t = endpoint[labelend[bs]];
+				int bt = inblossom[t];
+				s = endpoint[labelend[bt]];
+				int j = endpoint[labelend[bt] ^ 1];
+				if(bt >= nvertex)
+					augmentBlossom(bt, j);
+				mate[j] = labelend[bt];
+				p = labelend[bt] ^ 1;
+			}
+		}
+	}
+
+	/**
+	 * Computes a maximum weight matching of maximum cardinality.
+	 * @param maxweight The maximum weight of the edges
+	 * @return For every vertex the vertex it is matched with, or -1
+	 */
+	private int[] maxWeightMatching(long maxweight) {
+		endpoint = new int[2*nedge];
+		for(int p = 0; p < 2*nedge; p++)
+			endpoint[p] = p % 2 == 0 ? edgeFrom[p/2] : edgeTo[p/2];
+		int[] degree = new int[nvertex];
+		for(int k = 0; k < nedge; k++) {
+			degree[edgeFrom[k]]++;
+			degree[edgeTo[k]]++;
+		}
+		neighbend = new int[nvertex][];
+		for(int v = 0; v < nvertex; v++)
+			neighbend[v] = new int[degree[v]];
+		Arrays.fill(degree, 0);
+		for(int k = 0; k < nedge; k++) {
+			neighbend[edgeFrom[k]][degree[edgeFrom[k]]++] = 2*k+1;
+			neighbend[edgeTo[k]][degree[edgeTo[k]]++] = 2*k;
+		}
+		mate = new int[nvertex];
+		Arrays.fill(mate, -1);
+		label = new int[2*nvertex];
+		labelend = new int[2*nvertex];
+		Arrays.fill(labelend, -1);
+		inblossom = new int[nvertex];
+		for(int v = 0; v < nvertex; v++)
+			inblossom[v] = v;
+		blossomparent = new int[2*nvertex];
+		Arrays.fill(blossomparent, -1);
+		blossomchilds = new int[2*nvertex][];
+		blossombase = new int[2*nvertex];
+		for(int v = 0; v < 2*nvertex; v++)
+			blossombase[v] = v < nvertex ? v : -1;
+		blossomendps = new int[2*nvertex][];
+		bestedge = new int[2*nvertex];
+		Arrays.fill(bestedge, -1);
+		blossombestedges = new int[2*nvertex][];
+		unusedblossoms = new ArrayList<Integer>();
+		for(int b = nvertex; b < 2*nvertex; b++)
+			unusedblossoms.add(b);
+		dualvar = new long[2*nvertex];
+		for(int v = 0; v < nvertex; v++)
+			dualvar[v] = maxweight;
+		allowedge = new boolean[nedge];
+		queue = new ArrayList<Integer>();
+
+		for(int stage = 0; stage < nvertex; stage++) {
+			Arrays.fill(label, 0);
+			Arrays.fill(bestedge, -1);
+			for(int b = nvertex; b < 2*nvertex; b++)
+				blossombestedges[b] = null;
+			Arrays.fill(allowedge, false);
+			queue.clear();
+			for(int v = 0; v < nvertex; v++)
+				if(mate[v] == -1 && label[inblossom[v]] == 0)
+					assignLabel(v, 1, -1);
+			boolean augmented = false;
+			while(true) {
+				while(!queue.isEmpty() && !augmented) {
+					int v = queue.remove(queue.size()-1);
+					for(int p : neighbend[v]) {
+						int k = p / 2, w = endpoint[p];
+						if(inblossom[v] == inblossom[w])
+							continue;
+						long kslack = 0;
+						if(!allowedge[k]) {
+							kslack = slack(k);
+							if(kslack <= 0)
+								allowedge[k] = true;
+						}
+						if(allowedge[k]) {
+							if(label[inblossom[w]] == 0) {
+								assignLabel(w, 2, p ^ 1);
+							} else if(label[inblossom[w]] == 1) {
+								int base = scanBlossom(v, w);
+								if(base >= 0) {
+									addBlossom(base, k);
+								} else {
+									augmentMatching(k);
+									augmented = true;
+									break;
+								}
+							} else if(label[w] == 0) {
+								label[w] = 2;
+								labelend[w] = p ^ 1;
+							}
+						} else if(label[inblossom[w]] == 1) {
+							int b = inblossom[v];
+							if(bestedge[b] == -1 || kslack < slack(bestedge[b]))
+								bestedge[b] = k;
+						} else if(label[w] == 0) {
+							if(bestedge[w] == -1 || kslack < slack(bestedge[w]))
+								bestedge[w] = k;
+						}
+					}
+				}
+				if(augmented)
+					break;
+
+				int deltatype = -1, deltaedge = -1, deltablossom = -1;
+				long delta = 0;
+				for(int v = 0; v < nvertex; v++)
+					if(label[inblossom[v]] == 0 && bestedge[v] != -1) {
+						long d = slack(bestedge[v]);
+						if(deltatype == -1 || d < delta) {
+							delta = d;
+							deltatype = 2;
+							deltaedge = bestedge[v];
+						}
+					}
+				for(int b = 0; b < 2*nvertex; b++)
+					if(blossomparent[b] == -1 && label[b] == 1 && bestedge[b] != -1) {
+						long d = slack(bestedge[b]) / 2;
+						if(deltatype == -1 || d < delta) {
+							delta = d;
+							deltatype = 3;
+							deltaedge = bestedge[b];
+						}
+					}
+				for(int b = nvertex; b < 2*nvertex; b++)
+					if(blossombase[b] >= 0 && blossomparent[b] == -1 && label[b] == 2 && (deltatype == -1 || dualvar[b] < delta)) {
+						delta = dualvar[b];
+						deltatype = 4;
+						deltablossom = b;
+					}
+				if(deltatype == -1) {
+					//No further improvement possible, the matching has maximum cardinality
+					deltatype = 1;
+					delta = Long.MAX_VALUE;
+					for(int v = 0; v < nvertex; v++)
+						delta = Math.min(delta, dualvar[v]);
+					delta = Math.max(0, delta);
+				}
+
+				for(int v = 0; v < nvertex; v++) {
+					if(label[inblossom[v]] == 1)
+						dualvar[v] -= delta;
+					else if(label[inblossom[v]] == 2)
+						dualvar[v] += delta;
+				}
+				for(int b = nvertex; b < 2*nvertex; b++)
+					if(blossombase[b] >= 0 && blossomparent[b] == -1) {
+						if(label[b] == 1)
+							dualvar[b] += delta;
+						else if(label[b] == 2)
+							dualvar[b] -= delta;
+					}
+
+				if(deltatype == 1) {
+					break;
+				} else if(deltatype == 2) {
+					allowedge[deltaedge] = true;
+					int i = edgeFrom[deltaedge];
+					if(label[inblossom[i]] == 0)
+						i = edgeTo[deltaedge];
+					queue.add(i);
+				} else if(deltatype == 3) {
+					allowedge[deltaedge] = true;
+					queue.add(edgeFrom[deltaedge]);
+				} else if(deltatype == 4) {
+					expandBlossom(deltablossom, false);
+				}
+			}
+			if(!augmented)
+				break;
+			for(int b = nvertex; b < 2*nvertex; b++)
+				if(blossomparent[b] == -1 && blossombase[b] >= 0 && label[b] == 1 && dualvar[b] == 0)
+					expandBlossom(b, true);
+		}
+
+		int[] result = new int[nvertex];
+		for(int v = 0; v < nvertex; v++)
+			result[v] = mate[v] >= 0 ? endpoint[mate[v]] : -1;
+		return result;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for(int i = 0; i < array.length; i++)
+			array[i] = list.get(i);
+		return array;
+	}
+
+	private static int indexOf(int[] array, int value) {
+		for(int i = 0; i < array.length; i++)
+			if(array[i] == value)
+				return i;
+		throw new IllegalStateException("Value " + value + " not found");
+	}
+
+	/**
+	 * Returns the element at the given index, where negative indices count from the end (as in Python).
+	 */
+	private static int get(int[] array, int i) {
+		return array[i < 0 ? i + array.length : i];
+	}
+
+	private static int[] rotate(int[] array, int i) {
+		int[] rotated = new int[array.length];
+		for(int j = 0; j < array.length; j++)
+			rotated[j] = array[(i + j) % array.length];
+		return rotated;
+	}
+
+}
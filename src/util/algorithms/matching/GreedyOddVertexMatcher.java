@@ -0,0 +1,123 @@
+package util.algorithms.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pairs the odd vertices with a greedy heuristic followed by 2-opt improvements.
+ * The pairs between each vertex and its nearest odd vertices are sorted by distance and each pair is taken if both vertices are still free.
+ * Vertices that are left are paired with their nearest free vertex.
+ * Afterwards, two pairs (a, b) and (c, d) are replaced by (a, c) and (b, d) as long as this lowers the total distance,
+ * where c is one of the nearest odd vertices of a.
+ * Only the sparse table of nearest odd vertices is used, so memory use stays linear in the number of odd vertices.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class GreedyOddVertexMatcher implements OddVertexMatcher {
+
+	public static final int DEFAULT_MAX_ROUNDS = 20;
+	//Improvements smaller than this are ignored, so rounding errors cannot make pairs swap back and forth
+	private static final double MIN_IMPROVEMENT = 1e-6;
+
+	private final int maxRounds;
+
+	public GreedyOddVertexMatcher() {
+		this(DEFAULT_MAX_ROUNDS);
+	}
+
+	/**
+	 * @param maxRounds The maximum number of times all vertices are checked for a 2-opt improvement
+	 */
+	public GreedyOddVertexMatcher(int maxRounds) {
+		if(maxRounds < 0)
+			throw new IllegalArgumentException("The number of improvement rounds must be positive");
+		this.maxRounds = maxRounds;
+	}
+
+	@Override
+	public int[] match(final OddVertexDistances distances) {
+		int k = distances.size();
+		if(k % 2 != 0)
+			throw new IllegalArgumentException("An odd number of vertices cannot be paired");
+		int[] mate = new int[k];
+		Arrays.fill(mate, -1);
+
+		List<int[]> candidates = new ArrayList<int[]>();
+		for(int i = 0; i < k; i++)
+			for(int n = 0; n < distances.getNeighbours(i).length; n++)
+				if(i < distances.getNeighbours(i)[n])
+					candidates.add(new int[]{i, n});
+		candidates.sort(new Comparator<int[]>() {
+			@Override
+			public int compare(int[] c1, int[] c2) {
+				return Double.compare(distances.getNeighbourDistance(c1[0], c1[1]), distances.getNeighbourDistance(c2[0], c2[1]));
+			}
+		});
+		for(int[] c : candidates) {
+			int i = c[0], j = distances.getNeighbours(i)[c[1]];
+			if(mate[i] == -1 && mate[j] == -1) {
+				mate[i] = j;
+				mate[j] = i;
+			}
+		}
+
+		matchRemaining(distances, mate);
+		improve(distances, mate);
+		return mate;
+	}
+
+	/**
+	 * Pairs every vertex that is still free with its nearest free vertex.
+	 */
+	private void matchRemaining(OddVertexDistances distances, int[] mate) {
+		List<Integer> free = new ArrayList<Integer>();
+		for(int i = 0; i < mate.length; i++)
+			if(mate[i] == -1)
+				free.add(i);
+		while(!free.isEmpty()) {
+			int i = free.remove(free.size()-1);
+			int[] candidates = new int[free.size()];
+			for(int c = 0; c < candidates.length; c++)
+				candidates[c] = free.get(c);
+			int j = distances.getNearest(i, candidates);
+			if(j == -1)
+				throw new IllegalStateException("The odd vertex " + distances.getVertex(i) + " cannot reach any other free odd vertex");
+			free.remove(Integer.valueOf(j));
+			mate[i] = j;
+			mate[j] = i;
+		}
+	}
+
+	/**
+	 * Replaces pairs (a, b) and (c, d) by (a, c) and (b, d) as long as this lowers the total distance.
+	 */
+	private void improve(OddVertexDistances distances, int[] mate) {
+		boolean improved = true;
+		for(int round = 0; round < maxRounds && improved; round++) {
+			improved = false;
+			for(int a = 0; a < mate.length; a++) {
+				int[] neighbours = distances.getNeighbours(a);
+				for(int n = 0; n < neighbours.length; n++) {
+					int b = mate[a], c = neighbours[n], d = mate[c];
+					if(c == b)
+						continue;
+					double current = distances.getDistance(a, b) + distances.getDistance(c, d);
+					//The neighbours are sorted, so no later neighbour can be closer
+					if(distances.getNeighbourDistance(a, n) >= current)
+						break;
+					if(distances.getNeighbourDistance(a, n) + distances.getDistance(b, d) < current - MIN_IMPROVEMENT) {
+						mate[a] = c;
+						mate[c] = a;
+						mate[b] = d;
+						mate[d] = b;
+						improved = true;
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+package util.algorithms.matching;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import util.algorithms.dijkstra.CompactGraph;
+import util.algorithms.dijkstra.ShortestPath;
+import util.algorithms.dijkstra.ShortestPathTree;
+
+/**
+ * A sparse table of the shortest path distances between the odd vertices of a graph.
+ * The odd vertices are numbered from 0 to size()-1. For each of them only the distances to its nearest other odd vertices are stored,
+ * so the memory use is linear in the number of odd vertices. Other distances are searched when they are requested and remembered.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class OddVertexDistances {
+
+	private final CompactGraph graph;
+	private final int[] vertices;
+	private final int[][] neighbours;
+	private final float[][] neighbourDistances;
+	private final Map<Long, Float> searched = new HashMap<Long, Float>();
+	private int[] indexOf;
+
+	/**
+	 * Searches the nearest odd vertices of every odd vertex in the given graph.
+	 * @param graph The graph the odd vertices are in
+	 * @param vertices The indices of the odd vertices in the graph
+	 * @param nbOfNeighbours The number of nearest odd vertices to store for every odd vertex
+	 */
+	public OddVertexDistances(CompactGraph graph, int[] vertices, int nbOfNeighbours) {
+		if(nbOfNeighbours < 0)
+			throw new IllegalArgumentException("The number of neighbours must be positive");
+		this.graph = graph;
+		this.vertices = vertices.clone();
+		neighbours = new int[vertices.length][];
+		neighbourDistances = new float[vertices.length][];
+		int[] nearest = new int[Math.min(nbOfNeighbours, vertices.length - 1) + 1];
+		double[] distances = new double[nearest.length];
+		for(int i = 0; i < vertices.length; i++) {
+			//The vertex itself is always the nearest, so search one more
+			int found = graph.searchNearest(vertices[i], vertices, nearest, distances);
+			neighbours[i] = new int[Math.max(0, found - 1)];
+			neighbourDistances[i] = new float[neighbours[i].length];
+			for(int n = 0, j = 0; n < found; n++)
+				if(nearest[n] != vertices[i]) {
+					neighbours[i][j] = getIndex(nearest[n]);
+					neighbourDistances[i][j++] = (float) distances[n];
+				}
+		}
+	}
+
+	/**
+	 * Returns the number of odd vertices.
+	 */
+	public int size() {
+		return vertices.length;
+	}
+
+	/**
+	 * Returns the index in the graph of the odd vertex with the given number.
+	 */
+	public int getVertex(int i) {
+		return vertices[i];
+	}
+
+	/**
+	 * Returns the nearest odd vertices of the odd vertex with the given number, in order of distance.
+	 */
+	public int[] getNeighbours(int i) {
+		return neighbours[i];
+	}
+
+	/**
+	 * Returns the distance from the odd vertex with the given number to its n-th nearest odd vertex.
+	 */
+	public double getNeighbourDistance(int i, int n) {
+		return neighbourDistances[i][n];
+	}
+
+	/**
+	 * Returns the shortest path distance between the odd vertices with the given numbers.
+	 * @param i The number of the first odd vertex
+	 * @param j The number of the second odd vertex
+	 * @return The distance between the two vertices, or Double.MAX_VALUE if they are not connected
+	 */
+	public double getDistance(int i, int j) {
+		if(i == j)
+			return 0;
+		for(int n = 0; n < neighbours[i].length; n++)
+			if(neighbours[i][n] == j)
+				return neighbourDistances[i][n];
+		for(int n = 0; n < neighbours[j].length; n++)
+			if(neighbours[j][n] == i)
+				return neighbourDistances[j][n];
+		long key = ((long) Math.min(i, j) << 32) | Math.max(i, j);
+		Float distance = searched.get(key);
+		if(distance == null) {
+			ShortestPath path = graph.searchNearest(new int[]{vertices[i]}, new int[]{vertices[j]});
+			distance = path == null ? Float.MAX_VALUE : (float) path.getLength();
+			searched.put(key, distance);
+		}
+		return distance == Float.MAX_VALUE ? Double.MAX_VALUE : distance;
+	}
+
+	/**
+	 * Searches the nearest of the given odd vertices from the given odd vertex.
+	 * @param i The number of the odd vertex to start from
+	 * @param candidates The numbers of the odd vertices to search
+	 * @return The number of the nearest of the candidates, or -1 if none of them can be reached
+	 */
+	public int getNearest(int i, int[] candidates) {
+		int[] targets = new int[candidates.length];
+		for(int c = 0; c < candidates.length; c++)
+			targets[c] = vertices[candidates[c]];
+		ShortestPath path = graph.searchNearest(new int[]{vertices[i]}, targets);
+		return path == null ? -1 : getIndex(path.getTarget());
+	}
+
+	/**
+	 * Searches the distances from the given odd vertex to all odd vertices.
+	 * The distances are not remembered, so the memory use stays linear in the number of odd vertices.
+	 * @param i The number of the odd vertex to start from
+	 * @return For every odd vertex the distance from the given odd vertex, or Double.MAX_VALUE if it cannot be reached
+	 */
+	public double[] getDistances(int i) {
+		ShortestPathTree tree = graph.search(vertices[i]);
+		double[] distances = new double[vertices.length];
+		for(int j = 0; j < vertices.length; j++)
+			distances[j] = tree.getDistance(vertices[j]);
+		return distances;
+	}
+
+	private int getIndex(int vertex) {
+		if(indexOf == null) {
+			indexOf = new int[graph.getNbVertices()];
+			Arrays.fill(indexOf, -1);
+			for(int i = 0; i < vertices.length; i++)
+				indexOf[vertices[i]] = i;
+		}
+		return indexOf[vertex];
+	}
+
+}
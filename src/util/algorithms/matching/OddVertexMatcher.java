@@ -0,0 +1,19 @@
+package util.algorithms.matching;
+
+/**
+ * A strategy to pair the odd vertices of a graph, so that the total distance between the paired vertices is as low as possible.
+ * Used to find the edges that have to be traversed twice in a Chinese Postman tour.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public interface OddVertexMatcher {
+
+	/**
+	 * Pairs all odd vertices in the given table.
+	 * @param distances The distances between the odd vertices, of which there is an even number
+	 * @return For every odd vertex the number of the odd vertex it is paired with
+	 */
+	public int[] match(OddVertexDistances distances);
+
+}
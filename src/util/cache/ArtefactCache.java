@@ -0,0 +1,220 @@
+package util.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import util.parsers.configuration.Configuration;
+
+/**
+ * A directory in which products that are expensive to compute, such as the processed network and the navigation cycle, are stored between runs.
+ * Artefacts are addressed by a key that is a hash of the content of the network file they were derived from, the kind of artefact
+ * and all parameters that affect it. A changed network file or parameter therefore never returns a stale artefact.
+ *
+ * When the total size of the directory exceeds its maximum, the least recently used artefacts are removed.
+ * Artefacts are written to a temporary file first, which is renamed when it is complete. Temporary files that are left behind
+ * by a run that was stopped while writing are removed when the cache is opened.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class ArtefactCache {
+
+	private static final String EXTENSION = ".artefact", TEMP_EXTENSION = ".tmp";
+	//Temporary files older than this (in ms) are no longer being written by any run
+	private static final long STALE_TEMP_AGE = 60 * 60 * 1000;
+	private static final Map<String, ArtefactCache> caches = new HashMap<String, ArtefactCache>();
+	//Hashes of the contents of files, by path, modification time and size
+	private static final Map<String, String> fileHashes = new HashMap<String, String>();
+
+	private final File directory;
+	private final long maxSize;
+
+	/**
+	 * Returns the artefact cache set in the given configuration.
+	 * @param configuration The configuration of the simulation
+	 * @return The artefact cache of the configuration, or null if artefacts should not be cached
+	 */
+	public static ArtefactCache get(Configuration configuration) {
+		if(configuration.artefactCache == null || configuration.artefactCache.isEmpty())
+			return null;
+		return get(configuration.artefactCache, configuration.artefactCacheSize * 1024 * 1024);
+	}
+
+	/**
+	 * Returns the artefact cache in the given directory. All users of the same directory share one instance.
+	 * @param directory The directory of the cache
+	 * @param maxSize The maximum total size of the artefacts in bytes
+	 * @return The artefact cache in the given directory
+	 */
+	public static ArtefactCache get(String directory, long maxSize) {
+		synchronized (caches) {
+			String path = new File(directory).getAbsolutePath();
+			ArtefactCache cache = caches.get(path);
+			if(cache == null || cache.maxSize != maxSize) {
+				cache = new ArtefactCache(new File(path), maxSize);
+				caches.put(path, cache);
+			}
+			return cache;
+		}
+	}
+
+	private ArtefactCache(File directory, long maxSize) {
+		if(maxSize <= 0)
+			throw new IllegalArgumentException("The maximum size of the artefact cache must be strictly positive");
+		this.directory = directory;
+		this.maxSize = maxSize;
+		removeStaleTempFiles();
+	}
+
+	/**
+	 * Removes the temporary files of artefacts that were never completed.
+	 * Only old files are removed, as another run may be writing an artefact to the same directory at this moment.
+	 */
+	private void removeStaleTempFiles() {
+		File[] files = directory.listFiles();
+		if(files == null)
+			return;
+		long staleBefore = System.currentTimeMillis() - STALE_TEMP_AGE;
+		for(File f : files)
+			if(f.getName().endsWith(TEMP_EXTENSION) && f.lastModified() < staleBefore)
+				f.delete();
+	}
+
+	/**
+	 * Returns the key of an artefact derived from the given file.
+	 * @param kind The kind of artefact, including the version of its format
+	 * @param filename The file the artefact is derived from
+	 * @param parameters All parameters that affect the artefact
+	 * @return The key of the artefact
+	 * @throws IOException If the file could not be read
+	 */
+	public String getKey(String kind, String filename, Object... parameters) throws IOException {
+		StringBuilder key = new StringBuilder(kind).append('|').append(hashFile(new File(filename)));
+		for(Object parameter : parameters)
+			key.append('|').append(parameter);
+		return kind + "-" + toHex(digest().digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Reads the artefact with the given key.
+	 * @param key The key of the artefact
+	 * @return The content of the artefact, or null if it is not in the cache
+	 */
+	public byte[] read(String key) {
+		File file = getFile(key);
+		try {
+			byte[] data = Files.readAllBytes(file.toPath());
+			//Mark as recently used
+			file.setLastModified(System.currentTimeMillis());
+			return data;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the given artefact and removes the least recently used artefacts if the cache has become too large.
+	 * Failing to store an artefact is not an error, it will simply be computed again next time.
+	 * @param key The key of the artefact
+	 * @param data The content of the artefact
+	 */
+	public void write(String key, byte[] data) {
+		File temp = null;
+		try {
+			Files.createDirectories(directory.toPath());
+			temp = File.createTempFile(key, TEMP_EXTENSION, directory);
+			Files.write(temp.toPath(), data);
+			Files.move(temp.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			evict();
+		} catch (IOException e) {
+			if(temp != null)
+				temp.delete();
+			System.out.println("Could not store artefact " + key + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Removes the least recently used artefacts until the total size is at most the maximum size.
+	 */
+	private synchronized void evict() {
+		File[] files = directory.listFiles();
+		if(files == null)
+			return;
+		long size = 0;
+		for(File f : files)
+			if(f.getName().endsWith(EXTENSION))
+				size += f.length();
+		if(size <= maxSize)
+			return;
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File f1, File f2) {
+				return Long.compare(f1.lastModified(), f2.lastModified());
+			}
+		});
+		for(int i = 0; i < files.length && size > maxSize; i++) {
+			long length = files[i].length();
+			if(files[i].getName().endsWith(EXTENSION) && files[i].delete())
+				size -= length;
+		}
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	private File getFile(String key) {
+		return new File(directory, key + EXTENSION);
+	}
+
+	private static String hashFile(File file) throws IOException {
+		String id = file.getAbsolutePath() + "|" + file.lastModified() + "|" + file.length();
+		synchronized (fileHashes) {
+			String hash = fileHashes.get(id);
+			if(hash != null)
+				return hash;
+		}
+		MessageDigest digest = digest();
+		try(InputStream in = new FileInputStream(file)) {
+			byte[] buffer = new byte[1 << 16];
+			for(int read; (read = in.read(buffer)) != -1; )
+				digest.update(buffer, 0, read);
+		}
+		String hash = toHex(digest.digest());
+		synchronized (fileHashes) {
+			fileHashes.put(id, hash);
+		}
+		return hash;
+	}
+
+	private static MessageDigest digest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for(byte b : bytes)
+			hex.append(String.format("%02x", b));
+		return hex.toString();
+	}
+
+}
@@ -40,6 +40,56 @@ public class Configuration {
 	
 	public List<Map<String, Object>> eventGenerators = new ArrayList<Map<String,Object>>();
 	public boolean addRechargeNodes = true;
+	public boolean eventDriven = false, skipNonFlyTime = false;
+	public int sweepThreads = 1;
+	//The directory in which processed networks and navigation cycles are stored between runs, empty (the default) to disable, and its maximum size in MB
+	public String artefactCache = "";
+	public long artefactCacheSize = 512;
+	//Whether all inspection events are kept in one log, and how many chunks of events it keeps in memory before writing them to disk
+	public boolean eventLog = false;
+	public int eventLogChunksInMemory = 64;
+	//The number of steps before the last inspection of an element that can be reported on, older inspections are folded into a summary; 0 keeps all inspections
+	public long inspectionRetention = 0;
+	
+	/**
+	 * Returns a copy of this configuration that can be changed without affecting this one, 
+	 * so simulations that run in parallel can each have their own configuration.
+	 * @return A copy of this configuration
+	 */
+	public Configuration copy() {
+		Configuration c = new Configuration();
+		c.network = network;
+		c.steps = steps;
+		c.inspectionMinutesPerDay = inspectionMinutesPerDay;
+		c.inspectionDaysPerMonth = inspectionDaysPerMonth;
+		c.startUAVs = startUAVs;
+		c.navigationStrategies = new ArrayList<Class<? extends UAVNavigationStrategy>>(navigationStrategies);
+		c.nodeInspectionSLAs = nodeInspectionSLAs;
+		c.edgeInspectionSLAs = edgeInspectionSLAs;
+		c.responseTimeSLA = responseTimeSLA;
+		c.averageCoverageGoal = averageCoverageGoal;
+		c.coveragePerSLAGoal = coveragePerSLAGoal;
+		c.numUAVsSteps = numUAVsSteps;
+		c.slaCoverage_time_combined = slaCoverage_time_combined;
+		c.slaCoverage_time_singles = slaCoverage_time_singles;
+		c.slaCoverage_totalPercentage_combined = slaCoverage_totalPercentage_combined;
+		c.uavFlyingTime = uavFlyingTime;
+		c.cyclePercentageTest = cyclePercentageTest;
+		c.alpha = alpha;
+		c.beta = beta;
+		c.uavConfiguration = uavConfiguration.copy();
+		c.eventGenerators = new ArrayList<Map<String,Object>>(eventGenerators);
+		c.addRechargeNodes = addRechargeNodes;
+		c.eventDriven = eventDriven;
+		c.skipNonFlyTime = skipNonFlyTime;
+		c.sweepThreads = sweepThreads;
+		c.artefactCache = artefactCache;
+		c.artefactCacheSize = artefactCacheSize;
+		c.eventLog = eventLog;
+		c.eventLogChunksInMemory = eventLogChunksInMemory;
+		c.inspectionRetention = inspectionRetention;
+		return c;
+	}
 	
 	public List<EventGenerator> getEventGenerators(UAVNetworkSimulation sim) {
 		List<EventGenerator> egs = new ArrayList<EventGenerator>();
@@ -1,5 +1,6 @@
 package util.parsers.configuration;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -24,10 +25,27 @@ import com.google.gson.reflect.TypeToken;
 public class ExperimentDeserializer implements JsonDeserializer<Experiment> {
 
 	private UAVNetworkSimulation sim;
+	private Configuration configuration;
+	private long seed;
 	
+	/**
+	 * Creates a deserializer that creates all experiments with the given simulation.
+	 * @param sim The simulation all experiments will use
+	 */
 	public ExperimentDeserializer(UAVNetworkSimulation sim) {
 		this.sim = sim;
 	}
+	
+	/**
+	 * Creates a deserializer that gives every experiment its own simulation, built from a copy of the given configuration.
+	 * This way, the experiments do not share any state and can be executed in parallel.
+	 * @param configuration The configuration to build the simulations from
+	 * @param seed The seed of the first simulation, the following simulations get subsequent seeds
+	 */
+	public ExperimentDeserializer(Configuration configuration, long seed) {
+		this.configuration = configuration;
+		this.seed = seed;
+	}
 
 	@Override
 	public Experiment deserialize(JsonElement json, Type typeOfT,
@@ -35,6 +53,13 @@ public class ExperimentDeserializer implements JsonDeserializer<Experiment> {
 		JsonObject obj = json.getAsJsonObject();
 		Type type = new TypeToken<Map<String, Object>>(){}.getType();
 		Map<String, Object> conf = new Gson().fromJson(obj.get("configuration"), type);
+		UAVNetworkSimulation sim = this.sim;
+		if(sim == null)
+			try {
+				sim = new UAVNetworkSimulation(seed++, configuration.copy());
+			} catch (IOException e) {
+				throw new JsonParseException("The simulation for the experiment could not be created: " + e.getMessage());
+			}
 		return ExperimentFactory.createExperiment(sim, 
 				obj.get("name").getAsString(),
 				conf);
@@ -13,9 +13,23 @@ import com.google.gson.reflect.TypeToken;
 public class ExperimentParser extends JsonParser<List<Experiment>> {
 
 	public ExperimentParser(UAVNetworkSimulation sim, String filename) {
+		this(new ExperimentDeserializer(sim), filename);
+	}
+	
+	/**
+	 * Creates a parser that gives each experiment its own simulation, built from a copy of the given configuration.
+	 * @param configuration The configuration to build the simulations from
+	 * @param seed The seed of the first simulation
+	 * @param filename The experiments file
+	 */
+	public ExperimentParser(Configuration configuration, long seed, String filename) {
+		this(new ExperimentDeserializer(configuration, seed), filename);
+	}
+	
+	private ExperimentParser(ExperimentDeserializer deserializer, String filename) {
 		super(filename);
 		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(Experiment.class, new ExperimentDeserializer(sim));
+		gsonBuilder.registerTypeAdapter(Experiment.class, deserializer);
 		setGson(gsonBuilder.create());
 	}
 
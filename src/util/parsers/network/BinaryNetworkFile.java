@@ -0,0 +1,165 @@
+package util.parsers.network;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import network.Node;
+import network.TimeSeries;
+import sim.util.Double2D;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Reads and writes networks in a compact binary format, which is much faster to load than the JSON format.
+ * The file is read through a memory-mapped file channel, so processes that load the same network share one copy of it in the page cache.
+ *
+ * The format (big-endian) consists of:
+ * <ul>
+ * <li>A header with the magic number, the version, the number of nodes n and the number of edges m (4 ints)</li>
+ * <li>The x and y coordinates of the nodes (2 arrays of n doubles)</li>
+ * <li>The risk level multipliers of the edges (m doubles)</li>
+ * <li>The source and target node of each edge (m pairs of ints)</li>
+ * <li>The inspection time of the nodes (n ints)</li>
+ * <li>The minimum number of steps between two inspections of the nodes (n longs)</li>
+ * <li>Whether or not the nodes are recharge stations (n bytes)</li>
+ * </ul>
+ * Files of version 1 do not contain the minimum number of steps between inspections, which is 0 for all nodes of those files.
+ *
+ * Can be run as a main to convert a JSON network file to the binary format.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class BinaryNetworkFile {
+
+	public static final String EXTENSION = ".nwb";
+	private static final int MAGIC = 0x55415631, VERSION = 2, HEADER_SIZE = 16;
+
+	/**
+	 * Checks if the given file is a binary network file, based on its extension.
+	 * @param filename The name of the file
+	 * @return True if the file is a binary network file, False otherwise
+	 */
+	public static boolean isBinaryNetworkFile(String filename) {
+		return filename.endsWith(EXTENSION);
+	}
+
+	/**
+	 * Reads the network in the given binary file.
+	 * @param filename The binary network file
+	 * @return The network in the file
+	 * @throws IOException If the file could not be read or is not a valid binary network file
+	 */
+	public static JsonGraph read(String filename) throws IOException {
+		try(RandomAccessFile file = new RandomAccessFile(filename, "r");
+				FileChannel channel = file.getChannel()) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+				throw new IOException("'" + filename + "' is not a binary network file");
+			int version = buffer.getInt();
+			if(version != 1 && version != VERSION)
+				throw new IOException("Unsupported version " + version + " of binary network file '" + filename + "'");
+			int nbOfNodes = buffer.getInt(), nbOfEdges = buffer.getInt();
+			if(nbOfNodes < 0 || nbOfEdges < 0 || buffer.remaining() != getDataSize(version, nbOfNodes, nbOfEdges))
+				throw new IOException("The binary network file '" + filename + "' is corrupt");
+
+			double[] x = new double[nbOfNodes], y = new double[nbOfNodes], risk = new double[nbOfEdges];
+			int[] edges = new int[2*nbOfEdges], inspectionTimes = new int[nbOfNodes];
+			long[] minStepsBetweenInspections = new long[nbOfNodes];
+			byte[] rechargeStations = new byte[nbOfNodes];
+			buffer.asDoubleBuffer().get(x);
+			buffer.position(buffer.position() + 8*nbOfNodes);
+			buffer.asDoubleBuffer().get(y);
+			buffer.position(buffer.position() + 8*nbOfNodes);
+			buffer.asDoubleBuffer().get(risk);
+			buffer.position(buffer.position() + 8*nbOfEdges);
+			buffer.asIntBuffer().get(edges);
+			buffer.position(buffer.position() + 8*nbOfEdges);
+			buffer.asIntBuffer().get(inspectionTimes);
+			buffer.position(buffer.position() + 4*nbOfNodes);
+			if(version > 1) {
+				buffer.asLongBuffer().get(minStepsBetweenInspections);
+				buffer.position(buffer.position() + 8*nbOfNodes);
+			}
+			buffer.get(rechargeStations);
+
+			JsonGraph graph = new JsonGraph();
+			for(int i = 0; i < nbOfNodes; i++)
+				graph.nodes.add(new Node(new Double2D(x[i], y[i]), rechargeStations[i] != 0, inspectionTimes[i], minStepsBetweenInspections[i]));
+			for(int i = 0; i < nbOfEdges; i++) {
+				if(edges[2*i] < 0 || edges[2*i] >= nbOfNodes || edges[2*i+1] < 0 || edges[2*i+1] >= nbOfNodes)
+					throw new IOException("The binary network file '" + filename + "' contains an edge to a non-existing node");
+				graph.edges.add(new JsonEdge(edges[2*i], edges[2*i+1], risk[i]));
+			}
+			return graph;
+		}
+	}
+
+	/**
+	 * Writes the given network to the given file in the binary format.
+	 * @param graph The network to write
+	 * @param filename The file to write to
+	 * @throws IOException If the file could not be written
+	 */
+	public static void write(JsonGraph graph, String filename) throws IOException {
+		int nbOfNodes = graph.nodes.size(), nbOfEdges = graph.edges.size();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (int) getDataSize(VERSION, nbOfNodes, nbOfEdges));
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(nbOfNodes).putInt(nbOfEdges);
+		for(Node n : graph.nodes)
+			buffer.putDouble(n.getLocation().x);
+		for(Node n : graph.nodes)
+			buffer.putDouble(n.getLocation().y);
+		for(JsonEdge e : graph.edges)
+			buffer.putDouble(e.riskLevelMultiplier);
+		for(JsonEdge e : graph.edges)
+			buffer.putInt(e.source).putInt(e.target);
+		for(Node n : graph.nodes)
+			buffer.putInt(n.getTimeToInspect());
+		for(Node n : graph.nodes)
+			buffer.putLong(n.getMinStepsBetweenInspections());
+		for(Node n : graph.nodes)
+			buffer.put((byte) (n.isRechargeNode() ? 1 : 0));
+		buffer.flip();
+		try(RandomAccessFile file = new RandomAccessFile(filename, "rw");
+				FileChannel channel = file.getChannel()) {
+			channel.truncate(0);
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+		}
+	}
+
+	private static long getDataSize(int version, int nbOfNodes, int nbOfEdges) {
+		long size = 8L*2*nbOfNodes + 8L*nbOfEdges + 4L*2*nbOfEdges + 4L*nbOfNodes + nbOfNodes;
+		return version > 1 ? size + 8L*nbOfNodes : size;
+	}
+
+	/**
+	 * Converts a JSON network file to the binary format.
+	 * Usage: BinaryNetworkFile input.json [output.nwb]
+	 * If no output file is given, the extension of the input file is replaced by .nwb.
+	 * @param args The input file and optionally the output file
+	 */
+	public static void main(String[] args) {
+		if(args.length < 1 || args.length > 2) {
+			System.out.println("Usage: BinaryNetworkFile input.json [output" + EXTENSION + "]");
+			System.exit(-1);
+		}
+		String input = args[0];
+		String output = args.length == 2 ? args[1] : input.replaceFirst("\\.json$", "") + EXTENSION;
+		try(Reader reader = new BufferedReader(new FileReader(input))) {
+			JsonGraph graph = new GsonBuilder().registerTypeHierarchyAdapter(TimeSeries.class, new TimeSeriesAdapter()).create().fromJson(reader, JsonGraph.class);
+			write(graph, output);
+			System.out.println("Converted " + graph.nodes.size() + " nodes and " + graph.edges.size() + " edges to " + output);
+		} catch (IOException e) {
+			System.out.println("Error: " + e.getMessage());
+			System.exit(-1);
+		}
+	}
+
+}
@@ -13,12 +13,14 @@ import java.util.Map;
 
 import network.InspectableEdge;
 import network.Node;
+import network.TimeSeries;
 import network.UAVNetwork;
 import sim.field.network.Edge;
-import sim.field.network.Network;
 import sim.util.Double2D;
 import sim.util.MutableDouble2D;
+import util.algorithms.dijkstra.CompactGraph;
 import util.algorithms.dijkstra.Vertex;
+import util.cache.ArtefactCache;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -39,19 +41,67 @@ public class NetworkParser {
 	protected List<Vertex> vertices = new ArrayList<Vertex>();
 	protected Map<Node, Vertex> vertexMap = new HashMap<Node, Vertex>();
 	protected UAVNetwork network;
+	protected CompactGraph graph;
 	private boolean allRNs = false;
+	private ArtefactCache artefactCache;
+	//Nodes closer to each other than this distance are merged into one node
+	private static final double MERGE_DISTANCE = 5;
 	
 	public NetworkParser(String filename, double distanceBetweenRechargeNodes, boolean allRNs) {
 		this.filename = filename;
 		this.distanceBetweenRechargeNodes = distanceBetweenRechargeNodes;
 		GsonBuilder gsonBuilder = new GsonBuilder();
+		gsonBuilder.registerTypeHierarchyAdapter(TimeSeries.class, new TimeSeriesAdapter());
 		gson = gsonBuilder.create();
 		this.allRNs = allRNs;
 	}
 	
+	/**
+	 * Creates a new instance of the network in the file of this parser.
+	 * The file is only read and processed the first time a network is requested with the same file, recharge node distance and recharge node setting.
+	 * Later calls only create fresh nodes, edges and vertices from the cached template.
+	 * If an artefact cache is set, the processed network is also stored there, so it can be reused when the simulator is started again.
+	 * @throws IOException If the file could not be read
+	 */
 	public void parse() throws IOException {
-		Reader br = new BufferedReader(new FileReader(filename));
-		graphDataToNetwork(gson.fromJson(br, JsonGraph.class), allRNs);
+		NetworkTemplate.get(filename, distanceBetweenRechargeNodes, allRNs, artefactCache).instantiate(this);
+	}
+	
+	/**
+	 * Returns the key of an artefact that is derived from the network of this parser, such as its navigation cycle.
+	 * The key depends on the content of the network file and the settings of this parser, 
+	 * so artefacts of a network that was processed differently are never mixed up.
+	 * @param kind The kind of artefact, including the version of its format
+	 * @return The key of the artefact, or null if no artefact cache is set
+	 * @throws IOException If the network file could not be read
+	 */
+	public String getArtefactKey(String kind) throws IOException {
+		if(artefactCache == null)
+			return null;
+		return artefactCache.getKey(kind, filename, NetworkTemplate.ARTEFACT_KIND, distanceBetweenRechargeNodes, allRNs);
+	}
+	
+	public ArtefactCache getArtefactCache() {
+		return artefactCache;
+	}
+	
+	public void setArtefactCache(ArtefactCache artefactCache) {
+		this.artefactCache = artefactCache;
+	}
+	
+	/**
+	 * Reads the file of this parser and builds the network from it, without using the cache of network templates.
+	 * Files with the binary network extension are read as a binary network file, all other files as JSON.
+	 * @throws IOException If the file could not be read
+	 */
+	public void parseFile() throws IOException {
+		if(BinaryNetworkFile.isBinaryNetworkFile(filename)) {
+			graphDataToNetwork(BinaryNetworkFile.read(filename), allRNs);
+			return;
+		}
+		try(Reader br = new BufferedReader(new FileReader(filename))) {
+			graphDataToNetwork(gson.fromJson(br, JsonGraph.class), allRNs);
+		}
 	}
 	
 	public UAVNetwork getNetwork() {
@@ -90,24 +140,39 @@ public class NetworkParser {
 		
 	protected void graphDataToNetwork(JsonGraph graphData, boolean allRNs) {
 		vertexMap.clear();
+		graph = null;
 		network = new UAVNetwork(false);
 		List<Node> nodes = new ArrayList<Node>();
 		Map<Node, Node> realNodeMap = new HashMap<Node, Node>();
+		//Nodes closer than the merge distance can only be in the same or a neighbouring cell
+		Map<Long, List<Integer>> grid = new HashMap<Long, List<Integer>>();
 		for(Node n : graphData.nodes) {
 			
 			if(n.getLocation().getX() > maxX)
 				maxX = n.getLocation().getX();
 			if(n.getLocation().getY() > maxY)
 				maxY = n.getLocation().getY();
-			boolean add = true;
-			Node mappedOnto = null;
-			for(Node n2 : nodes)
-				if(n.distance(n2) < 5) {
-					add = false;
-					mappedOnto = n2;
-					break;
+			long cellX = (long) Math.floor(n.getLocation().x / MERGE_DISTANCE),
+					cellY = (long) Math.floor(n.getLocation().y / MERGE_DISTANCE);
+			//Map onto the first added node that is close enough, as a linear scan over the added nodes would
+			int mappedOntoIndex = Integer.MAX_VALUE;
+			for(long x = cellX-1; x <= cellX+1; x++)
+				for(long y = cellY-1; y <= cellY+1; y++) {
+					List<Integer> cell = grid.get(getCellKey(x, y));
+					if(cell != null)
+						for(int i : cell)
+							if(i < mappedOntoIndex && n.distance(nodes.get(i)) < MERGE_DISTANCE)
+								mappedOntoIndex = i;
 				}
+			boolean add = mappedOntoIndex == Integer.MAX_VALUE;
+			Node mappedOnto = add ? null : nodes.get(mappedOntoIndex);
 			if(add) {				
+				List<Integer> cell = grid.get(getCellKey(cellX, cellY));
+				if(cell == null) {
+					cell = new ArrayList<Integer>();
+					grid.put(getCellKey(cellX, cellY), cell);
+				}
+				cell.add(nodes.size());
 				//MASON Graph
 				n.initialize();
 				if(allRNs)
@@ -203,29 +268,64 @@ public class NetworkParser {
 		}
 		
 		//Remove nodes that are not connected to main graph
+		removeDisconnectedComponents();
+	}
+	
+	/**
+	 * Removes all nodes that are not in the largest connected component of the network.
+	 * The components are labelled with an iterative breadth-first search, so the cost is linear in the size of the network.
+	 * If several components have the largest size, the one containing the first node of the network is kept.
+	 */
+	private void removeDisconnectedComponents() {
+		Map<Node, Integer> componentOf = new HashMap<Node, Integer>();
+		List<List<Node>> components = new ArrayList<List<Node>>();
+		int largest = -1;
+		for(Object o : network.allNodes) {
+			Node start = (Node) o;
+			if(componentOf.containsKey(start))
+				continue;
+			List<Node> component = new ArrayList<Node>();
+			componentOf.put(start, components.size());
+			component.add(start);
+			for(int i = 0; i < component.size(); i++) {
+				Node n = component.get(i);
+				for(Object e : network.getEdges(n, null)) {
+					Node other = (Node) ((Edge) e).getOtherNode(n);
+					if(!componentOf.containsKey(other)) {
+						componentOf.put(other, components.size());
+						component.add(other);
+					}
+				}
+			}
+			if(largest == -1 || component.size() > components.get(largest).size())
+				largest = components.size();
+			components.add(component);
+		}
 		
-		for(Node currentNode : nodes) {
-			if(nbOfNodes(new Network(network), currentNode) < network.allNodes.size() / 2)
-				network.removeNode(currentNode);
+		int nbRemoved = 0;
+		for(int c = 0; c < components.size(); c++) {
+			if(c == largest)
+				continue;
+			for(Node n : components.get(c))
+				network.removeNode(n);
+			nbRemoved += components.get(c).size();
 		}
+		if(nbRemoved > 0)
+			System.out.println("Removed " + (components.size() - 1) + " component(s) with " + nbRemoved + " node(s) that are not connected to the main graph of " + filename);
 	}
 	
-	public void resetDijkstra() {
-		for(Vertex v : vertices) {
-			v.previous = null;
-			v.distance = Double.MAX_VALUE;
-		}
+	private static long getCellKey(long x, long y) {
+		return (x << 32) ^ (y & 0xffffffffL);
 	}
 	
-	private int nbOfNodes(Network network, Node n) {
-		int nbOfNodes = 1 + network.getEdges(n, null).size();
-		for(Object o : network.getEdges(n, null)) {
-			Edge edge = (Edge) o;
-			Node other = (Node) edge.getOtherNode(n);
-			network.removeEdge(edge);
-			nbOfNodes += nbOfNodes(network, other);
-		}
-		return nbOfNodes;
+	/**
+	 * Returns the compact graph of the vertices of the network, on which shortest paths can be searched.
+	 * @return The compact graph of the network
+	 */
+	public CompactGraph getGraph() {
+		if(graph == null)
+			graph = new CompactGraph(vertices);
+		return graph;
 	}
 
 }
@@ -0,0 +1,269 @@
+package util.parsers.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import network.InspectableEdge;
+import network.Node;
+import network.UAVNetwork;
+import sim.util.Double2D;
+import util.cache.ArtefactCache;
+import util.algorithms.dijkstra.Vertex;
+
+/**
+ * An immutable template of a parsed network, from which fresh networks can be created cheaply.
+ * Reading a network file involves parsing the JSON, merging nodes that are close to each other, adding intermediate recharge nodes
+ * and removing nodes that are not connected to the main graph. This only has to be done once per file, recharge node distance and recharge node setting.
+ * The template stores the result as the sequence of nodes and edges that were added and the nodes that were removed,
+ * so a new network with exactly the same structure (and order of nodes and edges) can be built without any of that work.
+ * Templates can also be stored in an artefact cache, so this work is not repeated when the simulator is started again.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class NetworkTemplate {
+
+	private static final Map<String, NetworkTemplate> templates = new HashMap<String, NetworkTemplate>();
+	//One lock per template key, so different networks can be read at the same time and the same network is read only once
+	private static final Map<String, Object> locks = new HashMap<String, Object>();
+	//The kind of artefact a template is stored as, to be changed whenever the format or the processing of the network changes
+	static final String ARTEFACT_KIND = "network-v1";
+
+	private final double[] nodeX, nodeY;
+	private final boolean[] rechargeNode;
+	private final int[] inspectionTime;
+	private final long[] minStepsBetweenInspections;
+	private final int[] edgeFrom, edgeTo;
+	private final int[] removedNodes;
+	private final double totalDistance, maxX, maxY;
+
+	/**
+	 * Returns the template for the network in the given file with the given settings.
+	 * The file is only read the first time a template with these settings is requested, or when it has changed since then.
+	 * @param filename The network file
+	 * @param distanceBetweenRechargeNodes The maximum distance between two recharge nodes
+	 * @param allRNs Whether or not all nodes should be recharge nodes, with intermediate recharge nodes on long edges
+	 * @return The template of the network
+	 * @throws IOException If the network file could not be read
+	 */
+	public static NetworkTemplate get(String filename, double distanceBetweenRechargeNodes, boolean allRNs) throws IOException {
+		return get(filename, distanceBetweenRechargeNodes, allRNs, null);
+	}
+
+	/**
+	 * Returns the template for the network in the given file with the given settings.
+	 * If the template is not in memory yet, it is read from the given artefact cache.
+	 * Only if it is not there either, the file is read and processed and the result is stored in the artefact cache.
+	 * @param filename The network file
+	 * @param distanceBetweenRechargeNodes The maximum distance between two recharge nodes
+	 * @param allRNs Whether or not all nodes should be recharge nodes, with intermediate recharge nodes on long edges
+	 * @param artefacts The artefact cache to use, or null to always process the file
+	 * @return The template of the network
+	 * @throws IOException If the network file could not be read
+	 */
+	public static NetworkTemplate get(String filename, double distanceBetweenRechargeNodes, boolean allRNs, ArtefactCache artefacts) throws IOException {
+		String key = filename + "|" + new File(filename).lastModified() + "|" + distanceBetweenRechargeNodes + "|" + allRNs;
+		Object lock;
+		synchronized (templates) {
+			NetworkTemplate template = templates.get(key);
+			if(template != null)
+				return template;
+			lock = locks.get(key);
+			if(lock == null) {
+				lock = new Object();
+				locks.put(key, lock);
+			}
+		}
+		//The file is read and the artefact cache is used without holding the lock of all templates
+		synchronized (lock) {
+			synchronized (templates) {
+				NetworkTemplate template = templates.get(key);
+				if(template != null)
+					return template;
+			}
+			String artefactKey = artefacts == null ? null : artefacts.getKey(ARTEFACT_KIND, filename, distanceBetweenRechargeNodes, allRNs);
+			NetworkTemplate template = artefactKey == null ? null : read(artefacts.read(artefactKey));
+			if(template == null) {
+				NetworkParser parser = new NetworkParser(filename, distanceBetweenRechargeNodes, allRNs);
+				parser.parseFile();
+				template = new NetworkTemplate(parser);
+				if(artefactKey != null)
+					artefacts.write(artefactKey, template.toBytes());
+			}
+			synchronized (templates) {
+				templates.put(key, template);
+			}
+			return template;
+		}
+	}
+
+	/**
+	 * Removes all templates, so networks will be read from their files again.
+	 */
+	public static void clear() {
+		synchronized (templates) {
+			templates.clear();
+			locks.clear();
+		}
+	}
+
+	private NetworkTemplate(NetworkParser parser) {
+		List<Vertex> vertices = parser.vertices;
+		int nbOfNodes = vertices.size();
+		nodeX = new double[nbOfNodes];
+		nodeY = new double[nbOfNodes];
+		rechargeNode = new boolean[nbOfNodes];
+		inspectionTime = new int[nbOfNodes];
+		minStepsBetweenInspections = new long[nbOfNodes];
+		Map<Node, Integer> indices = new IdentityHashMap<Node, Integer>();
+		for(int i = 0; i < nbOfNodes; i++) {
+			Node n = vertices.get(i).mapsTo;
+			nodeX[i] = n.getLocation().x;
+			nodeY[i] = n.getLocation().y;
+			rechargeNode[i] = n.isRechargeNode();
+			inspectionTime[i] = n.getTimeToInspect();
+			minStepsBetweenInspections[i] = n.getMinStepsBetweenInspections();
+			indices.put(n, i);
+		}
+
+		List<InspectableEdge> edges = parser.network.getEdges();
+		edgeFrom = new int[edges.size()];
+		edgeTo = new int[edges.size()];
+		for(int i = 0; i < edges.size(); i++) {
+			edgeFrom[i] = indices.get(edges.get(i).getFrom());
+			edgeTo[i] = indices.get(edges.get(i).getTo());
+		}
+
+		Map<Node, Boolean> remaining = new IdentityHashMap<Node, Boolean>();
+		for(Object o : parser.network.allNodes)
+			remaining.put((Node) o, true);
+		int nbRemoved = 0;
+		int[] removed = new int[nbOfNodes];
+		for(int i = 0; i < nbOfNodes; i++)
+			if(!remaining.containsKey(vertices.get(i).mapsTo))
+				removed[nbRemoved++] = i;
+		removedNodes = new int[nbRemoved];
+		System.arraycopy(removed, 0, removedNodes, 0, nbRemoved);
+
+		totalDistance = parser.totalDistance;
+		maxX = parser.maxX;
+		maxY = parser.maxY;
+	}
+
+	private NetworkTemplate(DataInputStream in) throws IOException {
+		int nbOfNodes = in.readInt();
+		nodeX = new double[nbOfNodes];
+		nodeY = new double[nbOfNodes];
+		rechargeNode = new boolean[nbOfNodes];
+		inspectionTime = new int[nbOfNodes];
+		minStepsBetweenInspections = new long[nbOfNodes];
+		for(int i = 0; i < nbOfNodes; i++) {
+			nodeX[i] = in.readDouble();
+			nodeY[i] = in.readDouble();
+			rechargeNode[i] = in.readBoolean();
+			inspectionTime[i] = in.readInt();
+			minStepsBetweenInspections[i] = in.readLong();
+		}
+		int nbOfEdges = in.readInt();
+		edgeFrom = new int[nbOfEdges];
+		edgeTo = new int[nbOfEdges];
+		for(int i = 0; i < nbOfEdges; i++) {
+			edgeFrom[i] = in.readInt();
+			edgeTo[i] = in.readInt();
+		}
+		removedNodes = new int[in.readInt()];
+		for(int i = 0; i < removedNodes.length; i++)
+			removedNodes[i] = in.readInt();
+		totalDistance = in.readDouble();
+		maxX = in.readDouble();
+		maxY = in.readDouble();
+	}
+
+	/**
+	 * Reads a template that was stored in an artefact cache.
+	 * @param data The stored template
+	 * @return The template, or null if there was no stored template or it could not be read
+	 */
+	private static NetworkTemplate read(byte[] data) {
+		if(data == null)
+			return null;
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			return new NetworkTemplate(in);
+		} catch (IOException e) {
+			System.out.println("Could not read the stored network, it will be processed again: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @return This template in the format in which it is stored in an artefact cache
+	 */
+	private byte[] toBytes() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(nodeX.length);
+			for(int i = 0; i < nodeX.length; i++) {
+				out.writeDouble(nodeX[i]);
+				out.writeDouble(nodeY[i]);
+				out.writeBoolean(rechargeNode[i]);
+				out.writeInt(inspectionTime[i]);
+				out.writeLong(minStepsBetweenInspections[i]);
+			}
+			out.writeInt(edgeFrom.length);
+			for(int i = 0; i < edgeFrom.length; i++) {
+				out.writeInt(edgeFrom[i]);
+				out.writeInt(edgeTo[i]);
+			}
+			out.writeInt(removedNodes.length);
+			for(int i : removedNodes)
+				out.writeInt(i);
+			out.writeDouble(totalDistance);
+			out.writeDouble(maxX);
+			out.writeDouble(maxY);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write the network template to memory", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Builds a new network from this template and sets it, together with its Dijkstra graph, as the result of the given parser.
+	 * All nodes and edges are new objects, so they do not share any inspection state with networks built earlier.
+	 * @param parser The parser to set the network of
+	 */
+	void instantiate(NetworkParser parser) {
+		UAVNetwork network = new UAVNetwork(false);
+		parser.vertices.clear();
+		parser.vertexMap.clear();
+		Node[] nodes = new Node[nodeX.length];
+		Vertex[] vertices = new Vertex[nodeX.length];
+		for(int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node(new Double2D(nodeX[i], nodeY[i]), rechargeNode[i], inspectionTime[i], minStepsBetweenInspections[i]);
+			network.addNode(nodes[i]);
+			vertices[i] = new Vertex(nodeX[i], nodeY[i], nodes[i]);
+			parser.vertices.add(vertices[i]);
+			parser.vertexMap.put(nodes[i], vertices[i]);
+		}
+		for(int i = 0; i < edgeFrom.length; i++) {
+			network.addEdge(nodes[edgeFrom[i]], nodes[edgeTo[i]], null);
+			vertices[edgeFrom[i]].addBidirectionalEdge(vertices[edgeTo[i]]);
+		}
+		for(int i : removedNodes)
+			network.removeNode(nodes[i]);
+
+		parser.network = network;
+		parser.graph = null;
+		parser.totalDistance = totalDistance;
+		parser.maxX = maxX;
+		parser.maxY = maxY;
+	}
+
+}
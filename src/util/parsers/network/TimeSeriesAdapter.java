@@ -0,0 +1,43 @@
+package util.parsers.network;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import network.InspectionHistory;
+import network.TimeSeries;
+
+/**
+ * Reads and writes a series of times in JSON as a plain array of numbers, the format in which network files store the inspection times of nodes.
+ * A series is read as an {@link InspectionHistory}, so it can be used for both kinds of series.
+ *
+ * @author Wietse Buseyne
+ *
+ */
+public class TimeSeriesAdapter extends TypeAdapter<TimeSeries> {
+
+	@Override
+	public void write(JsonWriter out, TimeSeries series) throws IOException {
+		if(series == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginArray();
+		for(int i = 0; i < series.size(); i++)
+			out.value(series.get(i));
+		out.endArray();
+	}
+
+	@Override
+	public TimeSeries read(JsonReader in) throws IOException {
+		InspectionHistory series = new InspectionHistory();
+		in.beginArray();
+		while(in.hasNext())
+			series.add(in.nextLong());
+		in.endArray();
+		return series;
+	}
+
+}
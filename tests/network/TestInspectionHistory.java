@@ -0,0 +1,141 @@
+package network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sla.SingleInspectionSLA;
+import sla.StepwiseCoverage;
+import sla.report.SLAManager;
+import sla.report.SLAReport;
+
+public class TestInspectionHistory {
+
+	private Random random;
+
+	@Before
+	public void setUpMutableFixture() {
+		random = new Random(271828);
+	}
+
+	@Test
+	public void folding_baseCase() {
+		InspectionHistory history = new InspectionHistory();
+		history.setRetention(10, 10);
+		history.add(5);
+		history.add(30);
+		history.add(50);
+		assertEquals(1, history.getNbDropped());
+		assertEquals(5, history.getLastDropped());
+		assertEquals(2, history.size());
+		assertEquals(5, history.getLastBefore(30));
+		assertEquals(30, history.getFirstFrom(6));
+		assertEquals(1, history.getSummary().getCount());
+		assertEquals(6, history.getSummary().getFulfilledSteps());
+	}
+
+	@Test
+	public void folding_randomHistories() {
+		for(int trial = 0; trial < 100; trial++) {
+			long window = random.nextInt(50);
+			Node folded = new Node(0, 0, 0);
+			Node unfolded = new Node(0, 0, 0);
+			folded.getInspectionHistory().setRetention(window, random.nextInt(100));
+			SingleInspectionSLA foldedSLA = new SingleInspectionSLA(folded, window);
+			SingleInspectionSLA unfoldedSLA = new SingleInspectionSLA(unfolded, window);
+			long now = 0;
+			for(int i = 0; i < 200; i++) {
+				now += random.nextInt(4) == 0 ? random.nextInt(3*(int)window + 2) : random.nextInt(5);
+				//Now and then an inspection is inserted a few steps before the last one
+				long time = Math.max(0, now - (random.nextInt(10) == 0 ? random.nextInt(5) : 0));
+				InspectionHistory history = folded.getInspectionHistory();
+				if(history.getNbDropped() > 0 && time <= history.getLastDropped())
+					time = now;
+				history.add(time);
+				unfolded.getInspectionHistory().add(time);
+				compare(foldedSLA, unfoldedSLA, now);
+			}
+		}
+	}
+
+	/**
+	 * Compares the history of the first SLA, which folds its inspections, with the unfolded history of the second one
+	 * at random steps after the last folded inspection.
+	 */
+	private void compare(SingleInspectionSLA foldedSLA, SingleInspectionSLA unfoldedSLA, long now) {
+		InspectionHistory history = foldedSLA.getInspectable().getInspectionHistory();
+		InspectionHistory all = unfoldedSLA.getInspectable().getInspectionHistory();
+		assertEquals(all.size(), history.size() + history.getNbDropped());
+		long firstStep = 0;
+		if(history.getNbDropped() > 0) {
+			InspectionSummary summary = history.getSummary();
+			assertEquals(history.getNbDropped(), summary.getCount());
+			assertEquals(history.getLastDropped(), summary.getLast());
+			assertEquals(all.get(0), summary.getFirst());
+			assertEquals(StepwiseCoverage.getFulfilledSteps(unfoldedSLA, 0, summary.getLast()), summary.getFulfilledSteps());
+			firstStep = history.getLastDropped() + 1;
+		}
+		for(int i = 0; i < 5; i++) {
+			long step = firstStep + random.nextInt((int)(now - firstStep) + 50);
+			assertEquals(all.getLastBefore(step), history.getLastBefore(step));
+			assertEquals(all.getFirstFrom(step), history.getFirstFrom(step));
+			assertEquals(all.countBefore(step), history.countBefore(step) + history.getNbDropped());
+			assertEquals(unfoldedSLA.isFulfilled(step), foldedSLA.isFulfilled(step));
+			long endStep = step + random.nextInt(100);
+			assertArrayEquals(unfoldedSLA.getFulfilledIntervals(step, endStep), foldedSLA.getFulfilledIntervals(step, endStep));
+		}
+	}
+
+	/**
+	 * Runs the same inspections on SLAs with and without a retention and compares the coverage at every step,
+	 * and the report on the given period, which was kept before the run.
+	 */
+	private void compareReports(long window, long retention, long firstStep, long lastStep, long nbOfSteps) {
+		SLAManager folded = new SLAManager(null);
+		SLAManager unfolded = new SLAManager(null);
+		List<Node> foldedNodes = new ArrayList<Node>();
+		List<Node> unfoldedNodes = new ArrayList<Node>();
+		for(int i = 0; i < 10; i++) {
+			Node node = new Node(0, 0, 0);
+			node.getInspectionHistory().setRetention(window, retention - window);
+			folded.addInspectionSLA(new SingleInspectionSLA(node, window));
+			foldedNodes.add(node);
+			node = new Node(0, 0, 0);
+			unfolded.addInspectionSLA(new SingleInspectionSLA(node, window));
+			unfoldedNodes.add(node);
+		}
+		folded.keepReport(firstStep, lastStep);
+		for(long now = 0; now <= nbOfSteps; now++) {
+			for(int i = 0; i < foldedNodes.size(); i++) {
+				if(random.nextInt((int)window) == 0) {
+					foldedNodes.get(i).getInspectionHistory().add(now);
+					unfoldedNodes.get(i).getInspectionHistory().add(now);
+				}
+			}
+			assertEquals(unfolded.percentageFulfilledAt(now), folded.percentageFulfilledAt(now), 1e-9);
+		}
+		SLAReport expected = unfolded.getReport(firstStep, lastStep);
+		SLAReport report = folded.getReport(firstStep, lastStep);
+		assertArrayEquals(expected.getTimeComplianceData(), report.getTimeComplianceData(), 1e-9);
+		assertArrayEquals(expected.getSLAComplianceData(), report.getSLAComplianceData(), 1e-9);
+		assertEquals(expected.getAverageCoverage(), report.getAverageCoverage(), 1e-9);
+		assertEquals(expected.getLowestCoverage(), report.getLowestCoverage(), 1e-9);
+	}
+
+	@Test
+	public void folding_reportLongerThanRetention() {
+		compareReports(100, 1000, 2000, 19999, 20000);
+	}
+
+	@Test
+	public void folding_reportUntilLastStep() {
+		compareReports(50, 300, 500, 5000, 5000);
+	}
+
+}
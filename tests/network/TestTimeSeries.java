@@ -0,0 +1,59 @@
+package network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sim.engine.Schedule;
+
+public class TestTimeSeries {
+
+	private TimeSeries series;
+
+	@Before
+	public void setUpMutableFixture() {
+		series = new TimeSeries();
+		series.add(5);
+		series.add(12);
+		series.add(8);
+	}
+
+	@Test
+	public void view_followsSeries() {
+		TimeSeries view = series.unmodifiableView();
+		assertArrayEquals(new long[] {5, 8, 12}, view.toArray());
+		series.add(20);
+		series.dropBefore(8);
+		assertEquals(3, view.size());
+		assertEquals(8, view.get(0));
+		assertEquals(20, view.getLast());
+		assertEquals(1, view.getNbDropped());
+		assertEquals(5, view.getLastDropped());
+		assertEquals(12, view.getLastBefore(13));
+		assertEquals(12, view.getFirstFrom(9));
+		assertEquals(12, view.cursor().getFirstFrom(9));
+		assertSame(view, view.unmodifiableView());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void view_add() {
+		series.unmodifiableView().add(30);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void view_dropBefore() {
+		series.unmodifiableView().dropBefore(10);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void view_inspectionNeededTimes() {
+		Node node = new Node(0, 0, 0);
+		node.inspectionNeeded(new Schedule());
+		assertEquals(1, node.getInspectionNeededTimes().size());
+		node.getInspectionNeededTimes().add(10);
+	}
+
+}
@@ -0,0 +1,88 @@
+package simulation.experiment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import simulation.UAVNetworkSimulation;
+import uav.navigation.CentralServerLNINavigation;
+import uav.navigation.NavigationInitializationClass;
+import uav.navigation.RandomNavigation;
+import uav.navigation.UAVNavigationStrategy;
+import util.parsers.configuration.Configuration;
+
+public class TestNbOfUAVsExperiment {
+
+	private static final List<Integer> NBS_OF_UAVS = Arrays.asList(1, 2, 3, 4);
+
+	/**
+	 * Creates an experiment on the Belgian network, in which the UAVs crash at fixed times.
+	 */
+	private NbOfUAVsExperiment createExperiment(Class<? extends UAVNavigationStrategy> navigation, int sweepThreads) throws IOException {
+		Configuration configuration = new Configuration();
+		configuration.network = "nw-belgium-hv.json";
+		configuration.inspectionDaysPerMonth = 2;
+		configuration.inspectionMinutesPerDay = 240;
+		configuration.edgeInspectionSLAs = 1440;
+		configuration.uavConfiguration.rechargeTime = 30;
+		configuration.uavConfiguration.speedKmHour = 60;
+		configuration.uavConfiguration.batteryLife = 120;
+		configuration.sweepThreads = sweepThreads;
+		Map<String, Object> failures = new HashMap<String, Object>();
+		failures.put("event", "failure");
+		failures.put("type", "static");
+		failures.put("times", Arrays.<Number>asList(3000, 3100, 3500));
+		failures.put("minTimeToRevive", 120);
+		failures.put("maxTimeToRevive", 120);
+		configuration.eventGenerators.add(failures);
+		UAVNetworkSimulation sim = new UAVNetworkSimulation(5, configuration);
+		sim.setNavigationBehaviour(new NavigationInitializationClass(navigation));
+		NbOfUAVsExperiment experiment = new NbOfUAVsExperiment(sim) {
+			@Override
+			protected void prepareCycleDatasets() {}
+			@Override
+			protected void prepareStrategyDatasets(String navigationName) {}
+			@Override
+			protected void writeGraphs() {}
+			@Override
+			protected void doSingleExperiment() {}
+		};
+		experiment.firstStep = 2880;
+		experiment.lastStep = 5760;
+		return experiment;
+	}
+
+	private void compareSweeps(Class<? extends UAVNavigationStrategy> navigation) throws IOException {
+		List<SimulationResult> sequential = createExperiment(navigation, 1).runSimulations(NBS_OF_UAVS, true, true),
+				parallel = createExperiment(navigation, 3).runSimulations(NBS_OF_UAVS, true, true);
+		assertEquals(NBS_OF_UAVS.size(), sequential.size());
+		assertEquals(NBS_OF_UAVS.size(), parallel.size());
+		for(int i = 0; i < NBS_OF_UAVS.size(); i++) {
+			assertEquals((long) NBS_OF_UAVS.get(i), sequential.get(i).nbOfUAVs);
+			assertEquals((long) NBS_OF_UAVS.get(i), parallel.get(i).nbOfUAVs);
+			assertEquals(sequential.get(i).coverage, parallel.get(i).coverage, 0);
+			assertEquals(sequential.get(i).lowestCoverage, parallel.get(i).lowestCoverage, 0);
+			assertEquals(sequential.get(i).averageResponseTime, parallel.get(i).averageResponseTime, 0);
+			assertArrayEquals(sequential.get(i).timeCompliance, parallel.get(i).timeCompliance, 0);
+		}
+	}
+
+	@Test
+	public void sweep_parallelCentralServerLNI() throws IOException {
+		compareSweeps(CentralServerLNINavigation.class);
+	}
+
+	@Test
+	public void sweep_parallelRandomNavigation() throws IOException {
+		compareSweeps(RandomNavigation.class);
+	}
+
+}
@@ -0,0 +1,153 @@
+package simulation.log;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import network.Node;
+import network.UAVNetwork;
+import sim.engine.Schedule;
+import simulation.log.InspectionEventLog.Index;
+import simulation.log.InspectionEventLog.Kind;
+
+public class TestInspectionEventLog {
+
+	private static final int NB_OF_UAVS = 4;
+
+	private Random random;
+	private UAVNetwork network;
+	//The events that were added, as {step, kind, inspectable, uav}
+	private List<long[]> events;
+
+	@Before
+	public void setUpMutableFixture() {
+		random = new Random(65536);
+		network = new UAVNetwork(false);
+		for(int i = 0; i < 6; i++)
+			network.addNode(new Node(i, i % 2, 0));
+		for(int i = 1; i < 6; i++)
+			network.addEdge(network.getNode(i-1), network.getNode(i), null);
+		network.addEdge(network.getNode(0), network.getNode(3), null);
+		events = new ArrayList<long[]>();
+	}
+
+	private InspectionEventLog createLog(int maxChunksInMemory, int nbOfEvents) {
+		InspectionEventLog log = new InspectionEventLog(network, new Schedule(), maxChunksInMemory);
+		for(int uav = 0; uav < NB_OF_UAVS; uav++)
+			assertEquals(uav, log.getUAVId(new Object()));
+		long step = 0;
+		for(int i = 0; i < nbOfEvents; i++) {
+			step += random.nextInt(3);
+			Kind kind = Kind.values()[random.nextInt(Kind.values().length)];
+			int inspectable = random.nextInt(log.getNbInspectables());
+			int uav = kind == Kind.REQUEST ? -1 : random.nextInt(NB_OF_UAVS);
+			log.add(step, kind, inspectable, uav);
+			events.add(new long[]{step, kind.ordinal(), inspectable, uav});
+		}
+		return log;
+	}
+
+	private void checkScan(InspectionEventLog log) throws IOException {
+		final List<long[]> scanned = new ArrayList<long[]>();
+		log.scan(new InspectionEventLog.Visitor() {
+			@Override
+			public void event(long step, Kind kind, int inspectable, int uav) {
+				scanned.add(new long[]{step, kind.ordinal(), inspectable, uav});
+			}
+		});
+		assertEquals(events.size(), scanned.size());
+		for(int i = 0; i < events.size(); i++)
+			assertArrayEquals(events.get(i), scanned.get(i));
+	}
+
+	private void checkIndex(InspectionEventLog log) throws IOException {
+		Index index = log.index();
+		assertEquals(events.size(), index.size());
+		for(int inspectable = 0; inspectable < log.getNbInspectables(); inspectable++) {
+			int i = index.getStart(inspectable);
+			for(long[] event : events)
+				if(event[2] == inspectable) {
+					assertEquals(event[0], index.getStep(i));
+					assertEquals(event[1], index.getKind(i).ordinal());
+					assertEquals(event[3], index.getUAV(i));
+					i++;
+				}
+			assertEquals(index.getEnd(inspectable), i);
+		}
+	}
+
+	private void checkStatistics(InspectionEventLog log) throws IOException {
+		long[] kinds = new long[Kind.values().length], inspections = new long[NB_OF_UAVS];
+		List<Long> responseTimes = new ArrayList<Long>();
+		for(int i = 0; i < events.size(); i++) {
+			long[] event = events.get(i);
+			kinds[(int) event[1]]++;
+			if(event[1] == Kind.INSPECTION.ordinal())
+				inspections[(int) event[3]]++;
+			if(event[1] != Kind.REQUEST.ordinal())
+				continue;
+			//An inspection in the same step counts, even if it was added before the request
+			int first = i;
+			while(first > 0 && events.get(first-1)[0] == event[0])
+				first--;
+			for(int j = first; j < events.size(); j++)
+				if(events.get(j)[2] == event[2] && events.get(j)[1] == Kind.INSPECTION.ordinal()) {
+					responseTimes.add(events.get(j)[0] - event[0]);
+					break;
+				}
+		}
+		long[] expectedResponseTimes = new long[responseTimes.size()];
+		for(int i = 0; i < expectedResponseTimes.length; i++)
+			expectedResponseTimes[i] = responseTimes.get(i);
+		Arrays.sort(expectedResponseTimes);
+		assertArrayEquals(kinds, log.countKinds());
+		assertArrayEquals(inspections, log.getInspectionsPerUAV());
+		assertArrayEquals(expectedResponseTimes, log.index().getResponseTimes());
+	}
+
+	@Test
+	public void log_inMemory() throws IOException {
+		InspectionEventLog log = createLog(Integer.MAX_VALUE, 5000);
+		assertEquals(5000, log.size());
+		checkScan(log);
+		checkIndex(log);
+		checkStatistics(log);
+		log.close();
+	}
+
+	@Test
+	public void log_spilledToDisk() throws IOException {
+		//Three chunks are written to disk and the last, partly filled chunk stays in memory
+		InspectionEventLog log = createLog(1, 3 * InspectionEventLog.CHUNK_SIZE + 1234);
+		assertEquals(events.size(), log.size());
+		checkScan(log);
+		checkIndex(log);
+		checkStatistics(log);
+		//The log can be read back more than once
+		checkScan(log);
+		log.close();
+		assertEquals(0, log.size());
+	}
+
+	@Test
+	public void log_spilledFullChunks() throws IOException {
+		InspectionEventLog log = createLog(2, 4 * InspectionEventLog.CHUNK_SIZE);
+		checkScan(log);
+		checkIndex(log);
+		log.close();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void log_unknownInspectable() {
+		createLog(1, 0).add(0, Kind.INSPECTION, network.getNbNodes() + network.getNbEdges(), 0);
+	}
+
+}
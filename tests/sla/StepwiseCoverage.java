@@ -0,0 +1,55 @@
+package sla;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The coverage of SLAs found by checking them at every single step, to compare faster computations with.
+ */
+public class StepwiseCoverage {
+
+	private StepwiseCoverage() {
+	}
+
+	/**
+	 * @return The number of steps in [firstStep, lastStep] at which the given SLA is fulfilled
+	 */
+	public static long getFulfilledSteps(TimeBoundedSLA sla, long firstStep, long lastStep) {
+		long fulfilled = 0;
+		for(long step = firstStep; step <= lastStep; step++)
+			if(sla.isFulfilled(step))
+				fulfilled++;
+		return fulfilled;
+	}
+
+	/**
+	 * @return The first and last step of every period in [firstStep, lastStep] in which the given SLA is fulfilled, as consecutive pairs
+	 */
+	public static long[] getFulfilledIntervals(TimeBoundedSLA sla, long firstStep, long lastStep) {
+		long[] intervals = new long[2*(int)(lastStep-firstStep+1)];
+		int size = 0;
+		for(long step = firstStep; step <= lastStep; step++) {
+			if(!sla.isFulfilled(step))
+				continue;
+			if(size > 0 && intervals[size-1] == step-1) {
+				intervals[size-1] = step;
+			} else {
+				intervals[size++] = step;
+				intervals[size++] = step;
+			}
+		}
+		return Arrays.copyOf(intervals, size);
+	}
+
+	/**
+	 * @return The percentage of the given SLAs that is fulfilled at the given step
+	 */
+	public static double getPercentageFulfilled(List<? extends TimeBoundedSLA> slas, long step) {
+		int fulfilled = 0;
+		for(TimeBoundedSLA sla : slas)
+			if(sla.isFulfilled(step))
+				fulfilled++;
+		return fulfilled * 100.0 / slas.size();
+	}
+
+}
@@ -0,0 +1,54 @@
+package sla;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import network.Node;
+
+public class TestSingleInspectionSLA {
+
+	@Test
+	public void fulfilledIntervals_baseCase() {
+		Node node = new Node(0, 0, 0);
+		node.getInspectionHistory().add(15);
+		node.getInspectionHistory().add(20);
+		SingleInspectionSLA sla = new SingleInspectionSLA(node, 10);
+		assertArrayEquals(new long[] {0, 10, 16, 30}, sla.getFulfilledIntervals(0, 40));
+		assertArrayEquals(new long[] {5, 10, 16, 18}, sla.getFulfilledIntervals(5, 18));
+		assertEquals(16 * 100.0 / 31, sla.getPercentage(10, 40), 1e-9);
+	}
+
+	@Test
+	public void fulfilledIntervals_withoutInspections() {
+		SingleInspectionSLA sla = new SingleInspectionSLA(new Node(0, 0, 0), 10);
+		assertArrayEquals(new long[] {0, 10}, sla.getFulfilledIntervals(0, 40));
+		assertArrayEquals(new long[0], sla.getFulfilledIntervals(11, 40));
+	}
+
+	@Test
+	public void fulfilledIntervals_randomHistories() {
+		Random random = new Random(90210);
+		for(int trial = 0; trial < 300; trial++) {
+			Node node = new Node(0, 0, 0);
+			long max = random.nextInt(60);
+			long time = 0;
+			int nbOfInspections = random.nextInt(40);
+			for(int i = 0; i < nbOfInspections; i++) {
+				//Bursts of inspections, separated by gaps shorter and longer than the SLA allows
+				time += random.nextInt(4) == 0 ? random.nextInt(3*(int)max + 2) : random.nextInt(5);
+				node.getInspectionHistory().add(time);
+			}
+			SingleInspectionSLA sla = new SingleInspectionSLA(node, max);
+			for(int period = 0; period < 20; period++) {
+				long startStep = random.nextInt((int)time + 50);
+				long endStep = startStep + random.nextInt(200);
+				assertArrayEquals(StepwiseCoverage.getFulfilledIntervals(sla, startStep, endStep), sla.getFulfilledIntervals(startStep, endStep));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+package sla.report;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import network.Node;
+import sla.SingleInspectionSLA;
+import sla.StepwiseCoverage;
+import sla.TimeBoundedSLA;
+
+public class TestCoverageTracker {
+
+	private Random random;
+	private CoverageTracker tracker;
+	private List<Node> nodes;
+	private List<TimeBoundedSLA> slas;
+	private List<TimeBoundedSLA> tracked;
+
+	@Before
+	public void setUpMutableFixture() {
+		random = new Random(7331);
+		tracker = new CoverageTracker();
+		nodes = new ArrayList<Node>();
+		slas = new ArrayList<TimeBoundedSLA>();
+		tracked = new ArrayList<TimeBoundedSLA>();
+	}
+
+	private void addSLA(long max, boolean track) {
+		Node node = new Node(0, 0, 0);
+		SingleInspectionSLA sla = new SingleInspectionSLA(node, max);
+		nodes.add(node);
+		slas.add(sla);
+		if(track)
+			track(sla);
+	}
+
+	private void track(TimeBoundedSLA sla) {
+		tracker.track(sla);
+		tracked.add(sla);
+	}
+
+	/**
+	 * Inspects random nodes at every step, mostly at that step and sometimes a few steps before it,
+	 * and checks the coverage at that step and at an earlier step.
+	 */
+	private void run(long firstStep, long lastStep) {
+		for(long now = firstStep; now <= lastStep; now++) {
+			int nbOfInspections = random.nextInt(3);
+			for(int i = 0; i < nbOfInspections; i++) {
+				long time = Math.max(0, now - (random.nextInt(5) == 0 ? random.nextInt(10) : 0));
+				nodes.get(random.nextInt(nodes.size())).getInspectionHistory().add(time);
+			}
+			assertEquals(StepwiseCoverage.getPercentageFulfilled(tracked, now), tracker.percentageFulfilledAt(now), 1e-9);
+			long earlier = random.nextInt((int)now + 1);
+			assertEquals(StepwiseCoverage.getPercentageFulfilled(tracked, earlier), tracker.percentageFulfilledAt(earlier), 1e-9);
+		}
+	}
+
+	private void checkPeriods(long lastStep) {
+		for(int i = 0; i < 50; i++) {
+			TimeBoundedSLA sla = slas.get(random.nextInt(slas.size()));
+			long firstStep = random.nextInt((int)lastStep + 1);
+			long endStep = firstStep + random.nextInt((int)(lastStep - firstStep) + 1);
+			assertEquals(StepwiseCoverage.getFulfilledSteps(sla, firstStep, endStep), tracker.getFulfilledSteps(sla, firstStep, endStep));
+		}
+		long[] steps = new long[20];
+		long[] expected = new long[steps.length];
+		for(int i = 0; i < steps.length; i++) {
+			steps[i] = i == 0 ? random.nextInt(20) : steps[i-1] + random.nextInt((int)lastStep / steps.length);
+			for(TimeBoundedSLA sla : tracked)
+				expected[i] += StepwiseCoverage.getFulfilledSteps(sla, 0, steps[i]);
+		}
+		assertArrayEquals(expected, tracker.getFulfilledStepsUntil(steps));
+	}
+
+	@Test
+	public void coverage_baseCase() {
+		addSLA(10, true);
+		addSLA(20, true);
+		nodes.get(0).getInspectionHistory().add(5);
+		assertEquals(100, tracker.percentageFulfilledAt(15), 0);
+		assertEquals(50, tracker.percentageFulfilledAt(16), 0);
+		assertEquals(0, tracker.percentageFulfilledAt(21), 0);
+		assertEquals(100, tracker.percentageFulfilledAt(10), 0);
+		assertEquals(16, tracker.getFulfilledSteps(slas.get(0), 0, 1000));
+		assertEquals(21, tracker.getFulfilledSteps(slas.get(1), 0, 1000));
+		assertArrayEquals(new long[] {12, 37}, tracker.getFulfilledStepsUntil(new long[] {5, 1000}));
+	}
+
+	@Test
+	public void coverage_inspectionBeforeCurrentStep() {
+		addSLA(1, true);
+		nodes.get(0).getInspectionHistory().add(14);
+		assertEquals(0, tracker.percentageFulfilledAt(17), 0);
+		//Fulfills steps 14 and 15, which have passed
+		nodes.get(0).getInspectionHistory().add(13);
+		assertEquals(0, tracker.percentageFulfilledAt(17), 0);
+		nodes.get(0).getInspectionHistory().add(16);
+		assertEquals(100, tracker.percentageFulfilledAt(17), 0);
+	}
+
+	@Test
+	public void coverage_liveInspections() {
+		for(int i = 0; i < 20; i++)
+			addSLA(1 + random.nextInt(40), true);
+		run(0, 2000);
+		checkPeriods(2000);
+	}
+
+	@Test
+	public void coverage_trackedAfterInspections() {
+		for(int i = 0; i < 20; i++)
+			addSLA(1 + random.nextInt(40), i % 2 == 0);
+		run(0, 500);
+		for(TimeBoundedSLA sla : slas)
+			if(!tracker.isTracked(sla))
+				track(sla);
+		run(501, 1500);
+		checkPeriods(1500);
+	}
+
+}
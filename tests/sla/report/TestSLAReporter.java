@@ -0,0 +1,70 @@
+package sla.report;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.jfree.data.statistics.BoxAndWhiskerCalculator;
+import org.jfree.data.statistics.BoxAndWhiskerItem;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSLAReporter {
+
+	private Random random;
+
+	@Before
+	public void setUpMutableFixture() {
+		random = new Random(1019);
+	}
+
+	/**
+	 * Checks that the box and whisker of the given response times is the one JFreeChart would calculate from the list of all times.
+	 */
+	private void checkBoxAndWhisker(long[] responseTimes) {
+		List<Long> values = new ArrayList<Long>();
+		for(long responseTime : responseTimes)
+			values.add(responseTime);
+		BoxAndWhiskerItem expected = BoxAndWhiskerCalculator.calculateBoxAndWhiskerStatistics(values),
+				item = SLAReporter.createBoxAndWhiskerItem(new ResponseTimeReport(responseTimes));
+		assertEquals(expected.getMean().doubleValue(), item.getMean().doubleValue(), 1e-9);
+		assertEquals(expected.getMedian().doubleValue(), item.getMedian().doubleValue(), 0);
+		assertEquals(expected.getQ1().doubleValue(), item.getQ1().doubleValue(), 0);
+		assertEquals(expected.getQ3().doubleValue(), item.getQ3().doubleValue(), 0);
+		assertEquals(expected.getMinRegularValue().doubleValue(), item.getMinRegularValue().doubleValue(), 0);
+		assertEquals(expected.getMaxRegularValue().doubleValue(), item.getMaxRegularValue().doubleValue(), 0);
+		assertEquals(expected.getMinOutlier().doubleValue(), item.getMinOutlier().doubleValue(), 0);
+		assertEquals(expected.getMaxOutlier().doubleValue(), item.getMaxOutlier().doubleValue(), 0);
+		assertEquals(getSorted(expected.getOutliers()), getSorted(item.getOutliers()));
+	}
+
+	private static List<Long> getSorted(List<?> numbers) {
+		List<Long> sorted = new ArrayList<Long>();
+		for(Object number : numbers)
+			sorted.add(((Number) number).longValue());
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	@Test
+	public void boxAndWhisker_baseCase() {
+		checkBoxAndWhisker(new long[] {7});
+		checkBoxAndWhisker(new long[] {3, 1});
+		checkBoxAndWhisker(new long[] {10, 11, 12, 13, 14, 15, 16, 17, 18, 100, 0, 26});
+	}
+
+	@Test
+	public void boxAndWhisker_randomTimes() {
+		for(int i = 0; i < 2000; i++) {
+			long[] responseTimes = new long[1 + random.nextInt(60)];
+			for(int j = 0; j < responseTimes.length; j++)
+				//Mostly short times with a few very long ones, so there are outliers on both sides of the box
+				responseTimes[j] = random.nextInt(10) == 0 ? random.nextInt(5000) : 100 + random.nextInt(1 + random.nextInt(200));
+			checkBoxAndWhisker(responseTimes);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package uav;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import sim.engine.SimState;
+import sim.engine.Steppable;
+import sim.util.Double2D;
+import simulation.UAVNetworkSimulation;
+import uav.navigation.IndividualLNINavigation;
+import uav.navigation.NavigationInitializationClass;
+import util.parsers.configuration.Configuration;
+
+public class TestEventDrivenUAV {
+
+	private static final long STEPS = 3000;
+	//The number of minutes between two comparisons, so the event-driven engines skip minutes in between
+	private static final long INTERVAL = 7;
+
+	/**
+	 * Creates a simulation of one UAV on the Belgian network, with two days of 240 fly minutes per month.
+	 */
+	private UAVNetworkSimulation createSimulation(boolean eventDriven, boolean skipNonFlyTime) throws IOException {
+		Configuration configuration = new Configuration();
+		configuration.network = "nw-belgium-hv.json";
+		configuration.inspectionDaysPerMonth = 2;
+		configuration.inspectionMinutesPerDay = 240;
+		configuration.edgeInspectionSLAs = 525600;
+		configuration.uavConfiguration.rechargeTime = 30;
+		configuration.uavConfiguration.speedKmHour = 60;
+		configuration.uavConfiguration.batteryLife = 120;
+		configuration.eventDriven = eventDriven;
+		configuration.skipNonFlyTime = skipNonFlyTime;
+		UAVNetworkSimulation sim = new UAVNetworkSimulation(1, configuration);
+		sim.setNavigationBehaviour(new NavigationInitializationClass(IndividualLNINavigation.class));
+		sim.setNumUAVs(1);
+		sim.start();
+		return sim;
+	}
+
+	/**
+	 * Crashes the UAV at the given step, before the UAV acts in that minute if the ordering is negative and after it otherwise.
+	 * @param minutes The number of minutes the UAV stays crashed, or -1 to crash it for good
+	 */
+	private void scheduleCrash(final UAVNetworkSimulation sim, long step, int ordering, final long minutes) {
+		sim.schedule.scheduleOnce(step, ordering, new Steppable() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public void step(SimState state) {
+				UAV uav = sim.getUAVController().getUAV(0);
+				if(minutes < 0)
+					uav.crash();
+				else
+					uav.crash(minutes);
+			}
+		});
+	}
+
+	/**
+	 * Runs the given simulation and describes the state of its UAV at regular steps.
+	 */
+	private List<String> run(UAVNetworkSimulation sim) {
+		List<String> states = new ArrayList<String>();
+		for(long step = INTERVAL; step <= STEPS; step += INTERVAL) {
+			sim.simulateUntil(step);
+			UAV uav = sim.getUAVController().getUAV(0);
+			Double2D location = uav.getLocation(sim);
+			states.add(String.format("%d %s %b battery %d standby %d at %.4f,%.4f", step, uav.getState(), uav.isReviving(),
+					uav.getBatteryLife(), uav.getStandByTime(), location.x, location.y));
+		}
+		return states;
+	}
+
+	private void compareEngines(long crashStep, int ordering, long minutes) throws IOException {
+		List<List<String>> runs = new ArrayList<List<String>>();
+		for(int engine = 0; engine < 3; engine++) {
+			UAVNetworkSimulation sim = createSimulation(engine > 0, engine == 2);
+			scheduleCrash(sim, crashStep, ordering, minutes);
+			runs.add(run(sim));
+		}
+		for(int i = 0; i < runs.get(0).size(); i++) {
+			assertEquals(runs.get(0).get(i), runs.get(1).get(i));
+			assertEquals(runs.get(0).get(i), runs.get(2).get(i));
+		}
+	}
+
+	@Test
+	public void engines_crashWithReviveBeforeUAV() throws IOException {
+		compareEngines(105, -1, 240);
+	}
+
+	@Test
+	public void engines_crashWithReviveAfterUAV() throws IOException {
+		compareEngines(105, 1, 240);
+	}
+
+	@Test
+	public void engines_crashWithReviveWhileFlying() throws IOException {
+		for(long step = 20; step < 240; step += 37) {
+			compareEngines(step, -1, 30);
+			compareEngines(step, 1, 30);
+		}
+	}
+
+	@Test
+	public void engines_crashForGood() throws IOException {
+		compareEngines(105, -1, -1);
+		compareEngines(150, 1, -1);
+	}
+
+}
@@ -0,0 +1,176 @@
+package util.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import util.algorithms.matching.GreedyOddVertexMatcher;
+
+public class TestUndirectedGraphCycleFinder {
+
+	private Random random;
+	private List<int[]> arcs;
+	private Map<Long, Float> costs;
+
+	@Before
+	public void setUpMutableFixture() {
+		random = new Random(1736);
+		arcs = new ArrayList<int[]>();
+		costs = new HashMap<Long, Float>();
+	}
+
+	private static long getKey(int u, int v) {
+		return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+	}
+
+	private void addArc(UndirectedGraphCycleFinder cpp, int u, int v, float cost) {
+		cpp.addArc("a", u, v, cost);
+		arcs.add(new int[]{u, v});
+		Float previous = costs.get(getKey(u, v));
+		costs.put(getKey(u, v), previous == null ? cost : Math.min(previous, cost));
+	}
+
+	/**
+	 * Creates two finders for the same connected random graph, with parallel arcs and vertices of both odd and even degree.
+	 * The second finder pairs the odd vertices with the greedy matcher.
+	 */
+	private UndirectedGraphCycleFinder[] createRandomGraph(int nbOfVertices, int nbOfExtraArcs) {
+		arcs.clear();
+		costs.clear();
+		UndirectedGraphCycleFinder[] cpps = {new UndirectedGraphCycleFinder(nbOfVertices), new UndirectedGraphCycleFinder(nbOfVertices)};
+		cpps[1].setMatcher(new GreedyOddVertexMatcher());
+		for(int i = 1 - nbOfVertices; i < nbOfExtraArcs; i++) {
+			//First a random tree, so the graph is connected
+			int u = i < 0 ? -i : random.nextInt(nbOfVertices), v = i < 0 ? random.nextInt(-i) : random.nextInt(nbOfVertices);
+			float cost = 1 + random.nextInt(20);
+			if(u != v) {
+				addArc(cpps[0], u, v, cost);
+				cpps[1].addArc("a", u, v, cost);
+			}
+		}
+		return cpps;
+	}
+
+	/**
+	 * Returns the cost of traversing the repeated arcs of the given solved finder a second time.
+	 */
+	private double getRepeatedCost(UndirectedGraphCycleFinder cpp) {
+		double cost = 0;
+		for(Pair<Integer> arc : cpp.getRepeatedEdges())
+			cost += costs.get(getKey(arc.first(), arc.second()));
+		return cost;
+	}
+
+	/**
+	 * Checks that the cycle of the given solved finder is a closed walk that uses every arc of the graph,
+	 * together with the repeated arcs, exactly once.
+	 */
+	private void checkCycle(UndirectedGraphCycleFinder cpp) {
+		Map<Long, Integer> unused = new HashMap<Long, Integer>();
+		for(int[] arc : arcs)
+			increment(unused, getKey(arc[0], arc[1]));
+		for(Pair<Integer> arc : cpp.getRepeatedEdges())
+			increment(unused, getKey(arc.first(), arc.second()));
+
+		List<Integer> cycle = cpp.getCycle();
+		assertEquals(arcs.size() + cpp.getRepeatedEdges().size(), cycle.size());
+		for(int i = 0; i < cycle.size(); i++) {
+			//The first vertex is not repeated at the end, so the last arc goes back to it
+			long key = getKey(cycle.get(i), cycle.get((i+1) % cycle.size()));
+			Integer left = unused.get(key);
+			assertTrue("The arc " + cycle.get(i) + "-" + cycle.get((i+1) % cycle.size()) + " is not in the graph or used too often", left != null && left > 0);
+			unused.put(key, left - 1);
+		}
+		for(int left : unused.values())
+			assertEquals(0, left);
+	}
+
+	private static void increment(Map<Long, Integer> counts, long key) {
+		Integer count = counts.get(key);
+		counts.put(key, count == null ? 1 : count + 1);
+	}
+
+	@Test
+	public void cycle_evenDegrees() {
+		UndirectedGraphCycleFinder cpp = new UndirectedGraphCycleFinder(4);
+		addArc(cpp, 0, 1, 1);
+		addArc(cpp, 1, 2, 2);
+		addArc(cpp, 2, 3, 3);
+		addArc(cpp, 3, 0, 4);
+		cpp.solve();
+		assertEquals(0, cpp.getRepeatedEdges().size());
+		checkCycle(cpp);
+	}
+
+	@Test
+	public void cycle_path() {
+		UndirectedGraphCycleFinder cpp = new UndirectedGraphCycleFinder(4);
+		addArc(cpp, 0, 1, 1);
+		addArc(cpp, 1, 2, 2);
+		addArc(cpp, 2, 3, 3);
+		cpp.solve();
+		//Every arc is traversed twice
+		checkCycle(cpp);
+		assertEquals(cpp.getBasicCost(), getRepeatedCost(cpp), 0);
+	}
+
+	@Test
+	public void cycle_oddDegrees() {
+		//Two triangles joined by a long arc: 0 and 3 are odd, the shortest path between them is the long arc
+		UndirectedGraphCycleFinder cpp = new UndirectedGraphCycleFinder(6);
+		addArc(cpp, 0, 1, 1);
+		addArc(cpp, 1, 2, 1);
+		addArc(cpp, 2, 0, 1);
+		addArc(cpp, 3, 4, 1);
+		addArc(cpp, 4, 5, 1);
+		addArc(cpp, 5, 3, 1);
+		addArc(cpp, 0, 3, 10);
+		cpp.solve();
+		assertEquals(1, cpp.getRepeatedEdges().size());
+		checkCycle(cpp);
+		assertEquals(10, getRepeatedCost(cpp), 0);
+	}
+
+	@Test
+	public void cycle_parallelArcs() {
+		UndirectedGraphCycleFinder cpp = new UndirectedGraphCycleFinder(3);
+		addArc(cpp, 0, 1, 2);
+		addArc(cpp, 0, 1, 2);
+		addArc(cpp, 1, 2, 5);
+		cpp.solve();
+		checkCycle(cpp);
+		assertEquals(5, getRepeatedCost(cpp), 0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void cycle_severalComponents() {
+		UndirectedGraphCycleFinder cpp = new UndirectedGraphCycleFinder(6);
+		addArc(cpp, 0, 1, 1);
+		addArc(cpp, 1, 2, 1);
+		addArc(cpp, 3, 4, 1);
+		addArc(cpp, 4, 5, 1);
+		cpp.solve();
+	}
+
+	@Test
+	public void cycle_randomGraphs() {
+		for(int graph = 0; graph < 50; graph++) {
+			UndirectedGraphCycleFinder[] cpps = createRandomGraph(2 + random.nextInt(60), random.nextInt(40));
+			for(UndirectedGraphCycleFinder cpp : cpps) {
+				cpp.solve();
+				checkCycle(cpp);
+			}
+			//The default matcher pairs this few odd vertices optimally
+			assertTrue(getRepeatedCost(cpps[0]) <= getRepeatedCost(cpps[1]) + 1e-3);
+		}
+	}
+
+}
@@ -164,5 +164,54 @@ public class TestDijkstra {
 		assertEquals(w00, vertices.get(0));
 		assertEquals(w11, vertices.get(1));
 	}
+	
+	@Test
+	public void shortestPath_equalCostPrefersLeastEdges() {
+		Vertex s = new Vertex(new Position(0,0), null),
+				p = new Vertex(new Position(1,0), null),
+				q = new Vertex(new Position(0,1), null),
+				r = new Vertex(new Position(1,1), null),
+				t = new Vertex(new Position(2,2), null);
+		s.addBidirectionalEdge(new Edge(q, 0.5));
+		q.addBidirectionalEdge(new Edge(r, 0.5));
+		r.addBidirectionalEdge(new Edge(t, 1));
+		s.addBidirectionalEdge(new Edge(p, 1));
+		p.addBidirectionalEdge(new Edge(t, 1));
+		
+		Dijkstra dijkstra = new Dijkstra(s);
+		List<Vertex> vertices = dijkstra.getShortestPath(t);
+		assertEquals(2, dijkstra.getDistance(t), 0);
+		assertEquals(3, vertices.size());
+		assertEquals(s, vertices.get(0));
+		assertEquals(p, vertices.get(1));
+		assertEquals(t, vertices.get(2));
+	}
+	
+	@Test
+	public void shortestPath_reusedGraph() {
+		CompactGraph graph = CompactGraph.reachableFrom(v00);
+		Dijkstra fromV00 = new Dijkstra(graph, v00);
+		Dijkstra fromV01 = new Dijkstra(graph, v01);
+		assertEquals(5, fromV00.getDistance(v10), 0);
+		assertEquals(8, fromV01.getDistance(v00), 0);
+		assertEquals(v00, fromV00.getShortestPath(v10).get(0));
+		assertEquals(v01, fromV01.getShortestPath(v00).get(0));
+		assertEquals(1, fromV00.getShortestPath(w00).size());
+		assertEquals(Double.MAX_VALUE, fromV00.getDistance(w00), 0);
+	}
+	
+	@Test
+	public void nearestTarget_twoSources() {
+		CompactGraph graph = CompactGraph.reachableFrom(v00);
+		ShortestPath path = graph.searchNearest(new int[]{graph.getIndex(v00), graph.getIndex(v11)}, new int[]{graph.getIndex(v01)});
+		assertEquals(4, path.getLength(), 0);
+		assertEquals(2, path.getNbVertices());
+		assertEquals(v11, graph.getVertex(path.getSource()));
+		assertEquals(v01, graph.getVertex(path.getTarget()));
+		
+		path = graph.searchNearest(new int[]{graph.getIndex(v00)}, new int[]{graph.getIndex(v01), graph.getIndex(v11)});
+		assertEquals(7, path.getLength(), 0);
+		assertEquals(v11, graph.getVertex(path.getTarget()));
+	}
 
 }
@@ -0,0 +1,151 @@
+package util.algorithms.matching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import util.algorithms.dijkstra.CompactGraph;
+import util.algorithms.dijkstra.Vertex;
+
+public class TestOddVertexMatcher {
+
+	//The blossom matcher rounds every distance to a meter
+	private static final double ROUNDING = 0.0005;
+
+	private Random random;
+
+	@Before
+	public void setUpMutableFixture() {
+		random = new Random(4242);
+	}
+
+	/**
+	 * Creates a connected random graph with the given number of vertices and the distances between its odd vertices.
+	 */
+	private OddVertexDistances createRandomGraph(int nbOfVertices, int nbOfExtraEdges, int nbOfNeighbours) {
+		List<Vertex> vertices = new ArrayList<Vertex>();
+		for(int i = 0; i < nbOfVertices; i++)
+			vertices.add(new Vertex(random.nextDouble() * 100, random.nextDouble() * 100, null));
+		for(int i = 1; i < nbOfVertices; i++)
+			vertices.get(i).addBidirectionalEdge(vertices.get(random.nextInt(i)), 1 + random.nextInt(50) + random.nextDouble());
+		for(int i = 0; i < nbOfExtraEdges; i++) {
+			int from = random.nextInt(nbOfVertices), to = random.nextInt(nbOfVertices);
+			if(from != to)
+				vertices.get(from).addBidirectionalEdge(vertices.get(to), 1 + random.nextInt(50) + random.nextDouble());
+		}
+		List<Integer> odd = new ArrayList<Integer>();
+		for(int i = 0; i < nbOfVertices; i++)
+			if(vertices.get(i).getEdges().size() % 2 != 0)
+				odd.add(i);
+		int[] oddVertices = new int[odd.size()];
+		for(int i = 0; i < oddVertices.length; i++)
+			oddVertices[i] = odd.get(i);
+		return new OddVertexDistances(new CompactGraph(vertices), oddVertices, nbOfNeighbours);
+	}
+
+	/**
+	 * Checks that every vertex is paired with another vertex, which is paired with it.
+	 */
+	private void checkPerfectMatching(OddVertexDistances distances, int[] mate) {
+		assertEquals(distances.size(), mate.length);
+		for(int i = 0; i < mate.length; i++) {
+			assertTrue(mate[i] >= 0 && mate[i] < mate.length && mate[i] != i);
+			assertEquals(i, mate[mate[i]]);
+		}
+	}
+
+	private double getTotalDistance(OddVertexDistances distances, int[] mate) {
+		double total = 0;
+		for(int i = 0; i < mate.length; i++)
+			if(i < mate[i])
+				total += distances.getDistance(i, mate[i]);
+		return total;
+	}
+
+	/**
+	 * Finds the lowest total distance of all perfect matchings of the given free vertices by trying them all.
+	 */
+	private double getBruteForceDistance(OddVertexDistances distances, boolean[] matched) {
+		int first = 0;
+		while(first < matched.length && matched[first])
+			first++;
+		if(first == matched.length)
+			return 0;
+		double best = Double.MAX_VALUE;
+		matched[first] = true;
+		for(int other = first + 1; other < matched.length; other++)
+			if(!matched[other]) {
+				matched[other] = true;
+				best = Math.min(best, distances.getDistance(first, other) + getBruteForceDistance(distances, matched));
+				matched[other] = false;
+			}
+		matched[first] = false;
+		return best;
+	}
+
+	@Test
+	public void blossom_baseCase() {
+		Vertex a = new Vertex(0, 0, null), b = new Vertex(0, 1, null), c = new Vertex(0, 2, null), d = new Vertex(0, 3, null);
+		a.addBidirectionalEdge(b, 1);
+		b.addBidirectionalEdge(c, 10);
+		c.addBidirectionalEdge(d, 1);
+		List<Vertex> vertices = new ArrayList<Vertex>();
+		vertices.add(a);
+		vertices.add(b);
+		vertices.add(c);
+		vertices.add(d);
+		OddVertexDistances distances = new OddVertexDistances(new CompactGraph(vertices), new int[]{0, 1, 2, 3}, 1);
+		int[] mate = new BlossomOddVertexMatcher().match(distances);
+		checkPerfectMatching(distances, mate);
+		assertEquals(1, mate[0]);
+		assertEquals(3, mate[2]);
+		assertEquals(2, getTotalDistance(distances, mate), 0);
+	}
+
+	@Test
+	public void blossom_noOddVertices() {
+		OddVertexDistances distances = new OddVertexDistances(new CompactGraph(new ArrayList<Vertex>()), new int[0], 3);
+		assertEquals(0, new BlossomOddVertexMatcher().match(distances).length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void blossom_tooManyVertices() {
+		OddVertexDistances distances = createRandomGraph(30, 10, 3);
+		new BlossomOddVertexMatcher(distances.size() - 2).match(distances);
+	}
+
+	@Test
+	public void blossom_randomGraphsAgainstBruteForce() {
+		for(int graph = 0; graph < 100; graph++) {
+			OddVertexDistances distances = createRandomGraph(6 + random.nextInt(15), random.nextInt(10), random.nextInt(4));
+			if(distances.size() > 12)
+				continue;
+			int[] mate = new BlossomOddVertexMatcher().match(distances);
+			checkPerfectMatching(distances, mate);
+			double optimum = getBruteForceDistance(distances, new boolean[distances.size()]);
+			assertEquals(optimum, getTotalDistance(distances, mate), ROUNDING * distances.size());
+		}
+	}
+
+	@Test
+	public void greedy_randomGraphs() {
+		for(int graph = 0; graph < 100; graph++) {
+			OddVertexDistances distances = createRandomGraph(10 + random.nextInt(200), random.nextInt(40), random.nextInt(6));
+			int[] withoutImprovements = new GreedyOddVertexMatcher(0).match(distances),
+					improved = new GreedyOddVertexMatcher().match(distances),
+					optimal = new BlossomOddVertexMatcher().match(distances);
+			checkPerfectMatching(distances, withoutImprovements);
+			checkPerfectMatching(distances, improved);
+			double improvedDistance = getTotalDistance(distances, improved);
+			assertTrue(improvedDistance <= getTotalDistance(distances, withoutImprovements) + 1e-9);
+			assertTrue(improvedDistance >= getTotalDistance(distances, optimal) - ROUNDING * distances.size());
+		}
+	}
+
+}
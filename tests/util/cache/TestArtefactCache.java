@@ -0,0 +1,57 @@
+package util.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestArtefactCache {
+
+	private File directory;
+
+	@Before
+	public void setUpMutableFixture() throws IOException {
+		directory = Files.createTempDirectory("artefacts").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if(files != null)
+			for(File f : files)
+				f.delete();
+		directory.delete();
+	}
+
+	@Test
+	public void cache_readWrite() {
+		ArtefactCache cache = ArtefactCache.get(directory.getPath(), 1024);
+		assertNull(cache.read("network-a"));
+		cache.write("network-a", new byte[] {1, 2, 3});
+		assertArrayEquals(new byte[] {1, 2, 3}, cache.read("network-a"));
+		//Only the artefact is left, not its temporary file
+		assertEquals(1, directory.listFiles().length);
+	}
+
+	@Test
+	public void cache_staleTempFilesRemoved() throws IOException {
+		File stale = new File(directory, "network-a123.tmp"), recent = new File(directory, "network-b456.tmp");
+		Files.write(stale.toPath(), new byte[10]);
+		Files.write(recent.toPath(), new byte[10]);
+		assertTrue(stale.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000));
+		ArtefactCache.get(directory.getPath(), 1024);
+		assertFalse(stale.exists());
+		//May still be written by another run
+		assertTrue(recent.exists());
+	}
+
+}